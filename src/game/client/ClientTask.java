@@ -3,9 +3,11 @@ package game.client;
 import game.client.messages.*;
 import game.graphics.ViewPort;
 import game.server.EntityStateFragment;
+import game.server.SnapshotHistory;
 import game.util.TimeFlow;
 import game.server.messages.*;
 import game.util.RateCounter;
+import game.util.ReceiveBufferRing;
 import game.util.Timeout;
 import game.world.Board;
 import game.world.entities.Entity;
@@ -19,6 +21,9 @@ import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 
 import static game.util.Debug.log;
@@ -29,7 +34,12 @@ import static java.lang.Math.max;
  * Read-accessed by rendering thread and write-accessed by own thread.
  */
 public class ClientTask implements Runnable {
+    private static final int RECEIVE_BUFFER_SIZE = 1024;    // twice largest message, so larger ones are caught
+    private static final int RECEIVE_RING_SIZE = 4;
+    private static final int MAX_PACKETS_PER_FRAME = 64;    // several snapshots of fragments
     private final DatagramChannel channel;
+    private final ReceiveBufferRing receiveBuffers = new ReceiveBufferRing(RECEIVE_RING_SIZE, RECEIVE_BUFFER_SIZE);
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(ClientMessageBase.SEND_BUFFER_MAX_SIZE);
     private final RateCounter loopRate = new RateCounter(); // used to count Run() loop rate
     // event handlers, set before thread started
     public Consumer<String> onTryToConnectSuccess;          // when connection successful
@@ -52,6 +62,9 @@ public class ClientTask implements Runnable {
     private InputMoveOrder moveOrder = InputMoveOrder.STOP;
     private short clientKey;                                // two bytes - client identifier in network operations
     private final TimeFlow timeFlow = new TimeFlow();       // TimeFlow is synced to server time and running in between
+    private final SnapshotHistory receivedSnapshots = new SnapshotHistory();  // baselines of delta records
+    private final BitSet assembledFragments = new BitSet(); // fragments of snapshot being received
+    private int assemblingSnapshot = ServerBoardStateUpdate.NO_SNAPSHOT;
 
     /**
      * Constructs client with given parameters.
@@ -214,7 +227,7 @@ public class ClientTask implements Runnable {
                 return;
             }
 
-            writeBufferToChannel(new ClientConfirmReady(getUniqueID()).toBuffer());
+            writeMessageToChannel(new ClientConfirmReady(getUniqueID()));
 
             ByteBuffer buffer = processIncomingPackets();
             Timeout replyTimeout = new Timeout(1000);
@@ -272,7 +285,7 @@ public class ClientTask implements Runnable {
             }
 
             //1. send request for next line
-            writeBufferToChannel(new ClientBoardLineRequest(lines.size()).toBuffer());
+            writeMessageToChannel(new ClientBoardLineRequest(lines.size()));
 
             //2. wait for next line reply from server
             Timeout timeoutForLine = new Timeout(500);
@@ -342,33 +355,39 @@ public class ClientTask implements Runnable {
     }
 
     /**
-     * Fills buffer from client's channel and rewinds it for subsequent
-     * processing by caller.
+     * Receives next datagram from client's channel into next buffer of receive ring, flipped for subsequent
+     * processing by caller. Buffer stays valid for RECEIVE_RING_SIZE - 1 more calls. Truncated datagrams are
+     * dropped.
      *
      * @return buffer read or null if there is no data in channel.
      */
     private ByteBuffer processIncomingPackets() {
-        // process incoming message
-        // for performance reasons it may be better to keep buffer allocated and just rewinding it before net read
-        // and flipping after read is complete. For simplicity it is left out as is.
+        try {
+            while (true) {
+                ByteBuffer buffer = receiveBuffers.next();
+                if (channel.receive(buffer) == null) return null;
 
-        // should be enough space for reading any server message
-        ByteBuffer buffer = ByteBuffer.allocate(1024);
+                buffer.flip();
+                if (!ReceiveBufferRing.isTruncated(buffer)) return buffer;
 
-        SocketAddress source = null;
-        try {
-            source = channel.receive(buffer);
-            buffer.rewind();
+                log("Datagram over %d bytes from %s dropped", buffer.capacity(), getServerAddress());
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
 
-        return (source != null ? buffer : null);
+        return null;
     }
 
-    private void writeBufferToChannel(ByteBuffer buffer) throws IOException {
-        buffer.rewind();
-        channel.write(buffer);
+    /**
+     * Writes message into direct buffer reused for all messages and sends it. Input is sent from GUI thread, other
+     * messages from client loop, so buffer is shared under lock.
+     */
+    private synchronized void writeMessageToChannel(ClientMessageBase message) throws IOException {
+        sendBuffer.clear();
+        message.writeTo(sendBuffer);
+        sendBuffer.flip();
+        channel.write(sendBuffer);
     }
 
     /**
@@ -437,13 +456,12 @@ public class ClientTask implements Runnable {
 
         try {
             ClientExitRequest m = new ClientExitRequest(getClientName(), getUniqueID());
-            ByteBuffer buffer = m.toBuffer();
-            writeBufferToChannel(buffer);                   // send exit message once
+            writeMessageToChannel(m);                       // send exit message once
 
             Timeout disconnectTimeout = new Timeout(3000);  // setup timeout and loop for response
             while (isRunning() && !disconnectTimeout.occurred()) {
 
-                buffer = processIncomingPackets();        // get next message from server
+                ByteBuffer buffer = processIncomingPackets();  // get next message from server
                 if (buffer == null) try {
                     Thread.sleep(20);                       // if no messages arrived yet - sleep for some time
                     continue;                               // start over again
@@ -490,8 +508,11 @@ public class ClientTask implements Runnable {
                 // update rate counter with current iteration
                 loopRate.update();
 
-                // read network packets first
-                for (ByteBuffer buf = processIncomingPackets(); buf != null; buf = processIncomingPackets()) {
+                // read network packets first, rest of burst is left for next frames
+                for (int n = 0; n < MAX_PACKETS_PER_FRAME; n++) {
+                    ByteBuffer buf = processIncomingPackets();
+                    if (buf == null) break;
+
                     processIncomingPackets(buf);
                 }
 
@@ -557,12 +578,25 @@ public class ClientTask implements Runnable {
                 handleServerBoardStateUpdate(buffer);   // process board state from server
                 break;
             }
+            case TERRAIN_UPDATE: {
+                handleServerTerrainUpdate(buffer);      // cells destroyed on server
+                break;
+            }
             default: {
                 log("Unexpected packet %s from %s", ServerMessageBase.getTypeFromBuffer(buffer), getServerAddress());
             }
         }
     }
 
+    private void handleServerTerrainUpdate(ByteBuffer buffer) {
+        ServerTerrainUpdate updateMessage = new ServerTerrainUpdate(buffer);
+
+        // same tiles come repeatedly, board ignores overlay it already has
+        for (ServerTerrainUpdate.Tile tile : updateMessage.tiles) {
+            getBoard().setCellOverlay(getBoard().getCell(tile.row, tile.col), tile.getOverlayID());
+        }
+    }
+
     private void handleServerBoardStateUpdate(ByteBuffer buffer) {
         // 1. check if message time is equal of higher than in client's state
         // 2. extract message buffers and parse entities
@@ -586,46 +620,124 @@ public class ClientTask implements Runnable {
         try {
             ByteBuffer buf = updateMessage.state.getEntityStateBuffer();
 
+            if (updateMessage.isSnapshot()) {
+                applySnapshotFragment(updateMessage, buf);
+                return;
+            }
+
             // iterate stored number of entities by typeIndex and creating corresponding instance
             // instance reads it's state from buffer, double checks for entityType and advances
             // buffer position accordingly to it's type, so next iteration can begin
             for (int i = 0; i < updateMessage.state.entityCount; i++) {
-                short entityKey = EntityStateFragment.getEntityKey(buf);
+                applyEntityState(buf, updateMessage.time);
+            }
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            centerOnControlledEntity(updateMessage.clientKey);
+        }
+    }
 
-                // try to find existing using stored key. Key is unique through class instances.
-                Entity entity = getBoard().getEntity(entityKey);
+    /**
+     * Turns delta records of snapshot fragment back into full states against baseline snapshot and applies them.
+     * Acknowledges snapshot once all of it's fragments are received.
+     */
+    private void applySnapshotFragment(ServerBoardStateUpdate updateMessage, ByteBuffer buf) throws IOException {
+        Map<Short, byte[]> baseline = null;
 
-                // key does not exist - we create entity with provided key, otherwise update existing
-                if (entity == null) {
-                    entity = EntityTypeInfo.createFromBuffer(board, buf);
-                    getBoard().registerEntity(entity);
-                } else {
-                    entity.get(buf);
-                }
+        if (updateMessage.baseline != ServerBoardStateUpdate.NO_SNAPSHOT) {
+            baseline = receivedSnapshots.get(updateMessage.baseline);
+            if (baseline == null) return;                   // too old, server will soon send full records instead
+        }
+
+        if (updateMessage.sequence != assemblingSnapshot) {
+            if (updateMessage.sequence < assemblingSnapshot) return;    // newer snapshot is applied already
+
+            assemblingSnapshot = updateMessage.sequence;
+            assembledFragments.clear();
+            receivedSnapshots.put(assemblingSnapshot, new HashMap<>());
+        }
+
+        if (assembledFragments.get(updateMessage.fragmentIndex)) return;    // duplicate datagram
 
-                // update entity last state logic time for expiration purposes
-                entity.setNetworkUpdateTime(updateMessage.time);
+        Map<Short, byte[]> snapshot = receivedSnapshots.get(assemblingSnapshot);
+
+        for (int i = 0; i < updateMessage.state.entityCount; i++) {
+            if (EntityStateFragment.isLeaveRecord(buf)) {   // entity is out of view, server stops sending it
+                getBoard().removeActiveEntity(EntityStateFragment.readKeyRecord(buf));
+                continue;
             }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+            if (EntityStateFragment.isKeepRecord(buf)) {    // server had no room for it's state, it's not changed
+                keepEntity(snapshot, baseline, EntityStateFragment.readKeyRecord(buf), updateMessage.time);
+                continue;
+            }
+
+            byte[] record = EntityStateFragment.readDeltaRecord(buf, baseline);
+
+            snapshot.put(EntityStateFragment.getEntityKey(ByteBuffer.wrap(record)), record);
+            applyEntityState(ByteBuffer.wrap(record), updateMessage.time);
+        }
+
+        assembledFragments.set(updateMessage.fragmentIndex);
+
+        if (assembledFragments.cardinality() == updateMessage.fragmentCount) {
+            // view size tells server which entities are worth sending
+            short viewWidth = (short) ViewPort.INSTANCE.getViewWidth();
+            short viewHeight = (short) ViewPort.INSTANCE.getViewHeight();
+            writeMessageToChannel(new ClientSnapshotAck(assemblingSnapshot, viewWidth, viewHeight));
+        }
+    }
+
+    /**
+     * Keeps entity which state server left out of snapshot, so it does not expire. Snapshot gets baseline record of
+     * entity, same as snapshot server keeps.
+     */
+    private void keepEntity(Map<Short, byte[]> snapshot, Map<Short, byte[]> baseline, short entityKey, int time) {
+        if (baseline != null && baseline.containsKey(entityKey)) {
+            snapshot.put(entityKey, baseline.get(entityKey));
+        }
+
+        Entity entity = getBoard().getEntity(entityKey);
+        if (entity != null) entity.setNetworkUpdateTime(time);
+    }
+
+    /**
+     * Reads full state record of entity, creating entity if client does not have it yet.
+     */
+    private void applyEntityState(ByteBuffer buf, int time) {
+        short entityKey = EntityStateFragment.getEntityKey(buf);
+
+        // try to find existing using stored key. Key is unique through class instances.
+        Entity entity = getBoard().getEntity(entityKey);
+
+        // key does not exist - we create entity with provided key, otherwise update existing
+        if (entity == null) {
+            entity = EntityTypeInfo.createFromBuffer(board, buf);
+            getBoard().registerEntity(entity);
+        } else {
+            entity.get(buf);
         }
 
+        // update entity last state logic time for expiration purposes
+        entity.setNetworkUpdateTime(time);
+    }
+
+    private void centerOnControlledEntity(short clientKey) {
         // get controlled entity position and update viewport
-        Entity entity = getBoard().getEntity(updateMessage.clientKey);
+        Entity entity = getBoard().getEntity(clientKey);
         if (entity != null && entity instanceof Positionable) {
             Positionable positionable = (Positionable) entity;
             ViewPort.INSTANCE.centerOnPos(positionable.getX(), positionable.getY());
         }
-
     }
 
     private void runTryingToConnect() {
         log("Entered TRYING_TO_CONNECT state");             // log this state method name
         try {                                               // send connection request to server
             ClientJoinRequest m = new ClientJoinRequest(getClientName(), (uniqueID != null ? uniqueID : "none"));
-            ByteBuffer buffer = m.toBuffer();
-            writeBufferToChannel(buffer);
+            writeMessageToChannel(m);
         } catch (Exception e) {
             e.printStackTrace();
             setState(ClientState.DISCONNECTED);
@@ -696,7 +808,7 @@ public class ClientTask implements Runnable {
 
     public void togglePause() {
         try {
-            writeBufferToChannel(new ClientPauseToggleRequest(!isPaused()).toBuffer());
+            writeMessageToChannel(new ClientPauseToggleRequest(!isPaused()));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -732,7 +844,8 @@ public class ClientTask implements Runnable {
 
     public void sendInputStateToServer() {
         try {
-            writeBufferToChannel(new ClientInputMessage(getTurnOrder(), getMoveOrder(), getFireOrder()).toBuffer());
+            writeMessageToChannel(new ClientInputMessage(getTurnOrder(), getMoveOrder(), getFireOrder(),
+                    (int) timeFlow.time()));                // server measures our latency with time we show
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -740,7 +853,7 @@ public class ClientTask implements Runnable {
 
     public void sendSelfDestructMessage() {
         try {
-            writeBufferToChannel(new ClientSelfDestructMessage(getUniqueID()).toBuffer());
+            writeMessageToChannel(new ClientSelfDestructMessage(getUniqueID()));
         } catch (IOException e) {
             e.printStackTrace();
         }
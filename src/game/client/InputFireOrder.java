@@ -2,5 +2,14 @@ package game.client;
 
 public enum InputFireOrder {
     NONE,
-    FIRE,
+    FIRE;
+
+    private static final InputFireOrder[] VALUES = values();  // values() makes new copy on each call
+
+    /**
+     * Gets constant by ordinal, as read from message, without copying array of constants.
+     */
+    public static InputFireOrder fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
 }
@@ -1,5 +1,14 @@
 package game.client;
 
 public enum InputMoveOrder {
-    STOP, FORWARD, REVERSE,
+    STOP, FORWARD, REVERSE;
+
+    private static final InputMoveOrder[] VALUES = values();  // values() makes new copy on each call
+
+    /**
+     * Gets constant by ordinal, as read from message, without copying array of constants.
+     */
+    public static InputMoveOrder fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
 }
@@ -5,5 +5,14 @@ public enum InputTurnOrder {
     NORTH,
     EAST,
     SOUTH,
-    WEST,
+    WEST;
+
+    private static final InputTurnOrder[] VALUES = values();  // values() makes new copy on each call
+
+    /**
+     * Gets constant by ordinal, as read from message, without copying array of constants.
+     */
+    public static InputTurnOrder fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
 }
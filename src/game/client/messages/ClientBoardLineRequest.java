@@ -23,7 +23,7 @@ public class ClientBoardLineRequest extends ClientMessageBase{
     }
 
     @Override
-    public ByteBuffer toBuffer() {
-        return make(getType(), lineIndex);
+    protected void writeFields(ByteBuffer dst) {
+        dst.putInt(lineIndex);
     }
 }
@@ -0,0 +1,121 @@
+package game.client.messages;
+
+import game.client.InputFireOrder;
+import game.client.InputMoveOrder;
+import game.client.InputTurnOrder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sent by AI worker process: same orders human client sends with ClientInputMessage, for each of bots worker
+ * controls.
+ */
+public class ClientBotControl extends ClientMessageBase {
+    public static final int MAX_BOTS = 64;                  // keeps message in single datagram
+
+    /**
+     * Orders for single bot.
+     */
+    public static class Orders {
+        public final short botKey;
+        public final InputTurnOrder turnOrder;
+        public final InputMoveOrder moveOrder;
+        public final InputFireOrder fireOrder;
+
+        public Orders(short botKey, InputTurnOrder turnOrder, InputMoveOrder moveOrder, InputFireOrder fireOrder) {
+            this.botKey = botKey;
+            this.turnOrder = turnOrder;
+            this.moveOrder = moveOrder;
+            this.fireOrder = fireOrder;
+        }
+    }
+
+    /**
+     * Reads orders in place, without copying them into Orders objects. Single view is wrapped around each buffer
+     * received.
+     */
+    public static final class View {
+        private static final int ORDERS_SIZE = 5;           // key, turn, move and fire
+
+        private ByteBuffer buf;
+
+        public View wrap(ByteBuffer buf) {
+            this.buf = buf;
+            return this;
+        }
+
+        public int getCount() {
+            return buf.get(FIELDS_OFFSET);
+        }
+
+        public short getBotKey(int n) {
+            return buf.getShort(offset(n));
+        }
+
+        public InputTurnOrder getTurnOrder(int n) {
+            return InputTurnOrder.fromOrdinal(buf.get(offset(n) + 2));
+        }
+
+        public InputMoveOrder getMoveOrder(int n) {
+            return InputMoveOrder.fromOrdinal(buf.get(offset(n) + 3));
+        }
+
+        public InputFireOrder getFireOrder(int n) {
+            return InputFireOrder.fromOrdinal(buf.get(offset(n) + 4));
+        }
+
+        private static int offset(int n) {
+            return FIELDS_OFFSET + 1 + n * ORDERS_SIZE;
+        }
+    }
+
+    public final List<Orders> orders;
+
+    public ClientBotControl(List<Orders> orders) {
+        if (orders.size() > MAX_BOTS) {
+            throw new IllegalArgumentException(String.format("Can't send orders of more than %d bots", MAX_BOTS));
+        }
+
+        this.orders = Collections.unmodifiableList(new ArrayList<>(orders));
+    }
+
+    public ClientBotControl(ByteBuffer srcBuffer) {
+        super(srcBuffer);
+
+        int count = srcBuffer.get();
+        List<Orders> list = new ArrayList<>(count);
+
+        for (int n = 0; n < count; n++) {
+            short botKey = srcBuffer.getShort();
+            InputTurnOrder turnOrder = InputTurnOrder.fromOrdinal(srcBuffer.get());
+            InputMoveOrder moveOrder = InputMoveOrder.fromOrdinal(srcBuffer.get());
+            InputFireOrder fireOrder = InputFireOrder.fromOrdinal(srcBuffer.get());
+
+            list.add(new Orders(botKey, turnOrder, moveOrder, fireOrder));
+        }
+
+        orders = Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public ClientMessageType getType() {
+        return ClientMessageType.WORKER_BOT_CONTROL;
+    }
+
+    @Override
+    protected void writeFields(ByteBuffer dst) {
+        dst.put((byte) orders.size());
+
+        for (int n = 0; n < orders.size(); n++) {       // indexed, so no iterator is allocated
+            Orders o = orders.get(n);
+
+            dst.putShort(o.botKey);
+            dst.put((byte) o.turnOrder.ordinal());
+            dst.put((byte) o.moveOrder.ordinal());
+            dst.put((byte) o.fireOrder.ordinal());
+        }
+    }
+}
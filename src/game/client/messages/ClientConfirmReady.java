@@ -5,6 +5,16 @@ import java.nio.ByteBuffer;
 public class ClientConfirmReady extends ClientMessageBase {
     final public String uniqueID;
 
+    /**
+     * Checks ID in received buffer without decoding it into string.
+     *
+     * @param buffer      received message
+     * @param uniqueBytes bytes of ID expected, as written by putString()
+     */
+    public static boolean hasUniqueID(ByteBuffer buffer, byte[] uniqueBytes) {
+        return stringEquals(buffer, FIELDS_OFFSET, uniqueBytes);
+    }
+
     public ClientConfirmReady(String uniqueID) {
         this.uniqueID = uniqueID;
     }
@@ -20,7 +30,7 @@ public class ClientConfirmReady extends ClientMessageBase {
     }
 
     @Override
-    public ByteBuffer toBuffer() {
-        return make(getType(), uniqueID);
+    protected void writeFields(ByteBuffer dst) {
+        putString(dst, uniqueID);
     }
 }
@@ -25,7 +25,9 @@ public class ClientExitRequest extends ClientMessageBase {
         return ClientMessageType.CLIENT_EXIT_REQUEST;
     }
 
-    public ByteBuffer toBuffer() {
-        return make(getType(), clientName, uniqueID);
+    @Override
+    protected void writeFields(ByteBuffer dst) {
+        putString(dst, clientName);
+        putString(dst, uniqueID);
     }
 }
\ No newline at end of file
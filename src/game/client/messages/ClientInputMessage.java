@@ -10,24 +10,57 @@ public class ClientInputMessage extends ClientMessageBase{
     public final InputTurnOrder turnOrder;
     public final InputMoveOrder moveOrder;
     public final InputFireOrder fireOrder;
+    public final int clientTime;                            // board time client was showing when input was given
+
+    /**
+     * Reads fields of message in place, without copying it. Single view is wrapped around each buffer received.
+     */
+    public static final class View {
+        private ByteBuffer buf;
+
+        public View wrap(ByteBuffer buf) {
+            this.buf = buf;
+            return this;
+        }
+
+        public InputTurnOrder getTurnOrder() {
+            return InputTurnOrder.fromOrdinal(buf.get(FIELDS_OFFSET));
+        }
+
+        public InputMoveOrder getMoveOrder() {
+            return InputMoveOrder.fromOrdinal(buf.get(FIELDS_OFFSET + 1));
+        }
+
+        public InputFireOrder getFireOrder() {
+            return InputFireOrder.fromOrdinal(buf.get(FIELDS_OFFSET + 2));
+        }
+
+        public int getClientTime() {
+            return buf.getInt(FIELDS_OFFSET + 3);
+        }
+    }
 
     /**
      * This is used to transfer user input to server. Server uses client address to determine
      * how to apply this message to world state.
      * @param moveOrder moving order.
      * @param fireOrder firing order.
+     * @param clientTime board time client was showing, server measures client latency with it.
      */
-    public ClientInputMessage(InputTurnOrder turnOrder, InputMoveOrder moveOrder, InputFireOrder fireOrder) {
+    public ClientInputMessage(InputTurnOrder turnOrder, InputMoveOrder moveOrder, InputFireOrder fireOrder,
+                              int clientTime) {
         this.turnOrder = turnOrder;
         this.moveOrder = moveOrder;
         this.fireOrder = fireOrder;
+        this.clientTime = clientTime;
     }
 
     public ClientInputMessage(ByteBuffer srcBuffer) {
         super(srcBuffer);
-        turnOrder = InputTurnOrder.values()[srcBuffer.get()];
-        moveOrder = InputMoveOrder.values()[srcBuffer.get()];
-        fireOrder = InputFireOrder.values()[srcBuffer.get()];
+        turnOrder = InputTurnOrder.fromOrdinal(srcBuffer.get());
+        moveOrder = InputMoveOrder.fromOrdinal(srcBuffer.get());
+        fireOrder = InputFireOrder.fromOrdinal(srcBuffer.get());
+        clientTime = srcBuffer.getInt();
     }
 
     @Override
@@ -36,7 +69,10 @@ public class ClientInputMessage extends ClientMessageBase{
     }
 
     @Override
-    public ByteBuffer toBuffer() {
-        return make(getType(), (byte) turnOrder.ordinal(), (byte) moveOrder.ordinal(), (byte) fireOrder.ordinal() );
+    protected void writeFields(ByteBuffer dst) {
+        dst.put((byte) turnOrder.ordinal());
+        dst.put((byte) moveOrder.ordinal());
+        dst.put((byte) fireOrder.ordinal());
+        dst.putInt(clientTime);
     }
 }
@@ -26,7 +26,9 @@ public class ClientJoinRequest extends ClientMessageBase {
         return ClientMessageType.CLIENT_JOIN_REQUEST;
     }
 
-    public ByteBuffer toBuffer() {
-        return make(getType(), clientName, uniqueID);
+    @Override
+    protected void writeFields(ByteBuffer dst) {
+        putString(dst, clientName);
+        putString(dst, uniqueID);
     }
 }
\ No newline at end of file
@@ -8,13 +8,14 @@ import java.nio.ByteBuffer;
  * This is abstract class that provides static utility methods to simplify
  * buffer writing and reading for subclasses.
  * <p>
- * Static make() method is used by subclasses to write their data.
+ * Subclasses write their data in writeFields(), with typed put methods.
  * <p>
  * Subclasses should carefully check that the amount and order of fields
  * read are equal to written.
  */
 public abstract class ClientMessageBase {
-    private static final int SEND_BUFFER_MAX_SIZE = 500;
+    public static final int SEND_BUFFER_MAX_SIZE = 500;
+    static final int FIELDS_OFFSET = Integer.BYTES;         // fields follow message type
 
     /**
      * Constructs message from ByteBuffer.
@@ -28,7 +29,7 @@ public abstract class ClientMessageBase {
         srcBuffer.rewind();
 
         // check if subclass messageType matches messageType in buffer
-        ClientMessageType type = ClientMessageType.values()[srcBuffer.getInt()];
+        ClientMessageType type = ClientMessageType.fromOrdinal(srcBuffer.getInt());
         if (getType() != type) {
             throw new IllegalArgumentException("Wrong message type in source buffer!");
         }
@@ -47,74 +48,29 @@ public abstract class ClientMessageBase {
      */
     public static ClientMessageType getTypeFromBuffer(ByteBuffer buffer) {
         assert buffer != null;
-        return ClientMessageType.values()[buffer.getInt(0)];
+        return ClientMessageType.fromOrdinal(buffer.getInt(0));
     }
 
     /**
-     * This is static helper method to fill ByteBuffer with parameters provided.
-     * Parameter messageType is determined from class name constants.
+     * Compares string written by putString() with expected bytes, in place, so checking ID sent by client allocates
+     * nothing.
      *
-     * @param messageType mandatory messageType field
-     * @param args        variable amount of arguments
-     * @return ByteBuffer object with position = 0
+     * @param src      buffer with message, position is not moved
+     * @param offset   absolute offset of string length
+     * @param expected bytes of string expected
+     * @return true if string in buffer has same bytes
      */
-    static ByteBuffer make(ClientMessageType messageType, Object... args) {
-
-        ByteBuffer temp = ByteBuffer.allocate(SEND_BUFFER_MAX_SIZE);
-
-        temp.putInt(messageType.ordinal());
-
-        for (Object o : args) {
-
-            String className = o.getClass().getSimpleName();
-            switch (className) {
-                case "Long": {
-                    temp.putLong((long) o);
-                    break;
-                }
-
-                case "Integer": {
-                    temp.putInt((int) o);
-                    break;
-                }
-
-                case "Double": {
-                    temp.putDouble((double) o);
-                    break;
-                }
-
-                case "Float": {
-                    temp.putFloat((float) o);
-                    break;
-                }
-
-                case "Byte": {
-                    temp.put((byte) o);
-                    break;
-                }
-
-                case "Char": {
-                    temp.putChar((char) o);
-                    break;
-                }
-
-                case "String": {
-                    putString(temp, (String) o);
-                    break;
-                }
-
-                default: {
-                    throw new IllegalArgumentException(String.format("Writing %s is not supported", o.getClass()));
-                }
-            }
-        }
+    static boolean stringEquals(ByteBuffer src, int offset, byte[] expected) {
+        if (offset + Integer.BYTES > src.limit()) return false;
+
+        int size = src.getInt(offset);
+        if (size != expected.length || offset + Integer.BYTES + size > src.limit()) return false;
 
-        ByteBuffer result = ByteBuffer.allocate(temp.position());
-        temp.flip();
+        for (int i = 0; i < size; i++) {
+            if (src.get(offset + Integer.BYTES + i) != expected[i]) return false;
+        }
 
-        result.put(temp);
-        result.flip();
-        return result;
+        return true;
     }
 
     /**
@@ -123,7 +79,7 @@ public abstract class ClientMessageBase {
      * @param dst destination buffer
      * @param s   string to save
      */
-    private static void putString(ByteBuffer dst, String s) {
+    static void putString(ByteBuffer dst, String s) {
         byte[] bytes = s.getBytes();
 
         dst.putInt(bytes.length);
@@ -138,11 +94,36 @@ public abstract class ClientMessageBase {
     protected abstract ClientMessageType getType();
 
     /**
-     * Subclass should implement making of ByteBuffer by using static <code>make()</code>.
+     * Subclass writes it's fields, in same order it's buffer constructor reads them, with typed put methods of
+     * ByteBuffer and putString(). Message type is written before by writeTo().
+     *
+     * @param dst buffer to write to.
+     */
+    protected abstract void writeFields(ByteBuffer dst);
+
+    /**
+     * Writes message into buffer provided by caller, e.g. direct buffer reused for each send. Nothing is allocated,
+     * except for bytes of strings.
+     *
+     * @param dst buffer with enough room, SEND_BUFFER_MAX_SIZE is always enough.
+     */
+    public final void writeTo(ByteBuffer dst) {
+        dst.putInt(getType().ordinal());
+        writeFields(dst);
+    }
+
+    /**
+     * Writes message into new buffer. Sending code should prefer writeTo() with buffer it reuses.
      *
      * @return ByteBuffer constructed and rewind.
      */
-    public abstract ByteBuffer toBuffer();
+    public ByteBuffer toBuffer() {
+        ByteBuffer buf = ByteBuffer.allocate(SEND_BUFFER_MAX_SIZE);
+
+        writeTo(buf);
+        buf.flip();
+        return buf;
+    }
 
     /**
      * Helper method to read string written with length byte by putString()
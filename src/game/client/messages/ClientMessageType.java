@@ -8,5 +8,16 @@ public enum ClientMessageType {
     CLIENT_WORLD_LINE_REQUEST,
     CLIENT_INPUT,
     CLIENT_SELF_DESTRUCT,
-}
+    WORKER_HELLO,
+    WORKER_BOT_CONTROL,
+    CLIENT_SNAPSHOT_ACK;
+
+    private static final ClientMessageType[] VALUES = values();  // values() makes new copy on each call
 
+    /**
+     * Gets constant by ordinal, as read from message, without copying array of constants.
+     */
+    public static ClientMessageType fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
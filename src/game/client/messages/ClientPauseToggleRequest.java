@@ -23,7 +23,7 @@ public class ClientPauseToggleRequest extends ClientMessageBase {
     }
 
     @Override
-    public ByteBuffer toBuffer() {
-        return make(getType(), Boolean.toString(pause));
+    protected void writeFields(ByteBuffer dst) {
+        putString(dst, Boolean.toString(pause));
     }
 }
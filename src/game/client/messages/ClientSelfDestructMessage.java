@@ -8,6 +8,16 @@ import java.nio.ByteBuffer;
 public class ClientSelfDestructMessage extends ClientMessageBase {
     public final String uniqueID;
 
+    /**
+     * Checks ID in received buffer without decoding it into string.
+     *
+     * @param buffer      received message
+     * @param uniqueBytes bytes of ID expected, as written by putString()
+     */
+    public static boolean hasUniqueID(ByteBuffer buffer, byte[] uniqueBytes) {
+        return stringEquals(buffer, FIELDS_OFFSET, uniqueBytes);
+    }
+
     public ClientSelfDestructMessage(ByteBuffer srcBuffer) {
         super(srcBuffer);
         uniqueID = getString(srcBuffer);
@@ -23,7 +33,7 @@ public class ClientSelfDestructMessage extends ClientMessageBase {
     }
 
     @Override
-    public ByteBuffer toBuffer() {
-        return make(getType(), uniqueID);
+    protected void writeFields(ByteBuffer dst) {
+        putString(dst, uniqueID);
     }
 }
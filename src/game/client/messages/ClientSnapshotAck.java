@@ -0,0 +1,62 @@
+package game.client.messages;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Sent when client received all fragments of snapshot. Server encodes next snapshots as differences from it. Also
+ * reports size of client's view, so server knows which entities client is interested in.
+ */
+public class ClientSnapshotAck extends ClientMessageBase {
+    public final int sequence;
+    public final short viewWidth;                           // in pixels
+    public final short viewHeight;
+
+    /**
+     * Reads fields of message in place, without copying it. Single view is wrapped around each buffer received.
+     */
+    public static final class View {
+        private ByteBuffer buf;
+
+        public View wrap(ByteBuffer buf) {
+            this.buf = buf;
+            return this;
+        }
+
+        public int getSequence() {
+            return buf.getInt(FIELDS_OFFSET);
+        }
+
+        public short getViewWidth() {
+            return buf.getShort(FIELDS_OFFSET + 4);
+        }
+
+        public short getViewHeight() {
+            return buf.getShort(FIELDS_OFFSET + 6);
+        }
+    }
+
+    public ClientSnapshotAck(int sequence, short viewWidth, short viewHeight) {
+        this.sequence = sequence;
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+
+    public ClientSnapshotAck(ByteBuffer srcBuffer) {
+        super(srcBuffer);
+        sequence = srcBuffer.getInt();
+        viewWidth = srcBuffer.getShort();
+        viewHeight = srcBuffer.getShort();
+    }
+
+    @Override
+    public ClientMessageType getType() {
+        return ClientMessageType.CLIENT_SNAPSHOT_ACK;
+    }
+
+    @Override
+    protected void writeFields(ByteBuffer dst) {
+        dst.putInt(sequence);
+        dst.putShort(viewWidth);
+        dst.putShort(viewHeight);
+    }
+}
@@ -0,0 +1,29 @@
+package game.client.messages;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Sent by AI worker process to register at server, and periodically after to show it is still alive.
+ */
+public class ClientWorkerHello extends ClientMessageBase {
+    public final String workerName;
+
+    public ClientWorkerHello(String workerName) {
+        this.workerName = workerName;
+    }
+
+    public ClientWorkerHello(ByteBuffer srcBuffer) {
+        super(srcBuffer);
+        workerName = getString(srcBuffer);
+    }
+
+    @Override
+    public ClientMessageType getType() {
+        return ClientMessageType.WORKER_HELLO;
+    }
+
+    @Override
+    protected void writeFields(ByteBuffer dst) {
+        putString(dst, workerName);
+    }
+}
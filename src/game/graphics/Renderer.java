@@ -3,9 +3,11 @@ package game.graphics;
 import com.sun.javafx.tk.FontLoader;
 import game.Engine;
 import game.Resources;
+import game.server.ServerIOManager;
 import game.util.RateCounter;
 import game.world.BoardCell;
 import game.world.Bounds;
+import game.world.TileOverlay;
 import game.world.entities.*;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
@@ -268,7 +270,15 @@ public enum Renderer {
             String s = String.format("%.0f bytes/s", bytes);
             if (bytes > 1_000_000) s = String.format("%.2f MB/s", bytes / 1_000_000.0);
             if (bytes > 1_000) s = String.format("%.2f KB/s", bytes / 1_000.0);
-            console.add(String.format("SERVER: network output rate = %s", s));
+            console.add(String.format("SERVER: network output rate = %s, bytes copied per client send = %.1f", s,
+                    Engine.getServer().getBytesCopiedPerClientSend()));
+            console.add(String.format("SERVER: datagrams dropped = %d, receive loops cut short = %d",
+                    Engine.getServer().getDroppedDatagramCount(), Engine.getServer().getDeferredDatagramCount()));
+
+            ServerIOManager io = Engine.getServer().getIOManager();
+            console.add(String.format("SERVER: I/O queues in = %d (%.0f us), out = %d (%.0f us)",
+                    io.getInboundQueueDepth(), io.getInboundLatency(), io.getOutboundQueueDepth(),
+                    io.getOutboundLatency()));
 
             int active = Engine.getServer().getBoard().getActiveEntitiesUnmodifiable().size();
             int inactive = Engine.getServer().getBoard().getInactiveEntitiesUnmodifiable().size();
@@ -369,9 +379,11 @@ public enum Renderer {
 
                 renderImageFrame(gc, cell.ground.imageFrame, imageFrameIndex, x, y, 1.0);
 
-                if (cell.overlay != null && cell.overlay.isVisible()) {
-                    imageFrameIndex = cell.overlay.frameIndex;
-                    renderImageFrame(gc, cell.overlay.imageFrame, imageFrameIndex, x, y, 1.0);
+                TileOverlay overlay = cell.getOverlay(); // read once, network thread may replace it
+
+                if (overlay != null && overlay.isVisible()) {
+                    imageFrameIndex = overlay.frameIndex;
+                    renderImageFrame(gc, overlay.imageFrame, imageFrameIndex, x, y, 1.0);
                 }
 
                 if (INSTANCE.isBoundsVisible()) renderBounds(gc, cell.getObstacleBounds());
@@ -0,0 +1,152 @@
+package game.server;
+
+import game.util.Timeout;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Holds AI worker processes and bots assigned to them. Bot is assigned to least loaded worker, and bots of worker
+ * that stopped responding are returned, so they can be assigned again.
+ */
+final class AIWorkerManager {
+    private static final int WORKER_TIMEOUT = 1500;         // milliseconds of silence after which worker is dead
+
+    /**
+     * Single worker process.
+     */
+    static final class WorkerInfo {
+        public final String name;
+        public final SocketAddress address;
+        private final Timeout silenceTimeout = new Timeout(WORKER_TIMEOUT);
+        private final Set<Short> botKeys = new LinkedHashSet<>();
+        private int terrainReplayCount;                     // state sends left to go with all terrain changes
+
+        WorkerInfo(String name, SocketAddress address) {
+            this.name = name;
+            this.address = address;
+        }
+
+        public Set<Short> getBotKeysUnmodifiable() {
+            return Collections.unmodifiableSet(botKeys);
+        }
+
+        public int getTerrainReplayCount() {
+            return terrainReplayCount;
+        }
+
+        public void setTerrainReplayCount(int terrainReplayCount) {
+            this.terrainReplayCount = terrainReplayCount;
+        }
+    }
+
+    private final Map<SocketAddress, WorkerInfo> workers = new LinkedHashMap<>();
+    private final Map<Short, WorkerInfo> botToWorker = new HashMap<>();
+
+    /**
+     * Checks if worker may register from address. Hello carries no credentials, and worker gets to see what bots see
+     * and to control them, so only workers running on server's own host are accepted.
+     */
+    public static boolean isAllowed(SocketAddress address) {
+        return address instanceof InetSocketAddress && ((InetSocketAddress) address).getAddress() != null
+                && ((InetSocketAddress) address).getAddress().isLoopbackAddress();
+    }
+
+    /**
+     * Registers worker, or refreshes it if it is already known.
+     * @return true if worker is new.
+     */
+    public boolean heard(String name, SocketAddress address) {
+        WorkerInfo worker = workers.get(address);
+
+        if (worker == null) {
+            workers.put(address, new WorkerInfo(name, address));
+            return true;
+        }
+
+        worker.silenceTimeout.reset();
+        return false;
+    }
+
+    /**
+     * Refreshes worker that sent a message.
+     * @return worker or null if address is not a registered worker.
+     */
+    public WorkerInfo heard(SocketAddress address) {
+        WorkerInfo worker = workers.get(address);
+        if (worker != null) worker.silenceTimeout.reset();
+        return worker;
+    }
+
+    public boolean hasWorkers() {
+        return !workers.isEmpty();
+    }
+
+    public int getWorkerCount() {
+        return workers.size();
+    }
+
+    public int getRemoteBotCount() {
+        return botToWorker.size();
+    }
+
+    /**
+     * Assigns bot to least loaded worker.
+     * @param botKey key of bot entity.
+     * @return worker assigned or null if no workers are available.
+     */
+    public WorkerInfo assign(short botKey) {
+        unassign(botKey);
+
+        WorkerInfo leastLoaded = null;
+        for (WorkerInfo worker : workers.values()) {
+            if (leastLoaded == null || worker.botKeys.size() < leastLoaded.botKeys.size()) {
+                leastLoaded = worker;
+            }
+        }
+
+        if (leastLoaded != null) {
+            leastLoaded.botKeys.add(botKey);
+            botToWorker.put(botKey, leastLoaded);
+        }
+
+        return leastLoaded;
+    }
+
+    public void unassign(short botKey) {
+        WorkerInfo worker = botToWorker.remove(botKey);
+        if (worker != null) worker.botKeys.remove(botKey);
+    }
+
+    public WorkerInfo getWorker(short botKey) {
+        return botToWorker.get(botKey);
+    }
+
+    /**
+     * Removes workers that were silent for too long.
+     * @return keys of bots that were assigned to removed workers.
+     */
+    public List<Short> removeDead() {
+        List<Short> orphans = new ArrayList<>();
+
+        for (Iterator<WorkerInfo> it = workers.values().iterator(); it.hasNext(); ) {
+            WorkerInfo worker = it.next();
+            if (!worker.silenceTimeout.occurred()) continue;
+
+            it.remove();
+
+            for (Short botKey : worker.botKeys) {
+                botToWorker.remove(botKey);
+                orphans.add(botKey);
+            }
+        }
+
+        return orphans;
+    }
+
+    public void forEach(Consumer<WorkerInfo> action) {
+        workers.values().forEach(action);
+    }
+}
@@ -0,0 +1,188 @@
+package game.server;
+
+import game.client.messages.ClientBotControl;
+import game.client.messages.ClientMessageBase;
+import game.client.messages.ClientWorkerHello;
+import game.server.messages.ServerBotPerception;
+import game.server.messages.ServerMessageBase;
+import game.server.messages.ServerTerrainUpdate;
+import game.util.Timeout;
+import game.world.Board;
+import game.world.entities.PathFinderType;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.*;
+
+import static game.util.Debug.log;
+
+/**
+ * AI worker process: takes bot control off the server loop. It registers at server, receives perception of bots
+ * assigned to it and replies with orders, the same way human clients control their tanks. Server reassigns bots
+ * of worker that stops answering. Server accepts workers running on it's own host only, and answers each hello, so
+ * worker stops once server exits or goes silent.
+ * <p>
+ * Usage: AIWorkerTask [server host] [server port] [map resource] [worker name]
+ */
+public class AIWorkerTask implements Runnable {
+    private static final int HELLO_INTERVAL = 500;          // milliseconds between keep-alive messages
+    private static final int CONTROLLER_EXPIRATION = 3000;  // milliseconds without perception to forget a bot
+    private static final int SERVER_TIMEOUT = 1500;         // milliseconds of server silence after which worker quits
+    private static final int WORKER_LOOP_RATE = 500;        // target rate to cycle run()
+
+    private final DatagramChannel channel;
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(ClientMessageBase.SEND_BUFFER_MAX_SIZE);
+    private final SocketAddress serverAddress;
+    private final String workerName;
+    private final Board board;                              // worker's own copy of map, for path finding only
+    private final Random random = new Random();
+    private final Map<Short, RemoteBotController> controllers = new HashMap<>();
+
+    private volatile boolean running;
+
+    public AIWorkerTask(SocketAddress serverAddress, String mapResourceName, String workerName) throws IOException {
+        this.serverAddress = serverAddress;
+        this.workerName = workerName;
+
+        channel = DatagramChannel.open();                   // open datagram channel
+        channel.configureBlocking(false);                   // init channel for non-blocking io
+        channel.bind(null);                                 // any free local port
+
+        board = Board.fromResource(mapResourceName);
+        board.setPathFinderType(PathFinderType.JUMP_POINT);
+    }
+
+    public void exit() {
+        running = false;
+    }
+
+    Board getBoard() {
+        return board;
+    }
+
+        public int getBotCount() {
+        return controllers.size();
+    }
+
+    @Override
+    public void run() {
+        running = true;
+        Timeout helloTimeout = new Timeout(HELLO_INTERVAL);
+        Timeout serverTimeout = new Timeout(SERVER_TIMEOUT);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        try {
+            log("AI worker %s - started, server %s", workerName, serverAddress);
+            send(new ClientWorkerHello(workerName));
+
+            while (running) {
+                long frame_t0 = System.currentTimeMillis();
+
+                if (helloTimeout.occurred()) {              // keep-alive, even if there are no bots to control
+                    send(new ClientWorkerHello(workerName));
+                    helloTimeout.reset();
+                }
+
+                while (true) {
+                    buffer.clear();
+                    SocketAddress address = channel.receive(buffer);
+                    if (address == null) break;             // no more datagrams left
+
+                    serverTimeout.reset();
+                    buffer.flip();
+                    switch (ServerMessageBase.getTypeFromBuffer(buffer)) {
+                        case WORKER_BOT_PERCEPTION: {
+                            handlePerception(new ServerBotPerception(buffer));
+                            break;
+                        }
+                        case TERRAIN_UPDATE: {
+                            handleTerrainUpdate(new ServerTerrainUpdate(buffer));
+                            break;
+                        }
+                        case SHUTDOWN_NOTIFY: {
+                            log("AI worker %s - server is shutting down", workerName);
+                            running = false;
+                            break;
+                        }
+                    }
+                }
+
+                if (serverTimeout.occurred()) {             // shutdown notice lost, or server died
+                    log("AI worker %s - server is silent, exiting", workerName);
+                    running = false;
+                }
+
+                // bots not mentioned for a while are dead or moved to other worker
+                controllers.values().removeIf(c -> frame_t0 - c.getLastPerceptionTime() > CONTROLLER_EXPIRATION);
+
+                long frame_elapsed = System.currentTimeMillis() - frame_t0;
+                final int QUANTUM = 1000 / WORKER_LOOP_RATE;
+
+                if (frame_elapsed < QUANTUM) try {
+                    Thread.sleep(QUANTUM - frame_elapsed);
+                } catch (InterruptedException ignored) {
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            log("AI worker %s - finished", workerName);
+
+            try {
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void handlePerception(ServerBotPerception perception) throws IOException {
+        if (perception.perceptions.isEmpty()) return;       // reply to hello, no bots assigned
+
+        long now = System.currentTimeMillis();
+        List<ClientBotControl.Orders> orders = new ArrayList<>(perception.perceptions.size());
+
+        for (ServerBotPerception.Perception p : perception.perceptions) {
+            RemoteBotController controller = controllers.get(p.botKey);
+
+            if (controller == null) {
+                controller = new RemoteBotController(board, random);
+                controllers.put(p.botKey, controller);
+            }
+
+            orders.add(controller.decide(p, now));
+        }
+
+        // perception holds fewer bots than control message, so single reply is enough
+        send(new ClientBotControl(orders));
+    }
+
+    /**
+     * Writes message into direct buffer reused for all messages and sends it to server.
+     */
+    private void send(ClientMessageBase message) throws IOException {
+        sendBuffer.clear();
+        message.writeTo(sendBuffer);
+        sendBuffer.flip();
+        channel.send(sendBuffer, serverAddress);
+    }
+
+    private void handleTerrainUpdate(ServerTerrainUpdate update) {
+        // same tiles come repeatedly, board ignores overlay it already has
+        for (ServerTerrainUpdate.Tile tile : update.tiles) {
+            board.setCellOverlay(board.getCell(tile.row, tile.col), tile.getOverlayID());
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : ServerTask.DEFAULT_UDP_PORT;
+        String map = args.length > 2 ? args[2] : "/map.txt";
+        String name = args.length > 3 ? args[3] : "worker-" + UUID.randomUUID();
+
+        new AIWorkerTask(new InetSocketAddress(host, port), map, name).run();
+    }
+}
@@ -8,6 +8,7 @@ final class BotInfo {
     public final String name;
     public final UUID uniqueID;
     private int spawnDelay;
+    private boolean spawnPending;                           // waiting in board queue for free spawn point
 
     private short clientKey;
 
@@ -36,6 +37,14 @@ final class BotInfo {
         this.uniqueID = UUID.randomUUID();
     }
 
+    public boolean isSpawnPending() {
+        return spawnPending;
+    }
+
+    public void setSpawnPending(boolean spawnPending) {
+        this.spawnPending = spawnPending;
+    }
+
     public void decrementSpawnDelay() {
         spawnDelay--;
     }
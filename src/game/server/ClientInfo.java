@@ -1,6 +1,10 @@
 package game.server;
 
+import game.server.messages.ServerBoardStateUpdate;
+import game.world.entities.Point;
+
 import java.net.SocketAddress;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -8,14 +12,27 @@ import java.util.UUID;
  */
 public final class ClientInfo {
     private static final int MAX_SPAWN_DELAY = 1000;
+    private static final double LATENCY_SMOOTHING = 0.125; // weight of new latency sample, damps network jitter
 
     public final String name;
     public final UUID uniqueID;
     public final SocketAddress address;
+    private final byte[] uniqueIDBytes;                     // ID as client writes it, compared in place
     private int spawnDelay;
+    private boolean spawnPending;                           // waiting in board queue for free spawn point
+    private Runnable spawnCancel;                           // takes pending spawn out of board queue
 
     private short key;
     private boolean ready;
+    private int terrainReplayCount;                         // state sends left to go with all terrain changes
+    private double latency = -1;                            // smoothed milliseconds client view lags behind server
+    private final SnapshotHistory sentSnapshots = new SnapshotHistory();
+    private int ackedSnapshot = ServerBoardStateUpdate.NO_SNAPSHOT;  // newest snapshot client received whole
+    private int viewWidth;                                  // pixels, 0 until client reports it
+    private int viewHeight;
+    private Point viewCenter;                               // where client's entity was last seen
+    private final PriorityAccumulator priorities = new PriorityAccumulator();
+    private int shard;                                      // server channel client's datagrams come in
 
     public int getSpawnDelay() {
         return spawnDelay;
@@ -37,9 +54,17 @@ public final class ClientInfo {
         this.name = name;
         this.uniqueID = uniqueID;
         this.address = address;
+        this.uniqueIDBytes = uniqueID.toString().getBytes();
         this.setKey((short) 0);
     }
 
+    /**
+     * @return bytes of unique ID string, as client writes it into messages. Should not be changed.
+     */
+    public byte[] getUniqueIDBytes() {
+        return uniqueIDBytes;
+    }
+
     public boolean isReady() {
         return ready;
     }
@@ -48,11 +73,125 @@ public final class ClientInfo {
         this.ready = ready;
     }
 
+    public int getTerrainReplayCount() {
+        return terrainReplayCount;
+    }
+
+    public void setTerrainReplayCount(int terrainReplayCount) {
+        this.terrainReplayCount = terrainReplayCount;
+    }
+
     public void setKey(short key) {
         this.key = key;
     }
 
 
+    public boolean isSpawnPending() {
+        return spawnPending;
+    }
+
+    public void setSpawnPending(boolean spawnPending) {
+        this.spawnPending = spawnPending;
+    }
+
+    /**
+     * @param spawnCancel cancel handle of board's spawn request, called if client leaves before it's spawned.
+     */
+    public void setSpawnCancel(Runnable spawnCancel) {
+        this.spawnCancel = spawnCancel;
+    }
+
+    /**
+     * Takes pending spawn out of board queue, so no tank is spawned for client that left.
+     */
+    public void cancelSpawn() {
+        if (spawnPending && spawnCancel != null) spawnCancel.run();
+
+        spawnPending = false;
+        spawnCancel = null;
+    }
+
+    public SnapshotHistory getSentSnapshots() {
+        return sentSnapshots;
+    }
+
+    /**
+     * Gets records of newest snapshot client has received whole and server still keeps.
+     * @return entity key to full state record, or null if next snapshot has to be sent with full records.
+     */
+    public Map<Short, byte[]> getAckedSnapshotRecords() {
+        return ackedSnapshot == ServerBoardStateUpdate.NO_SNAPSHOT ? null : sentSnapshots.get(ackedSnapshot);
+    }
+
+    public int getAckedSnapshot() {
+        return ackedSnapshot;
+    }
+
+    /**
+     * Records acknowledgement of snapshot. Acknowledgements can come out of order, older ones are ignored.
+     * @param sequence sequence number of snapshot received.
+     */
+    public void acknowledgeSnapshot(int sequence) {
+        if (sequence > ackedSnapshot) ackedSnapshot = sequence;
+    }
+
+    public void setViewSize(int viewWidth, int viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+
+    public boolean hasViewSize() {
+        return viewWidth > 0 && viewHeight > 0;
+    }
+
+    public int getViewWidth() {
+        return viewWidth;
+    }
+
+    public int getViewHeight() {
+        return viewHeight;
+    }
+
+    /**
+     * @return position client's view follows, or null if client had no entity yet.
+     */
+    public Point getViewCenter() {
+        return viewCenter;
+    }
+
+    public void setViewCenter(Point viewCenter) {
+        this.viewCenter = viewCenter;
+    }
+
+    public PriorityAccumulator getPriorities() {
+        return priorities;
+    }
+
+    public int getShard() {
+        return shard;
+    }
+
+    public void setShard(int shard) {
+        this.shard = shard;
+    }
+
+    /**
+     * @return smoothed latency of client in milliseconds, or 0 if not measured yet.
+     */
+    public int getLatency() {
+        return latency < 0 ? 0 : (int) Math.round(latency);
+    }
+
+    /**
+     * Adds latency sample.
+     * @param sample milliseconds between board time client was showing and server board time.
+     */
+    public void updateLatency(int sample) {
+        if (sample < 0) return;                             // client clock is ahead, sample is useless
+
+        latency = latency < 0 ? sample : latency + (sample - latency) * LATENCY_SMOOTHING;
+    }
+
     public void decrementSpawnDelay() {
         spawnDelay--;
     }
@@ -52,8 +52,18 @@ final class ClientInfoManager {
     }
 
     public ClientInfo register(String clientName, SocketAddress clientAddress) {
+        return register(clientName, clientAddress, 0);
+    }
+
+    /**
+     * Registers client which join request came in through given channel, so the join reply and everything after it
+     * go out of the same one.
+     * @param shard index of server channel client's datagrams come in.
+     */
+    public ClientInfo register(String clientName, SocketAddress clientAddress, int shard) {
         // initial client key is set to 0 in constructor
         ClientInfo clientInfo = new ClientInfo(clientName, UUID.randomUUID(), clientAddress);
+        clientInfo.setShard(shard);
         return register(clientInfo);
     }
 
@@ -97,6 +107,24 @@ final class ClientInfoManager {
         return addressToInfoMap.get(clientAddress);
     }
 
+    /**
+     * Remembers which channel of sharded server socket datagrams from address come in. Kernel hashes each address
+     * to single channel, so it changes only if channels are reopened.
+     */
+    public void updateShard(SocketAddress address, int shard) {
+        ClientInfo clientInfo = addressToInfoMap.get(address);
+        if (clientInfo != null) clientInfo.setShard(shard);
+    }
+
+    /**
+     * Gets channel to send to address through, same one it's datagrams come in.
+     * @param fallback channel for addresses of no client, e.g. AI workers.
+     */
+    public int getShard(SocketAddress address, int fallback) {
+        ClientInfo clientInfo = addressToInfoMap.get(address);
+        return (clientInfo == null) ? fallback : clientInfo.getShard();
+    }
+
     public boolean isValidID(String uniqueID) {
         return uniqueID.matches("[0-9a-f]{8}-[0-9a-f]{4}-[34][0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}");
     }
@@ -6,13 +6,34 @@ import game.world.entities.Entity;
 
 import java.nio.ByteBuffer;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Contains state of entities. States are grouped into buffers with STATE_BUFFER_SIZE_THRESHOLD to avoid
  * exceeding MTU if multiple Entities are to be sent.
+ * <p>
+ * Fragments of snapshots are made of delta records. Record of entity that is also in baseline snapshot client has
+ * acknowledged holds only 16-bit words of state that differ from baseline, marked by bits of leading mask byte.
+ * Other records are full ones, marked by FULL_RECORD mask and followed by length and bytes written by Entity.put().
+ * LEAVE_RECORD mask followed by key tells client that entity left it's area of interest. KEEP_RECORD mask followed by
+ * key tells client to keep entity in state it has in baseline, as server had no room for it's state this time.
  */
 public class EntityStateFragment {
+    public static final byte FULL_RECORD = -1;
+    public static final byte LEAVE_RECORD = -2;
+    public static final byte KEEP_RECORD = -3;
+    public static final int KEY_RECORD_SIZE = 3;            // mask and key, size of leave, keep or idle record
+
+    private static final int RECORD_HEADER_SIZE = 3;        // class index and key, same in all records of entity
+    private static final int WORD_SIZE = 2;                 // most of state fields are shorts
+    private static final int MAX_WORDS = 7;                 // mask bits, so mask never equals FULL_RECORD
+
+    // IMPORTANT: create buffer that are smaller than server message size
+    private static final int BUFFER_SIZE_THRESHOLD = ServerMessageBase.SEND_BUFFER_MAX_SIZE - 64;
+
     public final short entityCount;
 
     private final ByteBuffer stateBuffer;
@@ -26,6 +47,21 @@ public class EntityStateFragment {
         return result;
     }
 
+    /**
+     * Writes count and states into buffer, same as toBuffer() does, without allocating.
+     */
+    public void writeTo(ByteBuffer dst) {
+        dst.putShort(entityCount);
+        dst.put(stateBuffer.duplicate());                   // duplicate keeps position of our buffer
+    }
+
+    /**
+     * @return number of bytes writeTo() writes.
+     */
+    public int getSize() {
+        return Short.BYTES + stateBuffer.limit();
+    }
+
     public ByteBuffer toBuffer() {
         int original = stateBuffer.position();
 
@@ -73,9 +109,6 @@ public class EntityStateFragment {
         // reassembled later. If part of split packet is lost, entire datagram is lost. So i will split big board
         // states into smaller ones if threshold is crossed.
 
-        // IMPORTANT: create buffer that are smaller than server message size
-        final int BUFFER_SIZE_THRESHOLD = ServerMessageBase.SEND_BUFFER_MAX_SIZE - 64;
-
         ByteBuffer buf = ByteBuffer.allocate(ServerMessageBase.SEND_BUFFER_MAX_SIZE);
 
         short entitiesInBuffer = 0;
@@ -99,5 +132,212 @@ public class EntityStateFragment {
         }
     }
 
+    /**
+     * Writes full state record of each entity once, so it can be encoded against baseline of each client.
+     * @param entities entities to write.
+     * @return entity key to record, in iteration order of entities.
+     */
+    public static Map<Short, byte[]> makeRecords(Collection<Entity> entities) {
+        Map<Short, byte[]> records = new LinkedHashMap<>();
+        ByteBuffer buf = ByteBuffer.allocate(ServerMessageBase.SEND_BUFFER_MAX_SIZE);
+
+        for (Entity entity : entities) {
+            buf.clear();
+            entity.put(buf);
+
+            byte[] record = new byte[buf.position()];
+            buf.flip();
+            buf.get(record);
+            records.put(entity.getKey(), record);
+        }
+
+        return records;
+    }
+
+    /**
+     * Splits records into fragments of delta records.
+     * @param records entity key to full state record.
+     * @param baseline records of snapshot client has acknowledged, or null to write full records only.
+     * @param states list to add fragments to.
+     */
+    public static void appendDeltaFragments(Map<Short, byte[]> records, Map<Short, byte[]> baseline,
+                                            List<EntityStateFragment> states) {
+        appendDeltaFragments(records, baseline, Collections.emptyList(), Collections.emptyList(), states);
+    }
+
+    /**
+     * Splits records into fragments of delta records, followed by keep and leave records.
+     * @param records entity key to full state record.
+     * @param baseline records of snapshot client has acknowledged, or null to write full records only.
+     * @param kept keys of baseline entities client should keep as they are, their states are not sent this time.
+     * @param leaving keys of entities client should drop.
+     * @param states list to add fragments to.
+     */
+    public static void appendDeltaFragments(Map<Short, byte[]> records, Map<Short, byte[]> baseline,
+                                            Collection<Short> kept, Collection<Short> leaving,
+                                            List<EntityStateFragment> states) {
+        ByteBuffer buf = ByteBuffer.allocate(ServerMessageBase.SEND_BUFFER_MAX_SIZE);
+        short recordsInBuffer = 0;
+
+        for (Map.Entry<Short, byte[]> entry : records.entrySet()) {
+            writeDeltaRecord(buf, entry.getValue(), baseline == null ? null : baseline.get(entry.getKey()));
+            recordsInBuffer = flushIfFull(buf, ++recordsInBuffer, states);
+        }
+
+        for (short key : kept) {
+            buf.put(KEEP_RECORD);
+            buf.putShort(key);
+            recordsInBuffer = flushIfFull(buf, ++recordsInBuffer, states);
+        }
+
+        for (short key : leaving) {
+            buf.put(LEAVE_RECORD);
+            buf.putShort(key);
+            recordsInBuffer = flushIfFull(buf, ++recordsInBuffer, states);
+        }
+
+        if (recordsInBuffer > 0) {
+            buf.flip();
+            states.add(new EntityStateFragment(recordsInBuffer, buf));
+        }
+    }
+
+    /**
+     * Adds fragment of buffer to list once buffer is full enough.
+     * @return number of records left in buffer.
+     */
+    private static short flushIfFull(ByteBuffer buf, short recordsInBuffer, List<EntityStateFragment> states) {
+        if (buf.position() <= BUFFER_SIZE_THRESHOLD) return recordsInBuffer;
+
+        buf.flip();
+        states.add(new EntityStateFragment(recordsInBuffer, buf));
+        buf.clear();
+
+        return 0;
+    }
+
+    /**
+     * Gets mask of words that differ from baseline record.
+     * @return mask, or FULL_RECORD if record can't be written as difference from base.
+     */
+    private static int getDeltaMask(byte[] record, byte[] base) {
+        int words = (record.length - RECORD_HEADER_SIZE + WORD_SIZE - 1) / WORD_SIZE;
+
+        if (base == null || base.length != record.length || base[0] != record[0] || words > MAX_WORDS) {
+            return FULL_RECORD;
+        }
+
+        int mask = 0;
+
+        for (int word = 0; word < words; word++) {
+            int offset = RECORD_HEADER_SIZE + word * WORD_SIZE;
 
+            for (int i = offset; i < Math.min(offset + WORD_SIZE, record.length); i++) {
+                if (record[i] != base[i]) mask |= 1 << word;
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * Gets number of bytes writeDeltaRecord() would write, without writing.
+     */
+    public static int getDeltaRecordSize(byte[] record, byte[] base) {
+        int mask = getDeltaMask(record, base);
+        if (mask == FULL_RECORD) return 2 + record.length;  // mask and length
+
+        int size = KEY_RECORD_SIZE;
+
+        for (int word = 0; word < MAX_WORDS; word++) {
+            if ((mask & (1 << word)) == 0) continue;
+
+            int offset = RECORD_HEADER_SIZE + word * WORD_SIZE;
+            size += Math.min(WORD_SIZE, record.length - offset);
+        }
+
+        return size;
+    }
+
+    /**
+     * Writes record of entity, only words that differ from baseline record if there is one.
+     * @param record full state record.
+     * @param base full state record of same entity in baseline, or null.
+     */
+    static void writeDeltaRecord(ByteBuffer dst, byte[] record, byte[] base) {
+        int mask = getDeltaMask(record, base);
+
+        if (mask == FULL_RECORD) {
+            dst.put(FULL_RECORD);
+            dst.put((byte) record.length);
+            dst.put(record);
+            return;
+        }
+
+        dst.put((byte) mask);
+        dst.put(record, 1, Short.BYTES);                    // key, so client finds baseline record
+
+        for (int word = 0; word < MAX_WORDS; word++) {
+            if ((mask & (1 << word)) == 0) continue;
+
+            int offset = RECORD_HEADER_SIZE + word * WORD_SIZE;
+            dst.put(record, offset, Math.min(WORD_SIZE, record.length - offset));
+        }
+    }
+
+    /**
+     * Checks if next record is leave record, without moving buffer position.
+     */
+    public static boolean isLeaveRecord(ByteBuffer src) {
+        return src.get(src.position()) == LEAVE_RECORD;
+    }
+
+    /**
+     * Checks if next record is keep record, without moving buffer position.
+     */
+    public static boolean isKeepRecord(ByteBuffer src) {
+        return src.get(src.position()) == KEEP_RECORD;
+    }
+
+    /**
+     * Reads leave or keep record.
+     * @return key of entity record is about.
+     */
+    public static short readKeyRecord(ByteBuffer src) {
+        src.get();
+        return src.getShort();
+    }
+
+    /**
+     * Reads record written by writeDeltaRecord(), turning it back into full state record.
+     * @param baseline records of baseline snapshot, or null if fragment has full records only.
+     * @return full state record, as written by Entity.put().
+     */
+    public static byte[] readDeltaRecord(ByteBuffer src, Map<Short, byte[]> baseline) {
+        byte mask = src.get();
+
+        if (mask == FULL_RECORD) {
+            byte[] record = new byte[src.get() & 0xFF];
+            src.get(record);
+            return record;
+        }
+
+        short key = src.getShort();
+        byte[] base = (baseline == null) ? null : baseline.get(key);
+
+        if (base == null) {
+            throw new IllegalArgumentException(String.format("No baseline record of entity %d", key));
+        }
+
+        byte[] record = base.clone();
+
+        for (int word = 0; word < MAX_WORDS; word++) {
+            if ((mask & (1 << word)) == 0) continue;
+
+            int offset = RECORD_HEADER_SIZE + word * WORD_SIZE;
+            src.get(record, offset, Math.min(WORD_SIZE, record.length - offset));
+        }
+
+        return record;
+    }
 }
@@ -0,0 +1,184 @@
+package game.server;
+
+import game.Resources;
+import game.world.Board;
+import game.world.GameEvent;
+import game.world.GameEventBus;
+import game.world.GameEventType;
+import game.world.entities.Enemy;
+import game.world.entities.PathFinderType;
+import game.world.entities.Tank;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static game.util.Debug.log;
+
+/**
+ * Runs board with bots only, without network, graphics or sleeping between ticks, so long battles can be simulated
+ * in a fraction of real time. Used for AI regression and soak testing. Board runs in deterministic mode, so same
+ * map, bot count and seed always give same battle, tick by tick.
+ * <p>
+ * Usage: HeadlessSimulation [map resource] [bot count] [logic seconds] [seed]
+ */
+public class HeadlessSimulation {
+    private static final String DEFAULT_MAP = "/map.txt";
+    private static final int DEFAULT_BOT_COUNT = 20;
+    private static final int DEFAULT_DURATION = 60 * 60 * 1000;         // one hour of logic time, in milliseconds
+    private static final int TANK_CLASS = Resources.indexOfClass(Tank.class);
+    private static final int ENEMY_CLASS = Resources.indexOfClass(Enemy.class);
+
+    private final Board board;
+    private final int botCount;
+    private final Random random;
+    private final List<Short> botKeys = new ArrayList<>();
+    private final GameEventBus.Cursor events;               // kills and shots are counted from board events
+
+    private long tickCount;
+    private long killCount;
+    private long shotCount;
+
+    /**
+     * Result of simulation run.
+     */
+    public static class Report {
+        public long ticks;                                  // number of board updates, one per logic millisecond
+        public double wallSeconds;                          // real time spent
+        public long kills;                                  // number of tanks destroyed
+        public long shots;                                  // number of bullets fired
+        public long pathRequests;                           // number of bot path searches
+        public long aiDecisions;                            // number of bot decisions
+        public long aiDeferred;                             // number of bot decisions deferred by scheduler
+        public double bytesPerTick;                         // allocated bytes per tick, or -1 if not measurable
+        public long stateHash;                              // board state hash after last tick
+
+        public double getTicksPerSecond() {
+            return wallSeconds > 0 ? ticks / wallSeconds : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ticks: %d, ticks/s: %.0f, kills: %d, shots: %d, path requests: %d, " +
+                            "decisions: %d, deferred: %d, bytes/tick: %.0f, state hash: %016x", ticks,
+                    getTicksPerSecond(), kills, shots, pathRequests, aiDecisions, aiDeferred, bytesPerTick, stateHash);
+        }
+    }
+
+    public HeadlessSimulation(String mapResourceName, int botCount, long seed) {
+        this.board = Board.fromResource(mapResourceName);
+        this.botCount = botCount;
+        this.random = new Random(seed);
+
+        board.setDeterministic(seed);
+        board.setPathFinderType(PathFinderType.JUMP_POINT); // same as ServerTask
+
+        events = board.getEventBus().newCursor();
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Steps board as fast as possible.
+     * @param duration logic time to simulate, in milliseconds.
+     * @return statistics of this run.
+     */
+    public Report run(long duration) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long bytes0 = getAllocatedBytes(threads);
+        long t0 = System.nanoTime();
+        long ticks0 = tickCount;
+        long kills0 = killCount;
+        long shots0 = shotCount;
+        long paths0 = board.getAIScheduler().getPathRequestCount();
+        long decisions0 = board.getAIScheduler().getDecisionCount();
+        long deferred0 = board.getAIScheduler().getDeferredCount();
+
+        for (long time = 0; time < duration; time++) {
+            tick();
+        }
+
+        long t1 = System.nanoTime();
+        long bytes1 = getAllocatedBytes(threads);
+
+        Report report = new Report();
+        report.ticks = tickCount - ticks0;
+        report.wallSeconds = (t1 - t0) / 1E9;
+        report.kills = killCount - kills0;
+        report.shots = shotCount - shots0;
+        report.pathRequests = board.getAIScheduler().getPathRequestCount() - paths0;
+        report.aiDecisions = board.getAIScheduler().getDecisionCount() - decisions0;
+        report.aiDeferred = board.getAIScheduler().getDeferredCount() - deferred0;
+        report.bytesPerTick = (bytes0 < 0 || report.ticks == 0) ? -1 : (double) (bytes1 - bytes0) / report.ticks;
+        report.stateHash = board.getStateHash();
+
+        return report;
+    }
+
+    /**
+     * Single logic millisecond: respawns missing bots, updates board and drops removed entities, same as server
+     * loop does after sending them.
+     */
+    public void tick() {
+        checkEnemiesSpawned();
+
+        board.update();
+        tickCount++;
+
+        events.poll(this::countEvent, Integer.MAX_VALUE);
+
+        board.flushInactiveEntityList();
+        board.flushNewEntityList();
+    }
+
+    private void countEvent(GameEvent event) {
+        if (event.type == GameEventType.SHOT_FIRED) {
+            shotCount++;
+        } else if (event.type == GameEventType.ENTITY_DESTROYED && isTank(event.classIndex)) {
+            killCount++;
+        }
+    }
+
+    private static boolean isTank(byte classIndex) {
+        return classIndex == TANK_CLASS || classIndex == ENEMY_CLASS;
+    }
+
+    private void checkEnemiesSpawned() {
+        botKeys.removeIf(key -> board.getEntity(key) == null);
+
+        while (botKeys.size() < botCount) {
+            Enemy bot = board.spawnEnemy(new UUID(random.nextLong(), random.nextLong()));
+            if (bot == null) return;                        // all spawn points are occupied, try on next tick
+
+            bot.setComputerControlled(true);
+            botKeys.add(bot.getKey());
+        }
+    }
+
+    private static long getAllocatedBytes(ThreadMXBean threads) {
+        // allocation counter is HotSpot extension, other VMs report nothing
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) return -1;
+
+        com.sun.management.ThreadMXBean hotSpotThreads = (com.sun.management.ThreadMXBean) threads;
+        if (!hotSpotThreads.isThreadAllocatedMemorySupported()) return -1;
+
+        return hotSpotThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public static void main(String[] args) {
+        String map = args.length > 0 ? args[0] : DEFAULT_MAP;
+        int bots = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BOT_COUNT;
+        long duration = args.length > 2 ? Long.parseLong(args[2]) * 1000 : DEFAULT_DURATION;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+
+        log("simulating %d ms of %s with %d bots, seed %d", duration, map, bots, seed);
+
+        HeadlessSimulation simulation = new HeadlessSimulation(map, bots, seed);
+        log(simulation.run(duration).toString());
+    }
+}
@@ -0,0 +1,92 @@
+package game.server;
+
+import game.world.Board;
+import game.world.BoardCell;
+import game.world.PotentiallyVisibleSet;
+import game.world.entities.Entity;
+import game.world.entities.Point;
+import game.world.entities.Positionable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rectangle of board cells client is interested in. Entities in it are sent to client, the rest are left out, so
+ * cost of sending state to client depends on number of entities around it, not on number of entities on board.
+ * Region can also leave out cells hidden from viewer by walls, so client does not learn about entities it can't see.
+ */
+public class InterestRegion {
+    public final int row1;
+    public final int col1;
+    public final int row2;
+    public final int col2;
+    private final PotentiallyVisibleSet visibleSet;         // null if hidden cells are not left out
+    private final BoardCell viewer;
+
+    InterestRegion(int row1, int col1, int row2, int col2) {
+        this(row1, col1, row2, col2, null, null);
+    }
+
+    private InterestRegion(int row1, int col1, int row2, int col2, PotentiallyVisibleSet visibleSet,
+                           BoardCell viewer) {
+        this.row1 = row1;
+        this.col1 = col1;
+        this.row2 = row2;
+        this.col2 = col2;
+        this.visibleSet = visibleSet;
+        this.viewer = viewer;
+    }
+
+    /**
+     * Makes region of view centered on given position. View is kept inside board, same as client's viewport does, so
+     * near edges of board region is not centered on position.
+     * @param margin pixels added to each side, for entities that are about to come into view.
+     */
+    public static InterestRegion around(Board board, Point center, int viewWidth, int viewHeight, int margin) {
+        double x1 = Math.max(0, Math.min(center.x - viewWidth / 2, board.getWidthInPixels() - viewWidth));
+        double y1 = Math.max(0, Math.min(center.y - viewHeight / 2, board.getHeightInPixels() - viewHeight));
+
+        int col1 = Math.max(0, BoardCell.xToCol(x1 - margin));
+        int col2 = Math.min(board.getColCount() - 1, BoardCell.xToCol(x1 + viewWidth + margin));
+        int row1 = Math.max(0, BoardCell.yToRow(y1 - margin));
+        int row2 = Math.min(board.getRowCount() - 1, BoardCell.yToRow(y1 + viewHeight + margin));
+
+        return new InterestRegion(row1, col1, row2, col2);
+    }
+
+    /**
+     * Makes same region without cells that viewer can't possibly see.
+     * @param viewer cell client is looking from.
+     */
+    public InterestRegion visibleFrom(PotentiallyVisibleSet visibleSet, BoardCell viewer) {
+        return new InterestRegion(row1, col1, row2, col2, visibleSet, viewer);
+    }
+
+    public boolean contains(Entity entity) {
+        if (!(entity instanceof Positionable)) return true;  // not on map, visible from everywhere
+
+        BoardCell cell = ((Positionable) entity).getCell();
+        return cell != null && cell.row >= row1 && cell.row <= row2 && cell.col >= col1 && cell.col <= col2 &&
+                isVisible(cell);
+    }
+
+    /**
+     * Gets entities in region, looking into cells of region only.
+     */
+    public List<Entity> getEntities(Board board) {
+        List<Entity> entities = new ArrayList<>();
+
+        for (int row = row1; row <= row2; row++) {
+            for (int col = col1; col <= col2; col++) {
+                BoardCell cell = board.getCell(row, col);
+                if (isVisible(cell)) entities.addAll(cell.getEntitiesUnmodifiable());
+            }
+        }
+
+        return entities;
+    }
+
+    private boolean isVisible(BoardCell cell) {
+        return visibleSet == null || visibleSet.isVisible(viewer, cell);
+    }
+}
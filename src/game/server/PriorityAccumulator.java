@@ -0,0 +1,103 @@
+package game.server;
+
+import game.world.Board;
+import game.world.BoardCell;
+import game.world.entities.Bullet;
+import game.world.entities.Entity;
+import game.world.entities.Explosion;
+import game.world.entities.Point;
+import game.world.entities.Positionable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Chooses states to send to client within byte budget of each state send. Each entity has priority, which grows
+ * every send it's state is left out, by weight of it's type and distance from client's view center. States are
+ * picked from highest priority down until budget is spent, and priority of entity sent drops back to zero, so
+ * unimportant entities are sent less often, but never starve.
+ * <p>
+ * Entity client already has in baseline costs KEY_RECORD_SIZE bytes even when left out, to keep it on client, so
+ * these bytes are taken from budget first. Idle entities cost no more than that and are always sent.
+ */
+public class PriorityAccumulator {
+    private static final double NEAR_DISTANCE = BoardCell.CELL_SIZE * 4;  // entities closer have full weight
+    private static final double BULLET_WEIGHT = 4.0;        // moves fast, stale position is seen at once
+    private static final double EXPLOSION_WEIGHT = 0.5;     // client animates it on it's own
+    private static final double DEFAULT_WEIGHT = 2.0;       // tanks
+
+    private Map<Short, Double> priorities = new HashMap<>();
+
+    /**
+     * Accumulates priorities and picks entities to send.
+     * @param records entity key to full state record of entities client is interested in.
+     * @param baseline records client has acknowledged, or null.
+     * @param viewCenter position client looks from, or null if unknown.
+     * @param ownKey key of client's own entity, which is always sent.
+     * @param budget bytes of records to send.
+     * @return keys of entities which states are sent.
+     */
+    public Set<Short> schedule(Board board, Map<Short, byte[]> records, Map<Short, byte[]> baseline,
+                               Point viewCenter, short ownKey, int budget) {
+        Map<Short, Double> accumulated = new HashMap<>();   // entities gone from records are forgotten
+        Map<Short, Integer> costs = new HashMap<>();
+        List<Short> candidates = new ArrayList<>();
+        Set<Short> sending = new HashSet<>();
+        int remaining = budget;
+
+        for (Map.Entry<Short, byte[]> entry : records.entrySet()) {
+            short key = entry.getKey();
+            byte[] base = (baseline == null) ? null : baseline.get(key);
+            int size = EntityStateFragment.getDeltaRecordSize(entry.getValue(), base);
+            int cost = (base == null) ? size : size - EntityStateFragment.KEY_RECORD_SIZE;
+
+            if (base != null) remaining -= EntityStateFragment.KEY_RECORD_SIZE;
+
+            if (cost == 0 || key == ownKey) {               // idle or controlled by client
+                sending.add(key);
+                remaining -= cost;
+                continue;
+            }
+
+            double priority = priorities.getOrDefault(key, 0.0) + getWeight(board.getEntity(key), viewCenter);
+            accumulated.put(key, priority);
+            costs.put(key, cost);
+            candidates.add(key);
+        }
+
+        candidates.sort((a, b) -> Double.compare(accumulated.get(b), accumulated.get(a)));
+
+        for (short key : candidates) {
+            int cost = costs.get(key);
+            if (cost > remaining) continue;                 // smaller states further down may still fit
+
+            sending.add(key);
+            accumulated.put(key, 0.0);
+            remaining -= cost;
+        }
+
+        priorities = accumulated;
+
+        return sending;
+    }
+
+    /**
+     * Gets priority entity gains for each send it's left out of.
+     */
+    static double getWeight(Entity entity, Point viewCenter) {
+        double weight = (entity instanceof Bullet) ? BULLET_WEIGHT :
+                (entity instanceof Explosion) ? EXPLOSION_WEIGHT : DEFAULT_WEIGHT;
+
+        if (viewCenter != null && entity instanceof Positionable) {
+            Positionable positionable = (Positionable) entity;
+            double distance = viewCenter.getDistanceTo(new Point(positionable.getX(), positionable.getY()));
+            weight *= NEAR_DISTANCE / Math.max(NEAR_DISTANCE, distance);
+        }
+
+        return weight;
+    }
+}
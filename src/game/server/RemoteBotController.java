@@ -0,0 +1,123 @@
+package game.server;
+
+import game.client.InputFireOrder;
+import game.client.InputMoveOrder;
+import game.client.InputTurnOrder;
+import game.client.messages.ClientBotControl;
+import game.server.messages.ServerBotPerception;
+import game.world.Board;
+import game.world.BoardCell;
+import game.world.entities.PathList;
+import game.world.entities.Point;
+import game.world.entities.Tank;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static java.lang.Math.abs;
+
+/**
+ * Controls single bot inside of AI worker process. It sees only what server sends in perception and answers with
+ * the same turn, move and fire orders human player gives. Worker's own copy of board is used for path finding.
+ */
+final class RemoteBotController {
+    private static final double CENTER_EPSILON = 2.0;       // distance to cell center where turns are allowed
+
+    private final Board board;
+    private final Tank proxy;                               // local stand-in of bot, used for obstacle rules
+    private final Random random;
+
+    private BoardCell destination;
+    private BoardCell pathStart;                            // cell path was found from
+    private PathList<BoardCell> path = new PathList<>();
+    private long lastPerceptionTime;
+
+    RemoteBotController(Board board, Random random) {
+        this.board = board;
+        this.random = random;
+        this.proxy = new Tank(UUID.randomUUID(), board);
+    }
+
+    long getLastPerceptionTime() {
+        return lastPerceptionTime;
+    }
+
+    /**
+     * Makes orders from bot perception.
+     */
+    ClientBotControl.Orders decide(ServerBotPerception.Perception p, long now) {
+        lastPerceptionTime = now;
+
+        proxy.setPos(p.x, p.y);
+        proxy.setHeading(p.heading);
+
+        BoardCell cell = proxy.getCell();
+        if (cell == null) return orders(p, InputTurnOrder.NONE, InputMoveOrder.STOP, InputFireOrder.NONE);
+
+        if (p.hasTarget()) {
+            Point target = new Point(p.targetX, p.targetY);
+            double dx = target.x - p.x;
+            double dy = target.y - p.y;
+
+            // target is on same row or column and in range: face it and fire
+            boolean aligned = Math.min(abs(dx), abs(dy)) < BoardCell.CELL_SIZE / 2;
+            if (aligned && proxy.getDistanceTo(target) < proxy.getCannon().maximumRange()) {
+                return orders(p, directionOf(dx, dy), InputMoveOrder.STOP, InputFireOrder.FIRE);
+            }
+
+            setDestination(board.getCellAt(target));
+        } else if (destination == null || destination == cell) {
+            // roaming: random reachable destination
+            setDestination(board.getCell(random.nextInt(board.getRowCount()), random.nextInt(board.getColCount())));
+        }
+
+        if (cell != pathStart) {
+            pathStart = cell;
+            path = destination == null ? new PathList<>() : board.getPathFinder().find(proxy, destination);
+        }
+
+        if (path.isEmpty()) {
+            destination = null;
+            return orders(p, InputTurnOrder.NONE, InputMoveOrder.STOP, InputFireOrder.NONE);
+        }
+
+        BoardCell next = path.get(0);
+        InputTurnOrder turn = directionOf(next.col - cell.col, next.row - cell.row);
+
+        // turn only when close to cell center, otherwise tank will hit corners - move to center first
+        double cx = cell.getCenterX() - p.x;
+        double cy = cell.getCenterY() - p.y;
+
+        if (turn != directionOf(p.heading) && (abs(cx) > CENTER_EPSILON || abs(cy) > CENTER_EPSILON)) {
+            turn = abs(cx) > abs(cy) ? directionOf(cx, 0) : directionOf(0, cy);
+        }
+
+        return orders(p, turn, InputMoveOrder.FORWARD, InputFireOrder.NONE);
+    }
+
+    private void setDestination(BoardCell newDestination) {
+        if (newDestination != destination) {
+            destination = newDestination;
+            pathStart = null;                               // find new path
+        }
+    }
+
+    private static InputTurnOrder directionOf(double dx, double dy) {
+        if (abs(dx) > abs(dy)) return dx > 0 ? InputTurnOrder.EAST : InputTurnOrder.WEST;
+        return dy > 0 ? InputTurnOrder.SOUTH : InputTurnOrder.NORTH;
+    }
+
+    private static InputTurnOrder directionOf(int heading) {
+        switch (((heading + 45) % 360) / 90) {
+            case 1: return InputTurnOrder.EAST;
+            case 2: return InputTurnOrder.SOUTH;
+            case 3: return InputTurnOrder.WEST;
+            default: return InputTurnOrder.NORTH;
+        }
+    }
+
+    private static ClientBotControl.Orders orders(ServerBotPerception.Perception p, InputTurnOrder turn,
+                                                  InputMoveOrder move, InputFireOrder fire) {
+        return new ClientBotControl.Orders(p.botKey, turn, move, fire);
+    }
+}
@@ -0,0 +1,305 @@
+package game.server;
+
+import game.util.MpscPacketRing;
+import game.util.PacketRing;
+import game.util.RateCounter;
+import game.util.SpscPacketRing;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static game.util.Debug.log;
+
+/**
+ * Owns server's datagram channels, so network work runs beside server loop instead of inside of it. Receive threads
+ * put datagrams into inbound ring, server loop takes them out and handles them. Server loop writes datagrams to
+ * send into outbound ring and wakes send thread once per loop, which sends whole batch.
+ * <p>
+ * Socket can be sharded: several channels are bound to same port with SO_REUSEPORT, and kernel hashes each client
+ * address to one of them, so receiving is spread over cores. Each channel has receive thread of it's own. Datagrams
+ * carry index of channel they came in, so replies go out of same one. Where SO_REUSEPORT is not supported, single
+ * channel is used.
+ * <p>
+ * Slow send or flood of datagrams takes time of these threads, not of server loop. When ring is full, datagram is
+ * dropped and counted, like socket buffer does it.
+ */
+public class ServerIOManager {
+    private static final int RECEIVE_BUFFER_SIZE = 1024;    // twice largest message, so larger ones are caught
+    private static final int INBOUND_CAPACITY = 1024;       // datagrams
+    private static final int OUTBOUND_CAPACITY = 1024;
+    private static final long SEND_PARK_TIME = TimeUnit.MILLISECONDS.toNanos(1);  // wakeups missed are picked up
+
+    private final DatagramChannel[] channels;
+    private final MpscPacketRing inbound = new MpscPacketRing(INBOUND_CAPACITY, RECEIVE_BUFFER_SIZE);
+    private final SpscPacketRing outbound;
+    private final LongAdder droppedInboundCount = new LongAdder();  // adders, so receive threads don't contend
+    private final LongAdder receivedCount = new LongAdder();
+    private volatile long droppedOutboundCount;             // written by server loop only
+    private final RateCounter inboundLatency = new RateCounter();   // microseconds, summed by server loop
+    private final RateCounter inboundCounter = new RateCounter();
+    private final RateCounter outboundLatency = new RateCounter();  // microseconds, summed by send thread
+    private final RateCounter outboundCounter = new RateCounter();
+    private final Thread[] receiveThreads;
+    private final Thread sendThread = new Thread(this::send, "server-send");
+    private volatile boolean running;
+
+    /**
+     * Opens channels bound to address. Threads are not started until start().
+     * @param sendBufferSize bytes of largest datagram sent.
+     * @param shardCount     number of channels, and of receive threads, if SO_REUSEPORT is supported.
+     */
+    public ServerIOManager(SocketAddress address, int sendBufferSize, int shardCount) throws IOException {
+        outbound = new SpscPacketRing(OUTBOUND_CAPACITY, sendBufferSize);
+
+        DatagramChannel first = DatagramChannel.open();
+        SocketOption<Boolean> reusePort = (shardCount > 1) ? findReusePort(first) : null;
+
+        if (shardCount > 1 && reusePort == null) {
+            log("SO_REUSEPORT is not supported, receiving on single channel");
+        }
+
+        channels = new DatagramChannel[(reusePort == null) ? 1 : shardCount];
+        channels[0] = first;
+
+        try {
+            open(first, reusePort, address);
+
+            for (int i = 1; i < channels.length; i++) {     // port 0 is resolved by first bind
+                channels[i] = DatagramChannel.open();
+                open(channels[i], reusePort, first.getLocalAddress());
+            }
+        } catch (IOException | RuntimeException e) {
+            closeChannels();                                // port is not left bound by half opened manager
+            throw e;
+        }
+
+        receiveThreads = new Thread[channels.length];
+
+        for (int i = 0; i < channels.length; i++) {
+            final int shard = i;
+
+            receiveThreads[i] = new Thread(() -> receive(shard), "server-receive-" + i);
+            receiveThreads[i].setDaemon(true);
+        }
+
+        sendThread.setDaemon(true);
+    }
+
+    private static void open(DatagramChannel channel, SocketOption<Boolean> reusePort,
+                             SocketAddress address) throws IOException {
+        channel.configureBlocking(true);                    // each thread waits on it's own
+        if (reusePort != null) channel.setOption(reusePort, true);
+        channel.bind(address);
+    }
+
+    private void closeChannels() {
+        for (DatagramChannel channel : channels) {
+            if (channel == null) continue;
+
+            try {
+                channel.close();                            // wakes receive thread blocked in receive()
+            } catch (IOException e) {
+                log(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Looks SO_REUSEPORT up by name, as StandardSocketOptions has it since Java 9 only, and platforms without it
+     * don't list it.
+     */
+    @SuppressWarnings("unchecked")
+    private static SocketOption<Boolean> findReusePort(DatagramChannel channel) {
+        for (SocketOption<?> option : channel.supportedOptions()) {
+            if (option.name().equals("SO_REUSEPORT") && option.type() == Boolean.class) {
+                return (SocketOption<Boolean>) option;
+            }
+        }
+
+        return null;
+    }
+
+    public void start() {
+        running = true;
+
+        for (Thread receiveThread : receiveThreads) {
+            receiveThread.start();
+        }
+
+        sendThread.start();
+    }
+
+    /**
+     * Sends datagrams left in outbound ring, stops threads and closes channel.
+     */
+    public void close() {
+        running = false;
+
+        try {
+            if (sendThread.isAlive()) {
+                LockSupport.unpark(sendThread);
+                sendThread.join();                          // sends what's left before it quits
+            }
+
+            closeChannels();
+
+            for (Thread receiveThread : receiveThreads) {
+                if (receiveThread.isAlive()) receiveThread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isOpen() {
+        return channels[0].isOpen();
+    }
+
+    public SocketAddress getLocalAddress() throws IOException {
+        return channels[0].getLocalAddress();
+    }
+
+    /**
+     * @return number of channels receiving on server's port.
+     */
+    public int getShardCount() {
+        return channels.length;
+    }
+
+    /**
+     * @return datagrams received from all channels since start, including dropped ones.
+     */
+    public long getReceivedCount() {
+        return receivedCount.sum();
+    }
+
+    /**
+     * Gets oldest datagram received, called by server loop only.
+     * @return slot with flipped buffer and sender's address, valid until releaseReceived(), or null if none is waiting.
+     */
+    public PacketRing.Slot peekReceived() {
+        return inbound.peek();
+    }
+
+    /**
+     * Gives slot returned by peekReceived() back to receive thread.
+     */
+    public void releaseReceived(PacketRing.Slot slot) {
+        inboundLatency.update((int) ((System.nanoTime() - slot.getTime()) / 1000));
+        inboundCounter.update();
+        inbound.advance();
+    }
+
+    /**
+     * Gets buffer to write next datagram to send into, called by server loop only.
+     * @return cleared buffer, or null if outbound ring is full and datagram should be dropped.
+     */
+    public ByteBuffer claimSend() {
+        ByteBuffer buf = outbound.claim();
+        if (buf == null) droppedOutboundCount++;
+
+        return buf;
+    }
+
+    /**
+     * Queues datagram written and flipped in buffer returned by claimSend(). It's sent after next flush().
+     * @param shard index of channel to send through, one receiver's datagrams came in, or any if there are none.
+     */
+    public void publishSend(SocketAddress address, int shard) {
+        outbound.publish(address, shard);
+    }
+
+    /**
+     * Wakes send thread to send all datagrams queued.
+     */
+    public void flush() {
+        LockSupport.unpark(sendThread);
+    }
+
+    public int getInboundQueueDepth() {
+        return inbound.size();
+    }
+
+    public int getOutboundQueueDepth() {
+        return outbound.size();
+    }
+
+    /**
+     * @return average microseconds datagram waits in inbound ring before server loop handles it.
+     */
+    public double getInboundLatency() {
+        long count = inboundCounter.getRate();
+        return (count == 0) ? 0 : (double) inboundLatency.getRate() / count;
+    }
+
+    /**
+     * @return average microseconds datagram waits in outbound ring before it's sent.
+     */
+    public double getOutboundLatency() {
+        long count = outboundCounter.getRate();
+        return (count == 0) ? 0 : (double) outboundLatency.getRate() / count;
+    }
+
+    /**
+     * @return datagrams dropped as ring was full: received ones server loop didn't take in time, and ones to send
+     * which send thread didn't send in time.
+     */
+    public long getDroppedCount() {
+        return droppedInboundCount.sum() + droppedOutboundCount;
+    }
+
+    private void receive(int shard) {
+        DatagramChannel channel = channels[shard];
+        ByteBuffer buffer = ByteBuffer.allocateDirect(RECEIVE_BUFFER_SIZE);
+
+        while (running) try {
+            buffer.clear();
+            SocketAddress address = channel.receive(buffer);  // waits for datagram
+            buffer.flip();
+            receivedCount.increment();
+
+            ByteBuffer free = inbound.offer(buffer, address, shard);
+            if (free == null) {
+                droppedInboundCount.increment();            // buffer is reused for next datagram
+            } else {
+                buffer = free;
+            }
+        } catch (ClosedChannelException e) {
+            break;                                          // closed by close()
+        } catch (IOException e) {
+            log(e.getMessage());                            // log exception, if happens, without stack trace
+        }
+    }
+
+    private void send() {
+        while (true) {
+            boolean closing = !running;                     // read before ring, so last batch is sent too
+
+            for (PacketRing.Slot slot = outbound.peek(); slot != null; slot = outbound.peek()) try {
+                int sent = channels[slot.getShard()].send(slot.getBuffer(), slot.getAddress());
+
+                if (sent < slot.getBuffer().limit()) {
+                    log("Send buffer overflow with datagram of %d bytes", slot.getBuffer().limit());
+                }
+
+                outboundLatency.update((int) ((System.nanoTime() - slot.getTime()) / 1000));
+                outboundCounter.update();
+            } catch (IOException e) {
+                log(e.getMessage());                        // log exception, if happens, without stack trace
+            } finally {
+                outbound.advance();
+            }
+
+            if (closing) break;
+
+            LockSupport.parkNanos(SEND_PARK_TIME);          // until server loop flushes next batch
+        }
+    }
+}
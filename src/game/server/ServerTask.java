@@ -2,22 +2,37 @@ package game.server;
 
 import game.client.messages.*;
 import game.server.messages.*;
+import game.util.BufferPool;
+import game.util.PacketRing;
 import game.util.RateCounter;
+import game.util.ReceiveBufferRing;
 import game.util.TimeFlow;
 import game.util.Timeout;
 import game.world.Board;
+import game.client.InputFireOrder;
+import game.client.InputMoveOrder;
+import game.client.InputTurnOrder;
+import game.world.BoardCell;
 import game.world.entities.Destructible;
 import game.world.entities.Enemy;
 import game.world.entities.Entity;
+import game.world.entities.LagCompensationManager;
+import game.world.entities.PathFinderType;
+import game.world.entities.Point;
+import game.world.entities.Positionable;
 import game.world.entities.Tank;
 
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
-import java.nio.channels.DatagramChannel;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static game.util.Debug.log;
@@ -29,26 +44,70 @@ public class ServerTask implements Runnable {
     public static final int DEFAULT_UDP_PORT = 20000;       //
     private static final int WORLD_STATE_SEND_RATE = 10;     // target rate to send state to clients
     private static final int SERVER_LOOP_RATE = 200;         // target rate to cycle run()
+    private static final int WORKER_PERCEPTION_SEND_RATE = 50;  // target rate to send perception to AI workers
+    private static final int WORKER_TARGET_RANGE = BoardCell.CELL_SIZE * 8;  // same as local bot search radius
+    private static final int TERRAIN_RESEND_COUNT = 5;      // number of state sends each terrain change goes out with
+    private static final int DEFAULT_STATE_BYTE_BUDGET = 4096;  // per client and state send, 40 KB/s at 10 Hz
+    private static final int DEFAULT_RECEIVE_SHARDS = 1;    // single receive thread is enough for few clients
+    private static final int DEFAULT_MAX_PACKETS_PER_TICK = 256;
+    private static final int DEFAULT_MAX_BYTES_PER_TICK = 64 * 1024;
+    private static final int INTEREST_MARGIN = BoardCell.CELL_SIZE * 2;  // entities just outside of view are sent too
     private final Board board;                                                  // board object holds all entities
     private final TimeFlow timeFlow = new TimeFlow();                           // converts real time into board time
     private final RateCounter loopRate = new RateCounter();                     // used to count Run() loop rate
     private final RateCounter networkStateSendRate = new RateCounter();         // used to count network state send rate
     private final ClientInfoManager clientInfoManager = new ClientInfoManager();// used to manage client state and info
     private final BotInfoManager botInfoManager = new BotInfoManager();         // used to manage AI players state
-    private final DatagramChannel channel;
+    private final AIWorkerManager aiWorkerManager = new AIWorkerManager();      // used to offload AI to other processes
+    private final ServerIOManager io;                       // owns channel, receives and sends on it's own threads
     private final RateCounter bandwidthCounter = new RateCounter();
+    private final RateCounter copiedBytesCounter = new RateCounter();  // bytes written into send buffers
+    private final RateCounter clientSendCounter = new RateCounter();   // state datagrams sent to clients
+    private final BufferPool sendBuffers = new BufferPool(ServerMessageBase.SEND_BUFFER_MAX_SIZE);
+    private volatile int maxPacketsPerTick = DEFAULT_MAX_PACKETS_PER_TICK;
+    private volatile int maxBytesPerTick = DEFAULT_MAX_BYTES_PER_TICK;
+    private int receivingShard;                             // channel of datagram handled last
+    private volatile long droppedDatagramCount;             // written by server thread only
+    private volatile long deferredDatagramCount;
+    private final MessageHandler[] messageHandlers = new MessageHandler[ClientMessageType.values().length];
+    private final ClientInputMessage.View inputView = new ClientInputMessage.View();  // views reused for each datagram
+    private final ClientSnapshotAck.View snapshotAckView = new ClientSnapshotAck.View();
+    private final ClientBotControl.View botControlView = new ClientBotControl.View();
+    private final int[] sentTerrainVersions = new int[TERRAIN_RESEND_COUNT];  // terrain version at last state sends
+    private int terrainSendCount;
+    private int snapshotSequence;                           // number of snapshots sent, same for all clients
+    private volatile int stateByteBudget = DEFAULT_STATE_BYTE_BUDGET;
     private volatile int maxBoxCount = 0;                   // number if computer players
     private volatile boolean running;
     private long timeOfStart;                               // time of server start-up, used for calculating uptime
     private double logicTime;                               // board virtual time
+
+    /**
+     * Handles received message of single type, reading it from buffer.
+     */
+    private interface MessageHandler {
+        void handle(ByteBuffer buffer, SocketAddress address);
+    }
+
     public ServerTask(SocketAddress address, String mapResourceName) throws IOException {
+        this(address, mapResourceName, DEFAULT_RECEIVE_SHARDS);
+    }
+
+    /**
+     * @param receiveShards number of channels receiving on address, each with thread of it's own, for servers with
+     *                      many clients. Used only where SO_REUSEPORT is supported.
+     */
+    public ServerTask(SocketAddress address, String mapResourceName, int receiveShards) throws IOException {
         assert (address != null) : "Socket address can not be null";
 
-        channel = DatagramChannel.open();                   // open datagram channel
-        channel.configureBlocking(false);                   // init channel for non-blocking io
-        channel.bind(address);                              // bind to listening address
+        io = new ServerIOManager(address, ServerMessageBase.SEND_BUFFER_MAX_SIZE, receiveShards);  // not receiving yet
 
         board = Board.fromResource(mapResourceName);        // loading map specified
+        board.setPathFinderType(PathFinderType.JUMP_POINT); // maps are uniform-cost grids, so JPS is safe
+        board.getLagCompensation();                         // start recording positions for lagging clients
+        board.getPotentiallyVisibleSet();                   // computed up front, not on first state send
+
+        registerMessageHandlers();
     }
 
     public int getMaxBoxCount() {
@@ -60,10 +119,64 @@ public class ServerTask implements Runnable {
         return this;
     }
 
+    /**
+     * Caps bytes of entity states sent to each client with each state send. States that don't fit are sent later,
+     * most important ones first. New and destroyed entities are sent as soon as they appear and are not capped.
+     * @param stateByteBudget bytes per client and state send.
+     */
+    public ServerTask setStateByteBudget(int stateByteBudget) {
+        this.stateByteBudget = stateByteBudget;
+        return this;
+    }
+
+    /**
+     * Caps datagrams handled with each server loop, rest of them wait in inbound ring for next loops. Ring drops
+     * datagrams when full, so limits too tight for the load turn into lost input.
+     * @param maxPackets datagrams per loop.
+     * @param maxBytes   bytes per loop, last datagram may go over.
+     */
+    public ServerTask setReceiveLimits(int maxPackets, int maxBytes) {
+        this.maxPacketsPerTick = maxPackets;
+        this.maxBytesPerTick = maxBytes;
+        return this;
+    }
+
+    /**
+     * Sets how far back bullets of lagging clients may see their targets. Must be called before run().
+     * @param maxRewind milliseconds, 0 disables lag compensation.
+     */
+    public ServerTask setMaxRewind(int maxRewind) {
+        board.getLagCompensation().setMaxRewind(maxRewind);
+        return this;
+    }
+
     public double getBytesSentPerSecond() {
         return bandwidthCounter.getRate();
     }
 
+    /**
+     * @return average bytes written into send buffers per state datagram sent to client, 2 for datagrams that are
+     * broadcast and differ only by client key.
+     */
+    public double getBytesCopiedPerClientSend() {
+        long sends = clientSendCounter.getRate();
+        return (sends == 0) ? 0 : (double) copiedBytesCounter.getRate() / sends;
+    }
+
+    /**
+     * @return datagrams dropped since start: truncated, of unknown type, or over capacity of I/O rings.
+     */
+    public long getDroppedDatagramCount() {
+        return droppedDatagramCount + io.getDroppedCount();
+    }
+
+    /**
+     * @return server loops which reached receive limits with datagrams still waiting.
+     */
+    public long getDeferredDatagramCount() {
+        return deferredDatagramCount;
+    }
+
     public long getNetworkStateSendRate() {
         return networkStateSendRate.getRate();
     }
@@ -72,16 +185,24 @@ public class ServerTask implements Runnable {
         return loopRate.getRate();
     }
 
+    public SocketAddress getLocalAddress() throws IOException {
+        return io.getLocalAddress();
+    }
+
+    public int getAIWorkerCount() {
+        return aiWorkerManager.getWorkerCount();
+    }
+
+    public int getRemoteBotCount() {
+        return aiWorkerManager.getRemoteBotCount();
+    }
+
     /**
      * Sets internal flag which terminates loop in run() method.
      */
     private void cleanup() {
-        try {
-            log("releasing resources");
-            channel.close();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        log("releasing resources");
+        io.close();                                         // sends what's queued, then closes channel
     }
 
     /**
@@ -99,9 +220,11 @@ public class ServerTask implements Runnable {
         timeOfStart = TimeFlow.systemTime();
 
         try {
-            log("server %s - started", channel.getLocalAddress());
+            io.start();
+            log("server %s - started", io.getLocalAddress());
 
             Timeout worldStateRefreshTimeout = new Timeout(1000 / WORLD_STATE_SEND_RATE);
+            Timeout perceptionSendTimeout = new Timeout(1000 / WORKER_PERCEPTION_SEND_RATE);
 
             // server internal time initialized to 0 instead of system time
             double lastTime = 0;
@@ -124,14 +247,23 @@ public class ServerTask implements Runnable {
                 processLogic(elapsed);
                 processNewEntities();                       // new entities, if any, are sent immediately after creation
                 processInactiveEntities();
+                processAIWorkers();                         // assign bots to workers, taking them from dead ones
+
+                if (perceptionSendTimeout.occurred()) {     // AI workers need fresher state than human clients
+                    sendBotPerceptions();
+                    perceptionSendTimeout.reset();
+                }
 
                 logicTime = logicTime + elapsed;            // this is internal logic time counter, for debug info
 
                 if (worldStateRefreshTimeout.occurred()) {  // check if it is time to send updates to clients
+                    sendTerrainChanges();                   // cells destroyed lately, if any
                     processActiveEntities();                // calculate and send state update
                     worldStateRefreshTimeout.reset();       // reset timer after state is sent
                 }
 
+                io.flush();                                 // send all datagrams of this loop in one batch
+
                 long frame_t1 = TimeFlow.systemTime();      // get time of processing end
                 long frame_elapsed = frame_t1 - frame_t0;   // calculate total time spent in this iteration
 
@@ -157,15 +289,12 @@ public class ServerTask implements Runnable {
 
     private void processInactiveEntities() {
         // check if network channel is up
-        if (channel == null || !channel.isOpen()) {
+        if (!io.isOpen()) {
             return;
         }
 
         Collection<Entity> inactive = board.getInactiveEntitiesUnmodifiable();
-        List<EntityStateFragment> stateFragments = new ArrayList<>();
-
-        EntityStateFragment.appendStateFragments(inactive, stateFragments);
-        sendStateFragmentsToClients(stateFragments);
+        sendStatesToClients(inactive);
 
         // remove flush inactive entity list after sending
         // this should be done after making state buffer
@@ -174,25 +303,49 @@ public class ServerTask implements Runnable {
 
     private void processNewEntities() {
         // check if network channel is up
-        if (channel == null || !channel.isOpen()) {
+        if (!io.isOpen()) {
             return;
         }
 
         Collection<Entity> newEntities = board.getNewEntitiesUnmodifiable();
-        List<EntityStateFragment> stateFragments = new ArrayList<>();
-
-        EntityStateFragment.appendStateFragments(newEntities, stateFragments);
-        sendStateFragmentsToClients(stateFragments);        // send initial states of new entities to all clients
+        sendStatesToClients(newEntities);                   // send initial states of new entities to clients near
 
         // remove flush inactive entity list after sending
         // this should be done after making state buffer
         getBoard().flushNewEntityList();                    // flush after sending once
     }
 
-    private void sendStateFragmentsToClients(List<EntityStateFragment> stateFragments) {
+    /**
+     * Sends states of entities to clients interested in them: ones having entity in their interest region, or having
+     * it in last snapshot sent, so they see it destroyed even if it's just leaving the region. Clients interested in
+     * all of entities get same messages, which are written once and sent to each of them.
+     */
+    private void sendStatesToClients(Collection<Entity> entities) {
+        if (entities.isEmpty()) return;
+
+        List<ClientInfo> interestedInAll = new ArrayList<>();
+
         clientInfoManager.forEach((uniqueID, client) -> {
             if (client.isReady()) try {
                 // send state updates only to clients that are ready
+                InterestRegion region = getInterestRegion(client);
+                Map<Short, byte[]> lastSnapshot = client.getSentSnapshots().get(snapshotSequence);
+                List<Entity> interesting = new ArrayList<>();
+
+                for (Entity entity : entities) {
+                    if (region == null || region.contains(entity) ||
+                            (lastSnapshot != null && lastSnapshot.containsKey(entity.getKey()))) {
+                        interesting.add(entity);
+                    }
+                }
+
+                if (interesting.size() == entities.size()) {
+                    interestedInAll.add(client);
+                    return;
+                }
+
+                List<EntityStateFragment> stateFragments = new ArrayList<>();
+                EntityStateFragment.appendStateFragments(interesting, stateFragments);
 
                 for (EntityStateFragment stateFragment : stateFragments) {
                     sendClientStateFragment(client, stateFragment);
@@ -202,6 +355,38 @@ public class ServerTask implements Runnable {
                 log(e.getMessage());                    // log exception, if happens, without stack trace
             }
         });
+
+        if (interestedInAll.isEmpty()) return;
+
+        List<EntityStateFragment> stateFragments = new ArrayList<>();
+        EntityStateFragment.appendStateFragments(entities, stateFragments);
+
+        for (EntityStateFragment stateFragment : stateFragments) {
+            broadcastStateFragment(interestedInAll, stateFragment);
+        }
+    }
+
+    /**
+     * Encodes fragment into pooled direct buffer once, then copies it into outbound ring for each client, with only
+     * client key patched.
+     */
+    private void broadcastStateFragment(List<ClientInfo> clients, EntityStateFragment stateFragment) {
+        ServerBoardStateUpdate boardStateUpdate = makeBoardStateUpdate((short) 0, ServerBoardStateUpdate.NO_SNAPSHOT,
+                ServerBoardStateUpdate.NO_SNAPSHOT, (byte) 0, (byte) 1, stateFragment);
+
+        ByteBuffer buf = sendBuffers.acquire();
+
+        try {
+            boardStateUpdate.writeTo(buf);                  // encoded once for all clients
+            buf.flip();
+
+            for (ClientInfo client : clients) {
+                ServerBoardStateUpdate.patchClientKey(buf, client.getKey());
+                sendStateBuffer(buf, client);
+            }
+        } finally {
+            sendBuffers.release(buf);
+        }
     }
 
     private void processLogic(double elapsed) {
@@ -230,19 +415,20 @@ public class ServerTask implements Runnable {
             Entity entity = getBoard().getEntity(botInfo.getClientKey());
 
             if (entity == null) {                           // not spawned
+                aiWorkerManager.unassign(botInfo.getClientKey());
+
                 if (botInfo.getSpawnDelay() > 0) {          // not ready to spawn yet - decrease delay
                     botInfo.decrementSpawnDelay();
-                } else {                                    // no delay left - ready to spawn
-                    Enemy bot = board.spawnEnemy(botInfo.uniqueID);
-
-                    if (bot == null) {
-                        return;                             // oops, can't spawn. Maybe all spawn points are occupied.
-                    }
+                } else if (!botInfo.isSpawnPending()) {     // no delay left - ready to spawn
+                    botInfo.setSpawnPending(true);          // board spawns it now or once spawn point gets free
 
-                    bot.setComputerControlled(true);        // enable AI
+                    board.requestEnemySpawn(botInfo.uniqueID, bot -> {
+                        bot.setComputerControlled(true);    // enable AI
 
-                    botInfo.setClientKey(bot.getKey());     // set key to new spawned entity
-                    botInfo.resetSpawnDelay();              // reset counter for next spawn
+                        botInfo.setClientKey(bot.getKey()); // set key to new spawned entity
+                        botInfo.resetSpawnDelay();          // reset counter for next spawn
+                        botInfo.setSpawnPending(false);
+                    });
                 }
             }
 
@@ -265,15 +451,14 @@ public class ServerTask implements Runnable {
 
                 if (client.getSpawnDelay() > 0) {       // not ready to spawn yet - decrease delay
                     client.decrementSpawnDelay();
-                } else {                                // no delay left - ready to spawn
-                    player = getBoard().spawnPlayer(client.uniqueID);
-
-                    if (player == null) {               // oops, can't spawn. Maybe all spawn points are occupied.
-                        return;
-                    }
-
-                    client.setKey(player.getKey());// set key to new spawned entity
-                    client.resetSpawnDelay();           // reset counter for next spawn
+                } else if (!client.isSpawnPending()) {  // no delay left - ready to spawn
+                    client.setSpawnPending(true);       // board spawns it now or once spawn point gets free
+
+                    client.setSpawnCancel(getBoard().requestPlayerSpawn(client.uniqueID, spawned -> {
+                        client.setKey(spawned.getKey());  // set key to new spawned entity
+                        client.resetSpawnDelay();       // reset counter for next spawn
+                        client.setSpawnPending(false);
+                    }));
                 }
             }
 
@@ -286,15 +471,100 @@ public class ServerTask implements Runnable {
      */
     private void processActiveEntities() {
         // check if network channel is up
-        if (channel == null || !channel.isOpen()) {
+        if (!io.isOpen()) {
             return;
         }
 
-        Collection<Entity> active = board.getActiveEntitiesUnmodifiable();
+        // states are written once and encoded against baseline of each client
+        Map<Short, byte[]> records = EntityStateFragment.makeRecords(board.getActiveEntitiesUnmodifiable());
+        int sequence = ++snapshotSequence;
 
-        List<EntityStateFragment> stateFragments = new ArrayList<>();
+        clientInfoManager.forEach((uniqueID, client) -> {
+            if (client.isReady()) try {
+                InterestRegion region = getInterestRegion(client);
+                sendClientSnapshot(client, sequence, (region == null) ? records : filterRecords(records, region));
+            } catch (Exception e) {
+                log(e.getMessage());                        // log exception, if happens, without stack trace
+            }
+        });
+
+        networkStateSendRate.update();
+    }
+
+    /**
+     * Gets region of board client is interested in, following client's entity. Region stays where entity was last
+     * seen after it's destroyed, so client keeps getting it's surroundings while waiting to respawn. Cells hidden
+     * behind walls are left out, which also keeps entities there away from modified clients.
+     * @return region, or null if client did not report it's view size or had no entity yet, and gets all entities.
+     */
+    private InterestRegion getInterestRegion(ClientInfo client) {
+        Entity entity = board.getEntity(client.getKey());
+
+        if (entity instanceof Positionable) {
+            Positionable positionable = (Positionable) entity;
+            client.setViewCenter(new Point(positionable.getX(), positionable.getY()));
+        }
+
+        if (!client.hasViewSize() || client.getViewCenter() == null) return null;
+
+        Point center = client.getViewCenter();
+        if (!board.coordinatesInBounds(center.x, center.y)) return null;
+
+        BoardCell viewer = board.getCell(BoardCell.yToRow(center.y), BoardCell.xToCol(center.x));
+
+        return InterestRegion.around(board, center, client.getViewWidth(), client.getViewHeight(), INTEREST_MARGIN)
+                .visibleFrom(board.getPotentiallyVisibleSet(), viewer);
+    }
+
+    /**
+     * Picks records of entities in region, looking only into cells of region.
+     */
+    private Map<Short, byte[]> filterRecords(Map<Short, byte[]> records, InterestRegion region) {
+        Map<Short, byte[]> filtered = new LinkedHashMap<>();
+
+        for (Entity entity : region.getEntities(board)) {
+            byte[] record = records.get(entity.getKey());
+            if (record != null) filtered.put(entity.getKey(), record);
+        }
+
+        return filtered;
+    }
+
+    /**
+     * Sends snapshot to client as differences from last snapshot client acknowledged. Idle entity takes three bytes
+     * then, it's key and empty mask, so client knows it's still there. Entities that were in previous snapshot and
+     * are still on board, but not in this one, left client's interest region and are sent as leave records.
+     * States that don't fit into byte budget are sent as keep records if client has them in baseline, so snapshot
+     * holds their baseline records, or are not sent at all otherwise.
+     */
+    private void sendClientSnapshot(ClientInfo client, int sequence, Map<Short, byte[]> records) {
+        Map<Short, byte[]> baselineRecords = client.getAckedSnapshotRecords();
+        int baseline = (baselineRecords == null) ? ServerBoardStateUpdate.NO_SNAPSHOT : client.getAckedSnapshot();
 
-        EntityStateFragment.appendStateFragments(active, stateFragments);
+        Map<Short, byte[]> previous = client.getSentSnapshots().get(sequence - 1);
+        List<Short> leaving = getLeavingKeys(board, records, previous, baselineRecords);
+
+        Set<Short> scheduled = client.getPriorities().schedule(board, records, baselineRecords, client.getViewCenter(),
+                client.getKey(), stateByteBudget);
+
+        Map<Short, byte[]> sending = new LinkedHashMap<>();
+        Map<Short, byte[]> snapshot = new LinkedHashMap<>();
+        List<Short> kept = new ArrayList<>();
+
+        for (Map.Entry<Short, byte[]> entry : records.entrySet()) {
+            short key = entry.getKey();
+
+            if (scheduled.contains(key)) {
+                sending.put(key, entry.getValue());
+                snapshot.put(key, entry.getValue());
+            } else if (baselineRecords != null && baselineRecords.containsKey(key)) {
+                kept.add(key);
+                snapshot.put(key, baselineRecords.get(key));
+            }
+        }
+
+        List<EntityStateFragment> stateFragments = new ArrayList<>();
+        EntityStateFragment.appendDeltaFragments(sending, baselineRecords, kept, leaving, stateFragments);
 
         // SPECIAL CASE: if no entities exist server will send empty "heartbeat for client to run time"
         if (stateFragments.size() == 0) {
@@ -302,94 +572,275 @@ public class ServerTask implements Runnable {
             stateFragments.add(fragment);
         }
 
-        // send everything to everybody ;-)
-        sendStateFragmentsToClients(stateFragments);
+        client.getSentSnapshots().put(sequence, snapshot);
 
-        networkStateSendRate.update();
+        for (int index = 0; index < stateFragments.size(); index++) {
+            sendClientStateFragment(client, stateFragments.get(index), sequence, baseline, (byte) index,
+                    (byte) stateFragments.size());
+        }
     }
 
-    private void sendClientStateFragment(ClientInfo client, EntityStateFragment stateFragment) throws IOException {
+    /**
+     * Gets entities client was shown which are out of it's area of interest now. Leave is checked against acked
+     * snapshot too, so it's repeated until client acks snapshot without entity, even if datagram carrying it is lost.
+     * @param records  records of entities in client's area now.
+     * @param previous snapshot sent last, or null.
+     * @param baseline snapshot client acked last, or null.
+     */
+    static List<Short> getLeavingKeys(Board board, Map<Short, byte[]> records, Map<Short, byte[]> previous,
+                                      Map<Short, byte[]> baseline) {
+        Set<Short> shown = new LinkedHashSet<>();
+        List<Short> leaving = new ArrayList<>();
+
+        if (previous != null) shown.addAll(previous.keySet());
+        if (baseline != null) shown.addAll(baseline.keySet());
+
+        for (Short key : shown) {
+            // destroyed entities are not leaving, client gets their last state instead
+            if (!records.containsKey(key) && board.getEntity(key) != null) leaving.add(key);
+        }
+
+        return leaving;
+    }
+
+    /**
+     * Sends overlays of cells changed since few state sends ago. Each change goes out with TERRAIN_RESEND_COUNT
+     * state sends, so it's lost only if all of these datagrams are lost.
+     * <p>
+     * Clients which confirmed ready lately get all changes made since map was loaded, the same number of times, as
+     * map lines they fetched may miss changes made while they were loading. So do AI workers which joined lately,
+     * as they load map from resource.
+     */
+    private void sendTerrainChanges() {
+        int slot = terrainSendCount++ % TERRAIN_RESEND_COUNT;
+        int since = sentTerrainVersions[slot];              // version TERRAIN_RESEND_COUNT sends ago
+        int version = board.getTerrainVersion();
+        List<SocketAddress> replayAddresses = new ArrayList<>();
+
+        clientInfoManager.forEach((uniqueID, client) -> {
+            if (!client.isReady() || client.getTerrainReplayCount() == 0) return;
+
+            client.setTerrainReplayCount(client.getTerrainReplayCount() - 1);
+            replayAddresses.add(client.address);
+        });
+        aiWorkerManager.forEach(worker -> {
+            if (worker.getTerrainReplayCount() == 0) return;
+
+            worker.setTerrainReplayCount(worker.getTerrainReplayCount() - 1);
+            replayAddresses.add(worker.address);
+        });
+
+        if (version > 0 && !replayAddresses.isEmpty()) {
+            sendTerrainTiles(board.getTerrainChangesSince(0), replayAddresses);
+        }
+
+        sentTerrainVersions[slot] = version;
+        if (since == version) return;
+
+        List<SocketAddress> addresses = new ArrayList<>();
+
+        // AI workers keep their own copy of map for path finding
+        clientInfoManager.forEach((uniqueID, client) -> {
+            if (client.isReady()) addresses.add(client.address);
+        });
+        aiWorkerManager.forEach(worker -> addresses.add(worker.address));
+
+        sendTerrainTiles(board.getTerrainChangesSince(since), addresses);
+    }
+
+    private void sendTerrainTiles(List<BoardCell> changes, List<SocketAddress> addresses) {
+        // cell changed more than once is sent once, with it's current overlay
+        Set<BoardCell> changed = new LinkedHashSet<>(changes);
+        List<ServerTerrainUpdate.Tile> tiles = new ArrayList<>();
+
+        for (BoardCell cell : changed) {
+            tiles.add(new ServerTerrainUpdate.Tile((short) cell.row, (short) cell.col,
+                    (byte) cell.getOverlay().ID.charAt(0)));
+
+            if (tiles.size() == ServerTerrainUpdate.MAX_TILES) {
+                sendTerrainUpdate(new ServerTerrainUpdate(tiles), addresses);
+                tiles.clear();
+            }
+        }
+
+        if (!tiles.isEmpty()) {
+            sendTerrainUpdate(new ServerTerrainUpdate(tiles), addresses);
+        }
+    }
+
+    private void sendTerrainUpdate(ServerTerrainUpdate update, List<SocketAddress> addresses) {
+        ByteBuffer buf = sendBuffers.acquire();
+
+        try {
+            update.writeTo(buf);                            // encoded once for all receivers
+            buf.flip();
+
+            for (SocketAddress address : addresses) {
+                sendBuffer(buf, address);
+            }
+        } finally {
+            sendBuffers.release(buf);
+        }
+    }
+
+    /**
+     * Writes message straight into outbound ring, to go out of channel address's datagrams come in. It's sent by I/O
+     * thread after loop flushes.
+     * @return number of bytes queued, 0 if ring is full and message is dropped.
+     */
+    private int sendMessage(ServerMessageBase message, SocketAddress address) {
+        return sendMessage(message, address, clientInfoManager.getShard(address, receivingShard));
+    }
+
+    private int sendMessage(ServerMessageBase message, SocketAddress address, int shard) {
+        ByteBuffer buf = io.claimSend();
+        if (buf == null) return 0;
+
+        message.writeTo(buf);
+        buf.flip();
+        io.publishSend(address, shard);
+
+        bandwidthCounter.update(buf.limit());
+        return buf.limit();
+    }
+
+    /**
+     * Copies datagram encoded once for several receivers into outbound ring, leaving it's position at start.
+     * @return number of bytes queued, 0 if ring is full and datagram is dropped.
+     */
+    private int sendBuffer(ByteBuffer buf, SocketAddress address) {
+        return sendBuffer(buf, address, clientInfoManager.getShard(address, receivingShard));
+    }
+
+    private int sendBuffer(ByteBuffer buf, SocketAddress address, int shard) {
+        ByteBuffer dst = io.claimSend();
+        if (dst == null) return 0;
+
+        buf.rewind();
+        dst.put(buf);
+        buf.rewind();
+        dst.flip();
+        io.publishSend(address, shard);
+
+        bandwidthCounter.update(dst.limit());
+        return dst.limit();
+    }
+
+    private void sendClientStateFragment(ClientInfo client, EntityStateFragment stateFragment) {
+        sendClientStateFragment(client, stateFragment, ServerBoardStateUpdate.NO_SNAPSHOT,
+                ServerBoardStateUpdate.NO_SNAPSHOT, (byte) 0, (byte) 1);
+    }
+
+    private void sendClientStateFragment(ClientInfo client, EntityStateFragment stateFragment, int sequence,
+                                         int baseline, byte fragmentIndex, byte fragmentCount) {
+        ServerBoardStateUpdate boardStateUpdate = makeBoardStateUpdate(client.getKey(), sequence, baseline,
+                fragmentIndex, fragmentCount, stateFragment);
+
+        int sent = sendMessage(boardStateUpdate, client.address, client.getShard());  // copied once, into ring
+
+        copiedBytesCounter.update(sent);
+        clientSendCounter.update();
+    }
+
+    private ServerBoardStateUpdate makeBoardStateUpdate(short key, int sequence, int baseline, byte fragmentIndex,
+                                                        byte fragmentCount, EntityStateFragment stateFragment) {
         int time = (int) logicTime;                         // send as int - fractional part is irrelevant
         double speed = getTimeFlow().getSpeed();            // speed is converted to byte inside board state update
         boolean paused = getTimeFlow().isPaused();
-        short key = client.getKey();
 
-        ServerBoardStateUpdate boardStateUpdate = new ServerBoardStateUpdate(
+        return new ServerBoardStateUpdate(
                 time,           // send board time, so we know if it is still actual first
                 speed,          // send time speed for client prediction feature
                 paused,         // server paused state
                 key,            // tell client his key so he knows which units he owns
+                sequence,       // snapshot fragment belongs to
+                baseline,       // snapshot delta records refer to
+                fragmentIndex,
+                fragmentCount,
                 stateFragment   // actual state of objects
         );
+    }
 
-        ByteBuffer buf = boardStateUpdate.toBuffer();
-        int sent = channel.send(buf, client.address);
+    /**
+     * Queues state datagram encoded for several clients, leaving it's position at start, so it can be sent again.
+     */
+    private void sendStateBuffer(ByteBuffer buf, ClientInfo client) {
+        copiedBytesCounter.update(sendBuffer(buf, client.address, client.getShard()));
+        clientSendCounter.update();
+    }
+
+    /**
+     * Handles datagrams receive thread has put into inbound ring, until ring is empty or limits of datagrams and
+     * bytes per tick are reached. Datagrams over limits wait in ring for next ticks, so burst of input can't stall
+     * simulation. Handlers read fields straight from ring's buffer, so nothing is allocated per datagram, except
+     * for sender's address by receive thread.
+     */
+    private void processIncomingPackets() {
+        int bytes = 0;
+
+        for (int packets = 0; packets < maxPacketsPerTick && bytes < maxBytesPerTick; packets++) {
+            PacketRing.Slot packet = io.peekReceived();
+            if (packet == null) return;                     // no more datagram left
 
-        if (sent < boardStateUpdate.toBuffer().limit()) {
-            log("Send buffer overflow with state size of %d bytes", buf.limit());
+            try {
+                bytes += packet.getBuffer().limit();
+                receivingShard = packet.getShard();         // replies go out of channel request came in
+                clientInfoManager.updateShard(packet.getAddress(), receivingShard);
+                handlePacket(packet.getBuffer(), packet.getAddress());
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                io.releaseReceived(packet);
+            }
         }
 
-        bandwidthCounter.update(sent);
+        if (io.peekReceived() != null) deferredDatagramCount++;  // limits reached with datagrams still waiting
     }
 
-    private void processIncomingPackets() {
-        SocketAddress clientAddress;
-        ByteBuffer buffer = ByteBuffer.allocate(1024);
-
-        // read incoming packets
-        while (true) try {
-            buffer.clear();
-            clientAddress = channel.receive(buffer);        // next buffer, address will be null if no data present
-
-            if (clientAddress == null) break;               // no more datagram left
-            buffer.flip();                                  // prepare buffer to be read
-
-            // process by MessageType
-            switch (ClientMessageBase.getTypeFromBuffer(buffer)) {
-                case CLIENT_JOIN_REQUEST: {
-                    handleClientJoin(buffer, clientAddress);
-                    break;
-                }
-                case CLIENT_EXIT_REQUEST: {
-                    handleClientExit(buffer, clientAddress);
-                    break;
-                }
-                case CLIENT_WORLD_LINE_REQUEST: {
-                    handleClientWorldLineRequest(buffer, clientAddress);
-                    break;
-                }
-                case CLIENT_CONFIRM_READY: {
-                    handleClientConfirmReady(buffer, clientAddress);
-                    break;
-                }
-                case CLIENT_PAUSE_TOGGLE_REQUEST: {
-                    handleClientPauseToggleRequest(buffer, clientAddress);
-                    break;
-                }
-                case CLIENT_SELF_DESTRUCT: {
-                    handleClientSelfDestructMessage(buffer, clientAddress);
-                    break;
-                }
-                case CLIENT_INPUT: {
-                    handleClientInputMessage(buffer, clientAddress);
-                    break;
-                }
-                default: {
-                    log("Unknown packet %s from %s", ClientMessageBase.getTypeFromBuffer(buffer), clientAddress);
-                }
-            }
+    /**
+     * Looks up handler by message type. Truncated datagrams and ones of unknown type are dropped.
+     */
+    private void handlePacket(ByteBuffer buffer, SocketAddress clientAddress) {
+        if (ReceiveBufferRing.isTruncated(buffer)) {
+            droppedDatagramCount++;
+            log("Datagram over %d bytes from %s dropped", buffer.capacity(), clientAddress);
+            return;
+        }
 
-        } catch (Exception e) {
-            e.printStackTrace();
+        int type = (buffer.remaining() < Integer.BYTES) ? -1 : buffer.getInt(0);
+        MessageHandler handler = (type >= 0 && type < messageHandlers.length) ? messageHandlers[type] : null;
+
+        if (handler == null) {
+            droppedDatagramCount++;
+            log("Unknown packet %d from %s", type, clientAddress);
+            return;
         }
+
+        handler.handle(buffer, clientAddress);
+    }
+
+    /**
+     * Fills handler table, indexed by ordinal of message type. Types with no handler are logged and dropped.
+     */
+    private void registerMessageHandlers() {
+        messageHandlers[ClientMessageType.CLIENT_JOIN_REQUEST.ordinal()] = this::handleClientJoin;
+        messageHandlers[ClientMessageType.CLIENT_EXIT_REQUEST.ordinal()] = this::handleClientExit;
+        messageHandlers[ClientMessageType.CLIENT_WORLD_LINE_REQUEST.ordinal()] = this::handleClientWorldLineRequest;
+        messageHandlers[ClientMessageType.CLIENT_CONFIRM_READY.ordinal()] = this::handleClientConfirmReady;
+        messageHandlers[ClientMessageType.CLIENT_PAUSE_TOGGLE_REQUEST.ordinal()] = this::handleClientPauseToggleRequest;
+        messageHandlers[ClientMessageType.CLIENT_SELF_DESTRUCT.ordinal()] = this::handleClientSelfDestructMessage;
+        messageHandlers[ClientMessageType.CLIENT_INPUT.ordinal()] = this::handleClientInputMessage;
+        messageHandlers[ClientMessageType.CLIENT_SNAPSHOT_ACK.ordinal()] = this::handleClientSnapshotAck;
+        messageHandlers[ClientMessageType.WORKER_HELLO.ordinal()] = this::handleWorkerHello;
+        messageHandlers[ClientMessageType.WORKER_BOT_CONTROL.ordinal()] = this::handleWorkerBotControl;
     }
 
     private void handleClientSelfDestructMessage(ByteBuffer buffer, SocketAddress clientAddress) {
         // check client unique ID to match stored address
         ClientInfo clientInfo = clientInfoManager.get(clientAddress);
+        if (clientInfo == null) return;                     // not a registered client
 
-        ClientSelfDestructMessage message = new ClientSelfDestructMessage(buffer);
-        if (!UUID.fromString(message.uniqueID).equals(clientInfo.uniqueID)) {
+        if (!ClientSelfDestructMessage.hasUniqueID(buffer, clientInfo.getUniqueIDBytes())) {
             log("Client uniqueID does not match in self-destruct message");
             return;
         }
@@ -409,10 +860,16 @@ public class ServerTask implements Runnable {
     }
 
     private void handleClientInputMessage(ByteBuffer buffer, SocketAddress clientAddress) {
-        ClientInputMessage clientInputMessage = new ClientInputMessage(buffer);
+        ClientInputMessage.View clientInputMessage = inputView.wrap(buffer);
 
         // use clientAddress to find client UUID and see if it matches to key
-        short clientKey = clientInfoManager.get(clientAddress).getKey();
+        ClientInfo client = clientInfoManager.get(clientAddress);
+        if (client == null) return;                         // not a registered client
+        short clientKey = client.getKey();
+
+        if (clientInputMessage.getClientTime() > 0) {       // client has seen board state, so latency can be measured
+            client.updateLatency((int) logicTime - clientInputMessage.getClientTime());
+        }
 
         //for (Entity entity : getBoard().getEntity.values()) {
         {
@@ -422,64 +879,195 @@ public class ServerTask implements Runnable {
             //if (entity.getKey() != clientKey ||
             if (!(entity instanceof Tank)) return;//continue;
 
-            Tank client = (Tank) entity;
+            // bullets fired by client hit targets where client saw them
+            LagCompensationManager lagCompensation = getBoard().getLagCompensation();
+            ((Tank) entity).getCannon().setRewind(lagCompensation.clampRewind(client.getLatency()));
 
-            switch (clientInputMessage.turnOrder) {
-                case NORTH: {
-                    client.setOrderedHeading(0);
-                    break;
-                }
-                case EAST: {
-                    client.setOrderedHeading(90);
-                    break;
-                }
-                case SOUTH: {
-                    client.setOrderedHeading(180);
-                    break;
-                }
-                case WEST: {
-                    client.setOrderedHeading(270);
-                    break;
-                }
+            applyInputOrders((Tank) entity, clientInputMessage.getTurnOrder(), clientInputMessage.getMoveOrder(),
+                    clientInputMessage.getFireOrder());
+        }
+    }
+
+    /**
+     * Applies orders of human client or AI worker to tank under it's control.
+     */
+    private static void applyInputOrders(Tank client, InputTurnOrder turnOrder, InputMoveOrder moveOrder,
+                                         InputFireOrder fireOrder) {
+        switch (turnOrder) {
+            case NORTH: {
+                client.setOrderedHeading(0);
+                break;
+            }
+            case EAST: {
+                client.setOrderedHeading(90);
+                break;
+            }
+            case SOUTH: {
+                client.setOrderedHeading(180);
+                break;
+            }
+            case WEST: {
+                client.setOrderedHeading(270);
+                break;
             }
+        }
 
-            switch (clientInputMessage.moveOrder) {
-                case FORWARD: {
-                    client.forward();
-                    break;
-                }
-                case REVERSE: {
-                    client.reverse();
-                    break;
-                }
-                case STOP: {
-                    client.stop();
-                    break;
+        switch (moveOrder) {
+            case FORWARD: {
+                client.forward();
+                break;
+            }
+            case REVERSE: {
+                client.reverse();
+                break;
+            }
+            case STOP: {
+                client.stop();
+                break;
+            }
+        }
+
+        switch (fireOrder) {
+            case FIRE: {
+                client.openFire();
+                break;
+            }
+            case NONE: {
+                client.ceaseFire();
+                break;
+            }
+        }
+    }
+
+    private void handleClientSnapshotAck(ByteBuffer buffer, SocketAddress clientAddress) {
+        ClientInfo clientInfo = clientInfoManager.get(clientAddress);
+        if (clientInfo == null) return;                     // client already left
+
+        ClientSnapshotAck.View ack = snapshotAckView.wrap(buffer);
+        clientInfo.acknowledgeSnapshot(ack.getSequence());
+        clientInfo.setViewSize(ack.getViewWidth(), ack.getViewHeight());
+    }
+
+    private void handleWorkerHello(ByteBuffer buffer, SocketAddress workerAddress) {
+        if (!AIWorkerManager.isAllowed(workerAddress)) return;  // workers from other hosts are not accepted
+
+        ClientWorkerHello hello = new ClientWorkerHello(buffer);
+
+        if (aiWorkerManager.heard(hello.workerName, workerAddress)) {
+            log("AI worker %s joined from %s", hello.workerName, workerAddress);
+            aiWorkerManager.heard(workerAddress).setTerrainReplayCount(TERRAIN_RESEND_COUNT);
+        }
+
+        // answered, so worker without bots knows server is alive
+        sendMessage(new ServerBotPerception(Collections.emptyList()), workerAddress);
+    }
+
+    private void handleWorkerBotControl(ByteBuffer buffer, SocketAddress workerAddress) {
+        AIWorkerManager.WorkerInfo worker = aiWorkerManager.heard(workerAddress);
+        if (worker == null) return;                         // not a registered worker
+
+        ClientBotControl.View control = botControlView.wrap(buffer);
+
+        for (int n = 0; n < control.getCount(); n++) {
+            short botKey = control.getBotKey(n);
+
+            // orders sent before bot was moved to another worker are ignored
+            if (aiWorkerManager.getWorker(botKey) != worker) continue;
+
+            Entity entity = getBoard().getEntity(botKey);
+            if (!(entity instanceof Tank)) continue;
+
+            applyInputOrders((Tank) entity, control.getTurnOrder(n), control.getMoveOrder(n), control.getFireOrder(n));
+        }
+    }
+
+    /**
+     * Assigns bots to AI workers. Bots of workers that went silent are assigned to remaining workers, or given back
+     * to local AI if there are none.
+     */
+    private void processAIWorkers() {
+        List<Short> orphans = aiWorkerManager.removeDead();
+        if (!orphans.isEmpty()) {
+            log("AI worker lost, reassigning %d bots", orphans.size());
+        }
+
+        botInfoManager.forEach(botInfo -> {
+            Entity entity = getBoard().getEntity(botInfo.getClientKey());
+            if (!(entity instanceof Enemy)) return;
+
+            Enemy bot = (Enemy) entity;
+
+            if (aiWorkerManager.getWorker(bot.getKey()) == null) {
+                boolean remote = aiWorkerManager.hasWorkers() && aiWorkerManager.assign(bot.getKey()) != null;
+
+                if (remote) {                               // no orders left from previous controller
+                    bot.stop();
+                    bot.ceaseFire();
                 }
+                bot.setComputerControlled(!remote);
             }
+        });
+    }
+
+    /**
+     * Sends each AI worker what it's bots see.
+     */
+    private void sendBotPerceptions() {
+        aiWorkerManager.forEach(worker -> {
+            List<ServerBotPerception.Perception> perceptions = new ArrayList<>();
+
+            for (Short botKey : worker.getBotKeysUnmodifiable()) {
+                Entity entity = getBoard().getEntity(botKey);
+                if (!(entity instanceof Tank)) continue;
+
+                Tank bot = (Tank) entity;
+                List<Tank> nearest = getBoard().getNearest(bot.getPos(), Tank.class, 1, WORKER_TARGET_RANGE,
+                        t -> t != bot);
 
-            switch (clientInputMessage.fireOrder) {
-                case FIRE: {
-                    client.openFire();
-                    break;
+                short targetX = ServerBotPerception.NO_TARGET;
+                short targetY = ServerBotPerception.NO_TARGET;
+
+                if (!nearest.isEmpty()) {
+                    targetX = (short) nearest.get(0).getX();
+                    targetY = (short) nearest.get(0).getY();
                 }
-                case NONE: {
-                    client.ceaseFire();
-                    break;
+
+                perceptions.add(new ServerBotPerception.Perception(botKey, (short) bot.getX(), (short) bot.getY(),
+                        (short) bot.getHeading(), targetX, targetY));
+
+                if (perceptions.size() == ServerBotPerception.MAX_BOTS) {
+                    sendBotPerception(worker, perceptions);
+                    perceptions.clear();
                 }
             }
-        }
+
+            if (!perceptions.isEmpty()) {
+                sendBotPerception(worker, perceptions);
+            }
+        });
+    }
+
+    private void sendBotPerception(AIWorkerManager.WorkerInfo worker,
+                                   List<ServerBotPerception.Perception> perceptions) {
+        sendMessage(new ServerBotPerception(perceptions), worker.address);
     }
 
     private void handleClientConfirmReady(ByteBuffer buffer, SocketAddress clientAddress) {
-        ClientConfirmReady message = new ClientConfirmReady(buffer);
+        ClientInfo clientInfo = clientInfoManager.get(clientAddress);
 
-        ClientInfo clientInfo = clientInfoManager.get(UUID.fromString(message.uniqueID));
+        if (clientInfo == null || !ClientConfirmReady.hasUniqueID(buffer, clientInfo.getUniqueIDBytes())) {
+            log("Client uniqueID does not match in confirm ready message");
+            return;
+        }
+
+        if (!clientInfo.isReady()) {                        // client repeats confirmation until state comes
+            clientInfo.setTerrainReplayCount(TERRAIN_RESEND_COUNT);
+        }
 
         clientInfo.setReady(true);
     }
 
-    private void handleClientWorldLineRequest(ByteBuffer buffer, SocketAddress clientAddress) throws IOException {
+    private void handleClientWorldLineRequest(ByteBuffer buffer, SocketAddress clientAddress) {
         ClientBoardLineRequest request = new ClientBoardLineRequest(buffer);
 
         List<String> lines = getBoard().getRowsUnmodifiable();
@@ -487,7 +1075,7 @@ public class ServerTask implements Runnable {
         int index = request.lineIndex;
         int count = lines.size();
 
-        channel.send(new ClientBoardLineReply(line, index, count).toBuffer(), clientAddress);
+        sendMessage(new ClientBoardLineReply(line, index, count), clientAddress);
     }
 
     private void handleClientPauseToggleRequest(ByteBuffer buffer, SocketAddress clientAddress) {
@@ -503,15 +1091,17 @@ public class ServerTask implements Runnable {
      *
      * @param buffer        ByteBuffer constructed with network data.
      * @param clientAddress address of client.
-     * @throws IOException if network error occurs.
      */
-    private void handleClientExit(ByteBuffer buffer, SocketAddress clientAddress) throws IOException {
+    private void handleClientExit(ByteBuffer buffer, SocketAddress clientAddress) {
         ClientExitRequest request = new ClientExitRequest(buffer);
         // make sure exit message valid by calling isRegistered
         if (clientInfoManager.isRegistered(request.clientName, UUID.fromString(request.uniqueID), clientAddress)) {
 
-            clientInfoManager.remove(UUID.fromString(request.uniqueID));
-            channel.send(new ClientExitAccept(request.clientName, request.uniqueID).toBuffer(), clientAddress);
+            UUID uniqueID = UUID.fromString(request.uniqueID);
+
+            clientInfoManager.get(uniqueID).cancelSpawn();  // no tank for client that left
+            clientInfoManager.remove(uniqueID);
+            sendMessage(new ClientExitAccept(request.clientName, request.uniqueID), clientAddress);
             log(String.format("received %s from %s - removing client %s", request.getType(), request.clientName, clientAddress));
         } else {
             log(String.format("received %s from %s but data does not match - ignoring.", request.getType(), clientAddress));
@@ -526,9 +1116,8 @@ public class ServerTask implements Runnable {
      *
      * @param buffer        buffer with network message.
      * @param clientAddress remote client address.
-     * @throws IOException if network error occurs.
      */
-    private void handleClientJoin(ByteBuffer buffer, SocketAddress clientAddress) throws IOException {
+    private void handleClientJoin(ByteBuffer buffer, SocketAddress clientAddress) {
         ClientJoinRequest request = new ClientJoinRequest(buffer);
 
         String replyText;
@@ -553,25 +1142,30 @@ public class ServerTask implements Runnable {
             } else {
                 replyText = String.format("accepting new connection of %s from %s", request.clientName, clientAddress);
 
-                ClientInfo newClientInfo = clientInfoManager.register(request.clientName, clientAddress);
+                ClientInfo newClientInfo = clientInfoManager.register(request.clientName, clientAddress,
+                        receivingShard);                    // join accept goes out of channel join came in
                 newClientInfo.setReady(false); // waiting for map fetch and client readiness confirmation
                 replyMessage = new ClientJoinAccept(newClientInfo.uniqueID.toString(), replyText);
             }
         }
 
-        channel.send(replyMessage.toBuffer(), clientAddress);
+        sendMessage(replyMessage, clientAddress);
         log(replyText);
     }
 
     private void sendServerShutdown() {
-        if (channel != null && channel.isOpen()) {      // check if network channel is up and
+        if (io.isOpen()) {                              // check if network channel is up and
             clientInfoManager.forEach((s, client) -> {  // send client a shutdown notification
                 try {
-                    channel.send(new ServerShutdownMessage("Server is exiting").toBuffer(), client.address);
+                    sendMessage(new ServerShutdownMessage("Server is exiting"), client.address);
                 } catch (Exception e) {
                     log(e.getMessage());              // log exception, if happens, without stack trace
                 }
             });
+
+            // AI workers quit too, instead of calling server that is gone
+            aiWorkerManager.forEach(worker -> sendMessage(new ServerShutdownMessage("Server is exiting"),
+                    worker.address));
         }
     }
 
@@ -591,6 +1185,10 @@ public class ServerTask implements Runnable {
         return board;
     }
 
+    public ServerIOManager getIOManager() {
+        return io;
+    }
+
     public long uptime() {
         return TimeFlow.systemTime() - timeOfStart;
     }
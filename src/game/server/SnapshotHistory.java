@@ -0,0 +1,39 @@
+package game.server;
+
+import java.util.Map;
+
+/**
+ * Ring of recent snapshots, each one is map of entity key to full state record of that entity. Server keeps one per
+ * client with snapshots it sent, client keeps one with snapshots it received, so both sides find same baseline by
+ * sequence number for as long as it's in the ring.
+ */
+public class SnapshotHistory {
+    public static final int CAPACITY = 32;                  // 3.2 seconds of state sends
+
+    private final int[] sequences = new int[CAPACITY];
+    private final Object[] snapshots = new Object[CAPACITY];
+
+    /**
+     * Stores snapshot, replacing oldest one.
+     * @param sequence snapshot sequence number, growing by one each send.
+     * @param records entity key to full state record, not copied and should not change afterwards.
+     */
+    public void put(int sequence, Map<Short, byte[]> records) {
+        int slot = Math.floorMod(sequence, CAPACITY);
+
+        sequences[slot] = sequence;
+        snapshots[slot] = records;
+    }
+
+    /**
+     * Gets snapshot by sequence number.
+     * @return records of snapshot, or null if it was never stored or it's already replaced by newer one.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Short, byte[]> get(int sequence) {
+        int slot = Math.floorMod(sequence, CAPACITY);
+        if (snapshots[slot] == null || sequences[slot] != sequence) return null;
+
+        return (Map<Short, byte[]>) snapshots[slot];
+    }
+}
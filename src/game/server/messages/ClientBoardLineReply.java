@@ -29,7 +29,9 @@ public class ClientBoardLineReply extends ServerMessageBase{
     }
 
     @Override
-    public ByteBuffer toBuffer() {
-        return make(getType(), line, lineIndex, totalCount);
+    protected void writeFields(ByteBuffer dst) {
+        putString(dst, line);
+        dst.putInt(lineIndex);
+        dst.putInt(totalCount);
     }
 }
@@ -26,7 +26,8 @@ public class ClientExitAccept extends ServerMessageBase {
     }
 
     @Override
-    public ByteBuffer toBuffer() {
-        return make(getType(), clientName, uniqueID );
+    protected void writeFields(ByteBuffer dst) {
+        putString(dst, clientName);
+        putString(dst, uniqueID);
     }
 }
@@ -28,7 +28,8 @@ public class ClientJoinAccept extends ServerMessageBase {
     }
 
     @Override
-    public ByteBuffer toBuffer() {
-        return make(getType(), uniqueID, acceptMessage);
+    protected void writeFields(ByteBuffer dst) {
+        putString(dst, uniqueID);
+        putString(dst, acceptMessage);
     }
 }
\ No newline at end of file
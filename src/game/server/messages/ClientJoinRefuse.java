@@ -24,7 +24,7 @@ public class ClientJoinRefuse extends ServerMessageBase {
     }
 
     @Override
-    public ByteBuffer toBuffer() {
-        return make(getType(),refuseMessage);
+    protected void writeFields(ByteBuffer dst) {
+        putString(dst, refuseMessage);
     }
 }
\ No newline at end of file
@@ -8,22 +8,49 @@ import java.nio.ByteBuffer;
  * Used when updating entity state of board.
  */
 public class ServerBoardStateUpdate extends ServerMessageBase {
+    public static final int NO_SNAPSHOT = -1;
+    public static final int CLIENT_KEY_OFFSET = 10;         // type, time, speed and paused come before client key
+    public static final int HEADER_SIZE = 22;
+
     private final double TIME_RESOLUTION  = 0.01;           //
 
     public final boolean paused;                            // running/paused state of board
     public final int time;                                  // this state time
     public final double speed;                              // speed state time speed
     public final short clientKey;                           // key of client so he knows his own entity
+    public final int sequence;                              // snapshot this fragment belongs to, or NO_SNAPSHOT
+    public final int baseline;                              // snapshot delta records refer to, or NO_SNAPSHOT
+    public final byte fragmentIndex;                        // fragment of snapshot, so client knows it got them all
+    public final byte fragmentCount;
     public final EntityStateFragment state;                 // state of board entities
 
+    /**
+     * Constructs update with full entity states, that is not part of any snapshot.
+     */
     public ServerBoardStateUpdate(int time, double speed, boolean paused, short clientKey, EntityStateFragment state) {
+        this(time, speed, paused, clientKey, NO_SNAPSHOT, NO_SNAPSHOT, (byte) 0, (byte) 1, state);
+    }
+
+    /**
+     * Constructs update with single fragment of snapshot, state holds delta records.
+     */
+    public ServerBoardStateUpdate(int time, double speed, boolean paused, short clientKey, int sequence,
+                                  int baseline, byte fragmentIndex, byte fragmentCount, EntityStateFragment state) {
         this.time       = time;
         this.speed      = speed;
         this.paused     = paused;
         this.clientKey  = clientKey;
+        this.sequence   = sequence;
+        this.baseline   = baseline;
+        this.fragmentIndex = fragmentIndex;
+        this.fragmentCount = fragmentCount;
         this.state      = state;
     }
 
+    public boolean isSnapshot() {
+        return sequence != NO_SNAPSHOT;
+    }
+
     public ServerBoardStateUpdate(ByteBuffer srcBuffer) {
         super(srcBuffer);
 
@@ -31,6 +58,10 @@ public class ServerBoardStateUpdate extends ServerMessageBase {
         speed       = 1.0 + srcBuffer.get() * TIME_RESOLUTION;
         paused      = srcBuffer.get() == 1;
         clientKey   = srcBuffer.getShort();
+        sequence    = srcBuffer.getInt();
+        baseline    = srcBuffer.getInt();
+        fragmentIndex = srcBuffer.get();
+        fragmentCount = srcBuffer.get();
 
         state = new EntityStateFragment(srcBuffer);
     }
@@ -42,16 +73,42 @@ public class ServerBoardStateUpdate extends ServerMessageBase {
 
     @Override
     public ByteBuffer toBuffer() {
+        ByteBuffer resultBuffer = ByteBuffer.allocate(getSize());
+
+        writeTo(resultBuffer);
+        resultBuffer.flip();
+        return resultBuffer;
+    }
+
+    public int getSize() {
+        return HEADER_SIZE + state.getSize();
+    }
+
+    /**
+     * Writes header and states, states copied once.
+     */
+    @Override
+    protected void writeFields(ByteBuffer dst) {
         byte speed_byte = (byte) ((speed - 1.0) / TIME_RESOLUTION);
 
-        final ByteBuffer headerBuffer = make(getType(), time, speed_byte, paused, clientKey);
-        final ByteBuffer stateBuffer = state.toBuffer();
+        dst.putInt(time);
+        dst.put(speed_byte);
+        putBoolean(dst, paused);
+        dst.putShort(clientKey);
+        dst.putInt(sequence);
+        dst.putInt(baseline);
+        dst.put(fragmentIndex);
+        dst.put(fragmentCount);
 
-        ByteBuffer resultBuffer = ByteBuffer.allocate(headerBuffer.limit() + stateBuffer.limit());
+        state.writeTo(dst);
+    }
 
-        resultBuffer.put(headerBuffer);
-        resultBuffer.put(stateBuffer);
-        resultBuffer.flip();
-        return resultBuffer;
+    /**
+     * Replaces client key of message already written, so same message is sent to many clients without writing it
+     * again for each one.
+     * @param buf buffer message was written to by writeTo(), position is not changed.
+     */
+    public static void patchClientKey(ByteBuffer buf, short clientKey) {
+        buf.putShort(CLIENT_KEY_OFFSET, clientKey);
     }
 }
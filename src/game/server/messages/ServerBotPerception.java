@@ -0,0 +1,85 @@
+package game.server.messages;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sent to AI worker process: compact view of board for each bot assigned to it. Bots listed are the ones worker
+ * should control, so this message is also it's assignment.
+ */
+public class ServerBotPerception extends ServerMessageBase {
+    public static final int MAX_BOTS = 32;                  // keeps message in single datagram
+    public static final short NO_TARGET = -1;
+
+    /**
+     * What single bot sees.
+     */
+    public static class Perception {
+        public final short botKey;
+        public final short x;                               // bot position, in pixels
+        public final short y;
+        public final short heading;                         // bot heading, in degrees
+        public final short targetX;                         // position of nearest tank in range, or NO_TARGET
+        public final short targetY;
+
+        public Perception(short botKey, short x, short y, short heading, short targetX, short targetY) {
+            this.botKey = botKey;
+            this.x = x;
+            this.y = y;
+            this.heading = heading;
+            this.targetX = targetX;
+            this.targetY = targetY;
+        }
+
+        public boolean hasTarget() {
+            return targetX != NO_TARGET;
+        }
+    }
+
+    public final List<Perception> perceptions;
+
+    public ServerBotPerception(List<Perception> perceptions) {
+        if (perceptions.size() > MAX_BOTS) {
+            throw new IllegalArgumentException(String.format("Can't send perception of more than %d bots", MAX_BOTS));
+        }
+
+        this.perceptions = Collections.unmodifiableList(new ArrayList<>(perceptions));
+    }
+
+    public ServerBotPerception(ByteBuffer srcBuffer) {
+        super(srcBuffer);
+
+        int count = srcBuffer.get();
+        List<Perception> list = new ArrayList<>(count);
+
+        for (int n = 0; n < count; n++) {
+            list.add(new Perception(srcBuffer.getShort(), srcBuffer.getShort(), srcBuffer.getShort(),
+                    srcBuffer.getShort(), srcBuffer.getShort(), srcBuffer.getShort()));
+        }
+
+        perceptions = Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public ServerMessageType getType() {
+        return ServerMessageType.WORKER_BOT_PERCEPTION;
+    }
+
+    @Override
+    protected void writeFields(ByteBuffer dst) {
+        dst.put((byte) perceptions.size());
+
+        for (int n = 0; n < perceptions.size(); n++) {  // indexed, so no iterator is allocated
+            Perception p = perceptions.get(n);
+
+            dst.putShort(p.botKey);
+            dst.putShort(p.x);
+            dst.putShort(p.y);
+            dst.putShort(p.heading);
+            dst.putShort(p.targetX);
+            dst.putShort(p.targetY);
+        }
+    }
+}
@@ -8,7 +8,7 @@ import java.nio.ByteBuffer;
  * This is abstract class that provides static utility methods to simplify
  * buffer writing and reading for subclasses.
  *
- * Static make() method is used by subclasses to write their data.
+ * Subclasses write their data in writeFields(), with typed put methods.
  *
  * Subclasses should carefully check that the amount and order of fields
  * read are equal to written.
@@ -25,7 +25,7 @@ public abstract class ServerMessageBase {
 
         srcBuffer.rewind(); // read from start, in case caller forgot to rewind
         // check if subclass messageType matches messageType in buffer
-        ServerMessageType type = ServerMessageType.values()[srcBuffer.getInt()];
+        ServerMessageType type = ServerMessageType.fromOrdinal(srcBuffer.getInt());
         if (getType() != type) {
             throw new IllegalArgumentException("Wrong message type in source buffer!");
         }
@@ -42,11 +42,33 @@ public abstract class ServerMessageBase {
     protected abstract ServerMessageType getType();
 
     /**
-     * Subclass should implement making of ByteBuffer. Static make() is
-     * provided to facilitate data writing.
+     * Subclass writes it's fields, in same order it's buffer constructor reads them, with typed put methods of
+     * ByteBuffer and putString() or putBoolean() below. Message type is written before by writeTo().
+     * @param dst buffer to write to.
+     */
+    protected abstract void writeFields(ByteBuffer dst);
+
+    /**
+     * Writes message into buffer provided by caller, e.g. pooled direct buffer reused for each send. Nothing is
+     * allocated, except for bytes of strings.
+     * @param dst buffer with enough room, SEND_BUFFER_MAX_SIZE is always enough.
+     */
+    public final void writeTo(ByteBuffer dst) {
+        dst.putInt(getType().ordinal());
+        writeFields(dst);
+    }
+
+    /**
+     * Writes message into new buffer. Sending code should prefer writeTo() with buffer it reuses.
      * @return ByteBuffer constructed and rewind.
      */
-    public abstract ByteBuffer toBuffer();
+    public ByteBuffer toBuffer() {
+        ByteBuffer buf = ByteBuffer.allocate(SEND_BUFFER_MAX_SIZE);
+
+        writeTo(buf);
+        buf.flip();
+        return buf;
+    }
 
     /**
      * Static method to get messageType from ByteBuffer without moving
@@ -56,84 +78,7 @@ public abstract class ServerMessageBase {
      */
     public static ServerMessageType getTypeFromBuffer(ByteBuffer buffer) {
         assert buffer != null;
-        return ServerMessageType.values()[buffer.getInt(0)];
-    }
-
-    /**
-     * This is static helper method to fill ByteBuffer with parameters provided.
-     * Parameter messageType is determined from class name constants.
-     * @param messageType mandatory messageType field
-     * @param args        variable amount of arguments
-     * @return ByteBuffer object with position = 0
-     */
-    static ByteBuffer make(ServerMessageType messageType, Object... args) {
-
-        ByteBuffer temp = ByteBuffer.allocate(SEND_BUFFER_MAX_SIZE);
-
-        temp.putInt(messageType.ordinal());
-
-        for (Object arg : args) {
-
-            String className = arg.getClass().getSimpleName();
-            switch (className) {
-                case "Long": {
-                    temp.putLong((long) arg);
-                    break;
-                }
-
-                case "Integer": {
-                    temp.putInt((int) arg);
-                    break;
-                }
-
-                case "Double": {
-                    temp.putDouble((double) arg);
-                    break;
-                }
-
-                case "Float": {
-                    temp.putFloat((float) arg);
-                    break;
-                }
-
-                case "Short": {
-                    temp.putShort((short) arg);
-                    break;
-                }
-                case "Byte": {
-                    temp.put((byte) arg);
-                    break;
-                }
-
-                case "Char": {
-                    temp.putChar((char) arg);
-                    break;
-                }
-
-                case "String": {
-                    putString(temp, (String) arg);
-                    break;
-                }
-
-                case "Boolean": {
-                    byte bool = (byte) ((boolean) arg ? 1 : 0);
-                    temp.put(bool);
-                    break;
-                }
-
-                default:{
-                    throw new IllegalArgumentException(String.format("Writing %s is not supported", arg.getClass()));
-                }
-            }
-        }
-
-        ByteBuffer result = ByteBuffer.allocate(temp.position());
-        temp.flip();
-
-        result.put(temp);
-        result.flip();
-
-        return result;
+        return ServerMessageType.fromOrdinal(buffer.getInt(0));
     }
 
     /**
@@ -141,13 +86,17 @@ public abstract class ServerMessageBase {
      * @param dst destination buffer
      * @param s string to save
      */
-    private static void putString(ByteBuffer dst, String s) {
+    static void putString(ByteBuffer dst, String s) {
         byte[] bytes = s.getBytes();
 
         dst.putInt(bytes.length);
         dst.put(bytes, 0, bytes.length);
     }
 
+    static void putBoolean(ByteBuffer dst, boolean b) {
+        dst.put((byte) (b ? 1 : 0));
+    }
+
     /**
      * Helper method to read string written with length byte by putString()
      * @param src source buffer to read from
@@ -6,5 +6,16 @@ public enum ServerMessageType {
     CLIENT_EXIT_ACCEPT,
     CLIENT_FETCH_BOARD_REPLY,
     BOARD_STATE_UPDATE,
-    SHUTDOWN_NOTIFY
+    SHUTDOWN_NOTIFY,
+    WORKER_BOT_PERCEPTION,
+    TERRAIN_UPDATE;
+
+    private static final ServerMessageType[] VALUES = values();  // values() makes new copy on each call
+
+    /**
+     * Gets constant by ordinal, as read from message, without copying array of constants.
+     */
+    public static ServerMessageType fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
 }
@@ -22,7 +22,7 @@ public class ServerShutdownMessage extends ServerMessageBase {
     }
 
     @Override
-    public ByteBuffer toBuffer() {
-        return make(getType(), message);
+    protected void writeFields(ByteBuffer dst) {
+        putString(dst, message);
     }
 }
\ No newline at end of file
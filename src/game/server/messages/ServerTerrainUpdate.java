@@ -0,0 +1,75 @@
+package game.server.messages;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sent to clients and AI workers when overlays of cells change. Each tile is position of cell and ID of it's new
+ * overlay, five bytes per cell. Server repeats changes in several messages, as any of them can be lost, and
+ * applying same tile twice changes nothing.
+ */
+public class ServerTerrainUpdate extends ServerMessageBase {
+    public static final int MAX_TILES = 64;                 // keeps message in single datagram
+
+    /**
+     * New state of single cell.
+     */
+    public static class Tile {
+        public final short row;
+        public final short col;
+        public final byte overlayID;                        // overlay IDs are single ASCII characters
+
+        public Tile(short row, short col, byte overlayID) {
+            this.row = row;
+            this.col = col;
+            this.overlayID = overlayID;
+        }
+
+        public String getOverlayID() {
+            return String.valueOf((char) overlayID);
+        }
+    }
+
+    public final List<Tile> tiles;
+
+    public ServerTerrainUpdate(List<Tile> tiles) {
+        if (tiles.size() > MAX_TILES) {
+            throw new IllegalArgumentException(String.format("Can't send more than %d tiles", MAX_TILES));
+        }
+
+        this.tiles = Collections.unmodifiableList(new ArrayList<>(tiles));
+    }
+
+    public ServerTerrainUpdate(ByteBuffer srcBuffer) {
+        super(srcBuffer);
+
+        int count = srcBuffer.get();
+        List<Tile> list = new ArrayList<>(count);
+
+        for (int n = 0; n < count; n++) {
+            list.add(new Tile(srcBuffer.getShort(), srcBuffer.getShort(), srcBuffer.get()));
+        }
+
+        tiles = Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public ServerMessageType getType() {
+        return ServerMessageType.TERRAIN_UPDATE;
+    }
+
+    @Override
+    protected void writeFields(ByteBuffer dst) {
+        dst.put((byte) tiles.size());
+
+        for (int n = 0; n < tiles.size(); n++) {        // indexed, so no iterator is allocated
+            Tile tile = tiles.get(n);
+
+            dst.putShort(tile.row);
+            dst.putShort(tile.col);
+            dst.put(tile.overlayID);
+        }
+    }
+}
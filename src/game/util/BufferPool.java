@@ -0,0 +1,53 @@
+package game.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Pool of direct buffers of same capacity. Direct buffer is handed to socket as is, while heap buffer is copied into
+ * temporary direct one by each send. Buffers are allocated once and reused, pool is not thread safe.
+ */
+public class BufferPool {
+    private final int capacity;
+    private final Deque<ByteBuffer> free = new ArrayDeque<>();
+    private int allocated;
+
+    public BufferPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Takes free buffer from pool, allocating new one if there is none.
+     * @return cleared buffer.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buf = free.poll();
+
+        if (buf == null) {
+            buf = ByteBuffer.allocateDirect(capacity);
+            allocated++;
+        }
+
+        buf.clear();
+        return buf;
+    }
+
+    /**
+     * Returns buffer to pool. Buffer should not be used by caller afterwards.
+     */
+    public void release(ByteBuffer buf) {
+        if (buf.capacity() != capacity || !buf.isDirect()) {
+            throw new IllegalArgumentException("Buffer does not belong to pool");
+        }
+
+        free.push(buf);
+    }
+
+    /**
+     * @return number of buffers allocated by pool so far.
+     */
+    public int getAllocatedCount() {
+        return allocated;
+    }
+}
@@ -0,0 +1,57 @@
+package game.util;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Packet ring filled by any number of threads. Producer claims slot by moving tail with compare and set, so
+ * producers never wait for each other, and full ring is reported instead of waited on.
+ */
+public class MpscPacketRing extends PacketRing {
+    private final AtomicLong tail = new AtomicLong();
+
+    public MpscPacketRing(int capacity, int bufferSize) {
+        super(capacity, bufferSize);
+    }
+
+    @Override
+    long getTail() {
+        return tail.get();
+    }
+
+    /**
+     * Puts datagram into ring. Producer receives into buffer of it's own, which is swapped with free buffer of
+     * slot, so datagram is not copied.
+     * @param buffer  flipped buffer with datagram, owned by ring afterwards if put.
+     * @param address address datagram came from.
+     * @param shard   index of channel datagram came from.
+     * @return free buffer producer should receive next datagram into, or null if ring is full and datagram was
+     * not put, so producer keeps it's buffer.
+     */
+    public ByteBuffer offer(ByteBuffer buffer, SocketAddress address, int shard) {
+        Slot slot;
+        long position;
+
+        while (true) {
+            position = tail.get();
+            slot = slots[(int) position & mask];
+            long sequence = slot.sequence;
+
+            if (sequence == position) {                     // slot is free, try to claim it
+                if (tail.compareAndSet(position, position + 1)) break;
+            } else if (sequence < position) {               // consumer hasn't freed slot from previous round
+                return null;
+            }                                               // else other producer claimed it, try next one
+        }
+
+        ByteBuffer free = slot.buffer;
+
+        slot.buffer = buffer;
+        slot.address = address;
+        slot.shard = shard;
+        slot.time = System.nanoTime();
+        slot.sequence = position + 1;                       // publish
+        return free;
+    }
+}
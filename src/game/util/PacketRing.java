@@ -0,0 +1,108 @@
+package game.util;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Bounded ring of datagrams passed between threads without locks. Each slot owns direct buffer, so datagrams are
+ * passed in place and nothing is allocated once ring is created. Slot is free or published by it's sequence number,
+ * which is only changed after it's fields, so consumer sees whole datagram once it sees sequence.
+ * <p>
+ * Subclasses provide producer side, single consumer takes datagrams with peek() and advance().
+ */
+public abstract class PacketRing {
+
+    /**
+     * Datagram in ring, with address it came from or goes to, shard of socket it came in or goes out of, and time
+     * it was put into ring.
+     */
+    public static final class Slot {
+        volatile long sequence;                             // slot is free at N, published at N + 1
+        ByteBuffer buffer;
+        SocketAddress address;
+        int shard;
+        long time;
+
+        Slot(long sequence, int bufferSize) {
+            this.sequence = sequence;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        public ByteBuffer getBuffer() {
+            return buffer;
+        }
+
+        public SocketAddress getAddress() {
+            return address;
+        }
+
+        /**
+         * @return index of channel datagram was received from or should be sent through.
+         */
+        public int getShard() {
+            return shard;
+        }
+
+        /**
+         * @return System.nanoTime() when datagram was put into ring.
+         */
+        public long getTime() {
+            return time;
+        }
+    }
+
+    final Slot[] slots;
+    final int mask;
+    private volatile long head;                             // written by consumer only
+
+    /**
+     * @param capacity   number of slots, rounded up to power of two.
+     * @param bufferSize bytes of buffer of each slot.
+     */
+    PacketRing(int capacity, int bufferSize) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+
+        slots = new Slot[size];
+        mask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot(i, bufferSize);
+        }
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * @return number of datagrams waiting, approximate while producers are running.
+     */
+    public int size() {
+        return (int) Math.max(0, getTail() - head);
+    }
+
+    abstract long getTail();
+
+    /**
+     * Gets oldest datagram without taking it out of ring. Called by consumer only.
+     * @return slot with datagram, valid until advance(), or null if ring is empty.
+     */
+    public Slot peek() {
+        long position = head;
+        Slot slot = slots[(int) position & mask];
+
+        return (slot.sequence == position + 1) ? slot : null;
+    }
+
+    /**
+     * Frees slot returned by last peek(), so producer can fill it again. Called by consumer only.
+     */
+    public void advance() {
+        long position = head;
+        Slot slot = slots[(int) position & mask];
+
+        slot.address = null;
+        slot.sequence = position + slots.length;            // free for producer going round once more
+        head = position + 1;
+    }
+}
@@ -0,0 +1,46 @@
+package game.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed ring of direct buffers datagrams are received into. Socket fills direct buffer as is, while heap buffer is
+ * filled through temporary direct one and copied. Buffer handed out stays untouched until ring wraps around, so
+ * caller may keep last received buffers for as long as it takes less receives than size of ring. Not thread safe.
+ */
+public class ReceiveBufferRing {
+    private final ByteBuffer[] buffers;
+    private int next;
+
+    /**
+     * @param size     number of buffers in ring.
+     * @param capacity bytes of each buffer, should be larger than any datagram expected, so truncated datagram
+     *                 can be told by buffer filled up.
+     */
+    public ReceiveBufferRing(int size, int capacity) {
+        buffers = new ByteBuffer[size];
+
+        for (int i = 0; i < size; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(capacity);
+        }
+    }
+
+    /**
+     * Takes next buffer of ring, replacing oldest one handed out.
+     * @return cleared buffer.
+     */
+    public ByteBuffer next() {
+        ByteBuffer buf = buffers[next];
+
+        next = (next + 1) % buffers.length;
+        buf.clear();
+        return buf;
+    }
+
+    /**
+     * Checks if datagram received into buffer of ring was cut short, socket drops bytes that don't fit silently.
+     * @param buf flipped buffer.
+     */
+    public static boolean isTruncated(ByteBuffer buf) {
+        return buf.limit() == buf.capacity();
+    }
+}
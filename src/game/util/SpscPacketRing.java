@@ -0,0 +1,51 @@
+package game.util;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Packet ring filled by single thread. Producer writes datagram straight into buffer of claimed slot and publishes
+ * it, no compare and set is needed.
+ */
+public class SpscPacketRing extends PacketRing {
+    private volatile long tail;                             // written by producer only
+
+    public SpscPacketRing(int capacity, int bufferSize) {
+        super(capacity, bufferSize);
+    }
+
+    @Override
+    long getTail() {
+        return tail;
+    }
+
+    /**
+     * Gets buffer of next free slot to write datagram into. Called by producer only.
+     * @return cleared buffer, or null if ring is full.
+     */
+    public ByteBuffer claim() {
+        long position = tail;
+        Slot slot = slots[(int) position & mask];
+
+        if (slot.sequence != position) return null;         // consumer hasn't freed slot from previous round
+
+        slot.buffer.clear();
+        return slot.buffer;
+    }
+
+    /**
+     * Publishes datagram written into buffer returned by claim(). Called by producer only.
+     * @param address address to send datagram to.
+     * @param shard   index of channel to send datagram through.
+     */
+    public void publish(SocketAddress address, int shard) {
+        long position = tail;
+        Slot slot = slots[(int) position & mask];
+
+        slot.address = address;
+        slot.shard = shard;
+        slot.time = System.nanoTime();
+        slot.sequence = position + 1;
+        tail = position + 1;
+    }
+}
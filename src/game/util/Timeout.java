@@ -1,36 +1,57 @@
 package game.util;
 
+import java.util.function.LongSupplier;
+
 /**
  * Utility class used to check for timeout happened.
  */
 public class Timeout {
+    private final LongSupplier timeSource;                  // current time in milliseconds
     private long timeoutTime;
     private long startTime;
     private long runningTime;
 
     /**
-     * Constructs timeout class
+     * Constructs timeout class using system time
      * @param timeoutTime amount of time in milliseconds before timeout
      */
     public Timeout(final long timeoutTime) {
+        this(timeoutTime, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructs timeout class using time source given, e.g. board logic time
+     * @param timeoutTime amount of time in milliseconds before timeout
+     * @param timeSource supplier of current time in milliseconds
+     */
+    public Timeout(final long timeoutTime, final LongSupplier timeSource) {
         if (timeoutTime <= 0.0) {
             throw new IllegalArgumentException("Timeout must be greater than zero!");
         }
 
+        this.timeSource = timeSource;
         this.timeoutTime = timeoutTime;
-        this.startTime = System.currentTimeMillis();
+        this.startTime = timeSource.getAsLong();
     }
 
     public void reset() {
-        startTime = System.currentTimeMillis();
+        startTime = timeSource.getAsLong();
+    }
+
+    /**
+     * Resets timeout as if it was started earlier, so timeouts created at same moment do not occur together.
+     * @param phaseMillis amount of time in milliseconds to shift start back by.
+     */
+    public void reset(long phaseMillis) {
+        startTime = timeSource.getAsLong() - phaseMillis;
     }
 
     /**
-     * Checks for timeout occurrence by using system time source.
+     * Checks for timeout occurrence by using time source given on construction.
      * @return true if amount of time passed is greater than timeout or false otherwise.
      */
     public boolean occurred() {
-        return occurred(System.currentTimeMillis());
+        return occurred(timeSource.getAsLong());
     }
 
     /**
@@ -43,6 +64,14 @@ public class Timeout {
         return runningTime > timeoutTime;
     }
 
+    /**
+     * Gets how late timeout is, measured at last occurred() call.
+     * @return amount of time in milliseconds passed since timeout, or 0 if it has not occurred.
+     */
+    public long getOverdueTime() {
+        return Math.max(runningTime - timeoutTime, 0);
+    }
+
     public Double getProgress() {
         return Math.min(runningTime / timeoutTime, 1.0);
     }
@@ -8,7 +8,10 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import static game.util.Debug.log;
 
@@ -24,11 +27,28 @@ public class Board {
     private final ConcurrentHashMap<Short, Entity> activeEntities = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<Short, Entity> inactiveEntities = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<Short, Entity> newEntities = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Short, Long> registrationOrder = new ConcurrentHashMap<>();
 
     private final List<String> rawLines = new ArrayList<>();
     private final List<SpawnPoint> spawnPoints = new ArrayList<>();
     private final BoardCell[][] cells;
-    private PathFinder pathFinder;
+    private final int[] mapLineIndexes;                     // per row: index of map line in raw lines
+    private final List<BoardCell> terrainChanges = new ArrayList<>();  // cells which overlay changed, in order
+    private final SpawnPointIndex spawnPointIndex;
+    private final Deque<BooleanSupplier> pendingSpawns = new ArrayDeque<>();  // waiting for free spawn point, in order
+    private PathFinderType pathFinderType = PathFinderType.A_STAR;
+    private PathSearch pathFinder;
+    private FlowFieldManager flowFields;
+    private AIScheduler aiScheduler;
+    private ProximitySensorManager proximitySensors;
+    private InfluenceMap influenceMap;
+    private LagCompensationManager lagCompensation;
+    private ProjectileSystem projectiles;
+    private GameEventBus eventBus;
+    private PotentiallyVisibleSet visibleSet;
+    private boolean deterministic;                          // seeded, logic-time-only, stable update order
+    private long logicTime;                                 // number of update() calls, one per logic millisecond
+    private long registrationCount;                         // sequence of registrations, for stable update order
 
     /**
      * Constructor is hidden in favour of static factories
@@ -83,6 +103,7 @@ public class Board {
         }
 
         cells = createOfSize(total_rows, total_cols);
+        mapLineIndexes = new int[total_rows];
 
         int map_row = 0;
         // continue parsing map token
@@ -109,6 +130,7 @@ public class Board {
                 setCell(map_row, col, new BoardCell(tileID, overlayID, map_row, col));
             }
 
+            mapLineIndexes[map_row] = lineNumber;
             map_row++;
         }
 
@@ -117,6 +139,7 @@ public class Board {
         }
 
         rawLines.addAll(lines);
+        spawnPointIndex = new SpawnPointIndex(this, spawnPoints);
     }
 
     /**
@@ -179,15 +202,275 @@ public class Board {
         return Board.fromList(list);
     }
 
-    public PathFinder getPathFinder() {
-        // lazily initializing single instance of A* pathfinder
+    /**
+     * Seeds board random generator, used for spawn position choice.
+     *
+     * @param seed random seed.
+     */
+    public void setRandomSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * Gets random generator shared by everything on this board, so seeding board makes whole simulation repeatable.
+     *
+     * @return board random generator.
+     */
+    public Random getRandom() {
+        return random;
+    }
+
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /**
+     * Switches board into deterministic mode: entities are updated in order of registration, AI uses logic time
+     * instead of system time, and AI scheduler limits number of decisions per tick instead of time spent on them.
+     * Must be switched before entities are registered.
+     *
+     * @param seed random seed.
+     */
+    public void setDeterministic(long seed) {
+        deterministic = true;
+        setRandomSeed(seed);
+    }
+
+    /**
+     * @return number of update() calls, one per logic millisecond.
+     */
+    public long getLogicTime() {
+        return logicTime;
+    }
+
+    /**
+     * Gets current time for time-based decisions of entities on this board.
+     *
+     * @return logic time in deterministic mode or system time otherwise, in milliseconds.
+     */
+    public long getTime() {
+        return deterministic ? logicTime : System.currentTimeMillis();
+    }
+
+    /**
+     * Calculates hash of state of all entities in update order, so two runs can be compared tick by tick. Entity
+     * keys are not hashed, since they are unique in scope of the process and not of a board.
+     *
+     * @return 64-bit state hash.
+     */
+    public long getStateHash() {
+        long hash = 0xcbf29ce484222325L;                    // FNV-1a offset basis
+
+        for (Entity e : getEntitiesInUpdateOrder()) {
+            hash = hashMix(hash, e.getClass().getName().hashCode());
+
+            if (e instanceof Positionable) {
+                Positionable p = (Positionable) e;
+                hash = hashMix(hash, Double.doubleToLongBits(p.getX()));
+                hash = hashMix(hash, Double.doubleToLongBits(p.getY()));
+                hash = hashMix(hash, Double.doubleToLongBits(p.getHeading()));
+            }
+
+            if (e instanceof Moveable) {
+                hash = hashMix(hash, Double.doubleToLongBits(((Moveable) e).getMoveSpeed()));
+            }
+
+            if (e instanceof Destructible) {
+                hash = hashMix(hash, ((Destructible) e).getHitPoints());
+            }
+        }
+
+        return hash;
+    }
+
+    private static long hashMix(long hash, long value) {
+        return (hash ^ value) * 0x100000001b3L;             // FNV-1a prime
+    }
+
+    /**
+     * Gets active entities in order they should be updated: order of registration in deterministic mode, otherwise
+     * order of keys, which is stable for snapshot but not across runs.
+     */
+    private List<Entity> getEntitiesInUpdateOrder() {
+        List<Entity> entities = new ArrayList<>(activeEntities.values());
+
+        if (deterministic) {
+            entities.sort(Comparator.comparingLong(e -> registrationOrder.getOrDefault(e.getKey(), Long.MAX_VALUE)));
+        } else {
+            entities.sort(Comparator.comparingInt(Entity::getKey));
+        }
+
+        return entities;
+    }
+
+    public PathSearch getPathFinder() {
+        // lazily initializing single instance of selected pathfinder
         if (pathFinder == null) {
-            pathFinder = new PathFinder(this);
+            switch (pathFinderType) {
+                case JUMP_POINT: {
+                    pathFinder = new JumpPointPathFinder(this);
+                    break;
+                }
+                default: {
+                    pathFinder = new PathFinder(this);
+                }
+            }
         }
 
         return pathFinder;
     }
 
+    public FlowFieldManager getFlowFields() {
+        // lazily initializing flow fields shared by entities pursuing same target
+        if (flowFields == null) {
+            flowFields = new FlowFieldManager(this);
+        }
+
+        return flowFields;
+    }
+
+    public AIScheduler getAIScheduler() {
+        // lazily initializing scheduler shared by all bots on this board
+        if (aiScheduler == null) {
+            aiScheduler = new AIScheduler(this);
+        }
+
+        return aiScheduler;
+    }
+
+    public ProximitySensorManager getProximitySensors() {
+        // lazily initializing, boards without sensors do not pay for cell transfer events
+        if (proximitySensors == null) {
+            proximitySensors = new ProximitySensorManager(this);
+        }
+
+        return proximitySensors;
+    }
+
+    /**
+     * Called by entity each time it moves to another cell, or on or off board.
+     *
+     * @param from previous cell or null if entity was off board.
+     * @param to new cell or null if entity left board.
+     */
+    public void entityCellChanged(Positionable entity, BoardCell from, BoardCell to) {
+        spawnPointIndex.entityMoved(entity, from, to);
+
+        if (influenceMap != null) {
+            influenceMap.entityMoved(entity, from, to);
+        }
+
+        if (proximitySensors != null) {
+            proximitySensors.entityMoved(entity, from, to);
+        }
+
+        if (projectiles != null) {
+            projectiles.entityMoved(entity, from, to);
+        }
+    }
+
+    /**
+     * Called by entity each time it takes damage.
+     *
+     * @param amount hit points taken.
+     * @param sourceKey key of entity that caused damage, or 0 if unknown.
+     */
+    public void entityDamaged(Positionable entity, int amount, short sourceKey) {
+        if (influenceMap != null && entity.getCell() != null) {
+            influenceMap.entityDamaged(entity.getCell(), amount);
+        }
+
+        publishEvent(GameEventType.DAMAGE_TAKEN, entity, sourceKey, amount);
+    }
+
+    /**
+     * Called by entity when it loses last hit points.
+     *
+     * @param sourceKey key of entity that caused last damage, or 0 if unknown.
+     */
+    public void entityDestroyed(Positionable entity, short sourceKey) {
+        publishEvent(GameEventType.ENTITY_DESTROYED, entity, sourceKey, 0);
+    }
+
+    /**
+     * Called by cannon each time it fires.
+     *
+     * @param shooter entity cannon belongs to.
+     * @param bullet bullet fired.
+     */
+    public void entityFired(Positionable shooter, Positionable bullet) {
+        publishEvent(GameEventType.SHOT_FIRED, bullet, shooter.getKey(), 0);
+    }
+
+    public GameEventBus getEventBus() {
+        // lazily initializing, events are published only when someone is going to read them
+        if (eventBus == null) {
+            eventBus = new GameEventBus(GameEventBus.DEFAULT_CAPACITY);
+        }
+
+        return eventBus;
+    }
+
+    private void publishEvent(GameEventType type, Positionable entity, short sourceKey, int amount) {
+        if (eventBus != null) {
+            eventBus.publish(type, logicTime, entity.indexOfClass(), entity.getKey(), sourceKey, amount,
+                    entity.getX(), entity.getY());
+        }
+    }
+
+    public ProjectileSystem getProjectiles() {
+        // lazily initializing, bullets are batched only on board that fires them
+        if (projectiles == null) {
+            projectiles = new ProjectileSystem(this);
+        }
+
+        return projectiles;
+    }
+
+    public LagCompensationManager getLagCompensation() {
+        // lazily initializing, only server board records position history
+        if (lagCompensation == null) {
+            lagCompensation = new LagCompensationManager(this, LagCompensationManager.DEFAULT_MAX_REWIND);
+        }
+
+        return lagCompensation;
+    }
+
+    public PotentiallyVisibleSet getPotentiallyVisibleSet() {
+        // lazily initializing, only server culls network updates by visibility
+        if (visibleSet == null) {
+            visibleSet = new PotentiallyVisibleSet(this);
+        }
+
+        return visibleSet;
+    }
+
+    public InfluenceMap getInfluenceMap() {
+        // lazily initializing, map counts entities already on board when created
+        if (influenceMap == null) {
+            influenceMap = new InfluenceMap(this);
+        }
+
+        return influenceMap;
+    }
+
+    public PathFinderType getPathFinderType() {
+        return pathFinderType;
+    }
+
+    /**
+     * Selects path finding algorithm used by this board. Jump point search is valid only while move cost is uniform
+     * and diagonal movement is not allowed, which is the case for all our maps.
+     *
+     * @param pathFinderType algorithm to use on next getPathFinder() call.
+     */
+    public void setPathFinderType(PathFinderType pathFinderType) {
+        if (this.pathFinderType != pathFinderType) {
+            this.pathFinderType = pathFinderType;
+            this.pathFinder = null;
+        }
+    }
+
     public List<SpawnPoint> getSpawnPointsUnmodifiable() {
         return Collections.unmodifiableList(spawnPoints);
     }
@@ -227,6 +510,67 @@ public class Board {
         cells[row][col] = cell;
     }
 
+    /**
+     * Called by bullet each time it hits obstacle cell. Destructible overlay loses hit points, and once it has none
+     * left it's removed, leaving bare ground of cell.
+     *
+     * @param amount hit points taken.
+     */
+    public void cellDamaged(BoardCell cell, int amount) {
+        if (cell.damageOverlay(amount)) {
+            setCellOverlay(cell, DEFAULT_OVERLAY_TILE_ID);
+        }
+    }
+
+    /**
+     * Replaces overlay of cell and repairs everything derived from it around that cell only: cell obstacle bounds,
+     * path finder tables, flow fields and visible sets. Map line of row is rewritten as well, so clients joining
+     * later fetch current terrain. Client boards call it with tile updates received from server.
+     *
+     * @param overlayID ID of new overlay.
+     */
+    public void setCellOverlay(BoardCell cell, String overlayID) {
+        TileOverlay overlay = Resources.getOverlayType(overlayID);
+        if (cell.getOverlay() == overlay) return;
+
+        cell.setOverlay(overlay);
+        terrainChanges.add(cell);
+
+        // first column of map line is ruler, so cell tokens are shifted by one
+        String[] rowCells = rawLines.get(mapLineIndexes[cell.row]).trim().split("\\s+");
+        rowCells[cell.col + 1] = overlay.ID + cell.ground.ID;
+        rawLines.set(mapLineIndexes[cell.row], String.join(" ", rowCells));
+
+        if (pathFinder != null) {
+            pathFinder.cellChanged(cell);
+        }
+
+        if (flowFields != null) {
+            flowFields.cellChanged(cell);
+        }
+
+        if (visibleSet != null) {
+            visibleSet.cellChanged(cell);
+        }
+    }
+
+    /**
+     * Gets number of overlay changes so far. Used as version of terrain by those who keep their own copy of it.
+     */
+    public int getTerrainVersion() {
+        return terrainChanges.size();
+    }
+
+    /**
+     * Gets cells which overlay changed since given terrain version, in order of changes.
+     *
+     * @param version terrain version last seen.
+     * @return list of cells, cell changed more than once is listed each time.
+     */
+    public List<BoardCell> getTerrainChangesSince(int version) {
+        return Collections.unmodifiableList(terrainChanges.subList(version, terrainChanges.size()));
+    }
+
     public List<String> getRowsUnmodifiable() {
         return Collections.unmodifiableList(rawLines);
     }
@@ -268,13 +612,30 @@ public class Board {
         player.setOrderedHeading(player.getHeading());
 
         registerEntity(player);
+        publishEvent(GameEventType.SPAWNED, player, (short) 0, 0);
 
         return player;
     }
 
     public void update() {
 
-        for (Entity e : activeEntities.values()) {
+        if (aiScheduler != null) {
+            aiScheduler.beginTick();                        // each tick gets it's own AI time budget
+        }
+
+        logicTime++;
+
+        processPendingSpawns();
+
+        if (projectiles != null) {
+            projectiles.update();                           // bullets move before entities they may hit
+        }
+
+        // concurrent map iteration order depends on keys and on entities added while iterating
+        Collection<Entity> entities = deterministic ? getEntitiesInUpdateOrder() : activeEntities.values();
+
+        for (Entity e : entities) {
+            if (deterministic && !activeEntities.containsKey(e.getKey())) continue;
 
             e.update();
 
@@ -289,6 +650,10 @@ public class Board {
             }
         }
 
+        if (lagCompensation != null) {
+            lagCompensation.record();                       // positions after this tick, for rewinding later
+        }
+
     }
 
     public void removeActiveEntity(short key) {
@@ -305,10 +670,12 @@ public class Board {
                 int row = BoardCell.yToRow(p.getY());
                 int col = BoardCell.xToCol(p.getX());
                 getCell(row, col).removeEntity(p);
+                entityCellChanged(p, getCell(row, col), null);
             }
         }
 
         activeEntities.remove(e.getKey());                  // remove from global list
+        registrationOrder.remove(e.getKey());
     }
 
     private void registerInactiveEntity(Entity e) {
@@ -327,6 +694,10 @@ public class Board {
     public short registerEntity(Entity e) {
         activeEntities.put(e.getKey(), e);
 
+        if (deterministic) {
+            registrationOrder.put(e.getKey(), registrationCount++);
+        }
+
         if (e.isMaster()) {
             newEntities.put(e.getKey(), e);
         }
@@ -348,41 +719,72 @@ public class Board {
         bot.setOrderedHeading(bot.getHeading());
 
         registerEntity(bot);
+        publishEvent(GameEventType.SPAWNED, bot, (short) 0, 0);
+
         return bot;
     }
 
-    private Point getRandomFreeSpawnPos() {
-        // number of attempts equals to number of spawn points
-        for (int i = 0; i < spawnPoints.size(); i++) {
-            // copy to temp list as we will delete inappropriate & occupied spawn points
-            List<SpawnPoint> spawnPointsAvailable = new ArrayList<>(spawnPoints);
-
-            // get random from list of available spawn points
-            SpawnPoint randomSpawnPoint = spawnPointsAvailable.get(random.nextInt(spawnPointsAvailable.size()));
-
-            // check if selected Spawn Point is not occupied:
-            // get cell bounds - i will use it ti check if other entities around block entire cell or it's part
-            Bounds spawnPointBounds = Bounds.fromBoardCell(randomSpawnPoint.row, randomSpawnPoint.col);
-
-            // get list entities in cells around
-            // get list of collidable in cells around
-            // and test if any of them collides with spawnPointCellBounds
-            List<Entity> entitiesAround = getEntitiesAround(randomSpawnPoint.getPos(), 1);
-            List<Bounds> obstaclesAround = new ArrayList<>();
-
-            for (Entity entity : entitiesAround) {
-                if (entity instanceof Collidable) obstaclesAround.add(((Collidable) entity).getBounds());
-            }
+    /**
+     * Spawns player now or, if all spawn points are busy, as soon as one gets free. Requests are served in order.
+     *
+     * @param uniqueID universally unique identifier.
+     * @param onSpawned called with player object once it's spawned.
+     * @return cancels request if it's still waiting, does nothing once player is spawned.
+     */
+    public Runnable requestPlayerSpawn(UUID uniqueID, Consumer<Entity> onSpawned) {
+        return requestSpawn(() -> spawnPlayer(uniqueID), onSpawned);
+    }
 
-            if (spawnPointBounds.overlap(obstaclesAround)) {
-                spawnPointsAvailable.remove(randomSpawnPoint);
-                continue;
-            }
+    /**
+     * Spawns enemy now or, if all spawn points are busy, as soon as one gets free. Requests are served in order.
+     *
+     * @param uniqueID universally unique identifier.
+     * @param onSpawned called with enemy object once it's spawned.
+     * @return cancels request if it's still waiting, does nothing once enemy is spawned.
+     */
+    public Runnable requestEnemySpawn(UUID uniqueID, Consumer<Enemy> onSpawned) {
+        return requestSpawn(() -> spawnEnemy(uniqueID), onSpawned);
+    }
+
+    public int getPendingSpawnCount() {
+        return pendingSpawns.size();
+    }
+
+    public boolean hasFreeSpawnPoint() {
+        return spawnPointIndex.hasFree();
+    }
+
+    private <T extends Entity> Runnable requestSpawn(Supplier<T> spawn, Consumer<? super T> onSpawned) {
+        BooleanSupplier attempt = () -> {
+            T entity = spawn.get();
+            if (entity == null) return false;
 
-            return new Point(randomSpawnPoint.getPosX(), randomSpawnPoint.getPosY());
+            onSpawned.accept(entity);
+            return true;
+        };
+
+        // don't overtake requests already waiting
+        if (!pendingSpawns.isEmpty() || !attempt.getAsBoolean()) {
+            pendingSpawns.addLast(attempt);
         }
 
-        return null;
+        return () -> pendingSpawns.remove(attempt);
+    }
+
+    private void processPendingSpawns() {
+        while (!pendingSpawns.isEmpty() && spawnPointIndex.hasFree()) {
+            if (!pendingSpawns.peekFirst().getAsBoolean()) break;
+            pendingSpawns.removeFirst();
+        }
+    }
+
+    private Point getRandomFreeSpawnPos() {
+        // index holds spawn points without tanks in cells around, so any of them is free
+        SpawnPoint spawnPoint = spawnPointIndex.getRandomFree(random);
+
+        if (spawnPoint == null) return null;
+
+        return new Point(spawnPoint.getPosX(), spawnPoint.getPosY());
     }
 
     public List<Entity> getEntitiesAround(Point pos, int cellsAway) {
@@ -416,6 +818,149 @@ public class Board {
         return entitiesAround;
     }
 
+    /**
+     * Finds up to k entities of given type closest to position. Cell rings around position are searched outwards,
+     * and search stops as soon as no farther ring can hold anything closer than already found.
+     *
+     * @param pos position to search around.
+     * @param type class of entities to find.
+     * @param k maximum number of entities to find.
+     * @param maxDistance entities must be closer than this distance.
+     * @param condition additional filter, e.g. to exclude searching entity itself.
+     * @return entities ordered by distance, closest first.
+     */
+    public <T extends Positionable> List<T> getNearest(Point pos, Class<T> type, int k, double maxDistance,
+                                                       Predicate<? super T> condition) {
+        final List<T> found = new ArrayList<>(k);
+        final List<Double> distances = new ArrayList<>(k);
+        final List<BoardCell> ringCells = new ArrayList<>();
+
+        double bound = maxDistance;                         // distance found entities must be closer than
+
+        for (int ring = 0; ring <= getMaxRing(maxDistance); ring++) {
+            // position is somewhere in center cell, so ring cells are at least (ring - 1) cells away from it
+            if ((ring - 1) * BoardCell.CELL_SIZE >= bound) break;
+
+            for (BoardCell cell : getCellRing(pos, ring, ringCells)) {
+                for (Entity entity : cell.getEntitiesUnmodifiable()) {
+                    if (!type.isInstance(entity)) continue;
+
+                    T candidate = type.cast(entity);
+                    double distance = candidate.getDistanceTo(pos);
+                    if (distance >= bound || !condition.test(candidate)) continue;
+
+                    // insertion into short sorted list, k is expected to be small
+                    int index = 0;
+                    while (index < distances.size() && distances.get(index) <= distance) index++;
+
+                    found.add(index, candidate);
+                    distances.add(index, distance);
+
+                    if (found.size() > k) {
+                        found.remove(k);
+                        distances.remove(k);
+                    }
+
+                    if (found.size() == k) {
+                        bound = distances.get(k - 1);
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Finds entities of given type within radius.
+     *
+     * @param pos center of search circle.
+     * @param radius search radius, inclusive.
+     * @param type class of entities to find.
+     * @return entities ordered by cell rings, closer rings first.
+     */
+    public <T extends Positionable> List<T> getWithinRadius(Point pos, double radius, Class<T> type) {
+        return getWithinCone(pos, 0, 180, radius, type);
+    }
+
+    /**
+     * Finds entities of given type within circular sector.
+     *
+     * @param pos apex of the cone.
+     * @param heading direction of cone axis.
+     * @param halfAngle maximum heading difference from axis, in degrees. 180 makes full circle.
+     * @param range cone length, inclusive.
+     * @param type class of entities to find.
+     * @return entities ordered by cell rings, closer rings first.
+     */
+    public <T extends Positionable> List<T> getWithinCone(Point pos, double heading, double halfAngle, double range,
+                                                          Class<T> type) {
+        final List<T> found = new ArrayList<>();
+        final List<BoardCell> ringCells = new ArrayList<>();
+
+        for (int ring = 0; ring <= getMaxRing(range); ring++) {
+            if ((ring - 1) * BoardCell.CELL_SIZE > range) break;
+
+            for (BoardCell cell : getCellRing(pos, ring, ringCells)) {
+                for (Entity entity : cell.getEntitiesUnmodifiable()) {
+                    if (!type.isInstance(entity)) continue;
+
+                    T candidate = type.cast(entity);
+                    double distance = candidate.getDistanceTo(pos);
+                    if (distance > range) continue;
+
+                    if (halfAngle < 180 && distance > 0) {
+                        double delta = MoveableEntity.getHeadingDelta(heading, pos.getHeadingTo(candidate.getPos()));
+                        if (Math.abs(delta) > halfAngle) continue;
+                    }
+
+                    found.add(candidate);
+                }
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * Gets number of cell rings needed to cover distance, limited by board size.
+     */
+    private int getMaxRing(double distance) {
+        int rings = (int) Math.ceil(distance / BoardCell.CELL_SIZE) + 1;
+        return Math.min(rings, Math.max(getRowCount(), getColCount()));
+    }
+
+    /**
+     * Collects cells exactly ring cells away (in both row and column sense) from cell at position.
+     *
+     * @param cells list to reuse, it is cleared first.
+     * @return same list filled with cells in board limits.
+     */
+    private List<BoardCell> getCellRing(Point pos, int ring, List<BoardCell> cells) {
+        cells.clear();
+
+        final int thisRow = BoardCell.yToRow(pos.y);
+        final int thisCol = BoardCell.xToCol(pos.x);
+
+        for (int col = thisCol - ring; col <= thisCol + ring; col++) {
+            addCellIfInBounds(thisRow - ring, col, cells);
+            if (ring > 0) addCellIfInBounds(thisRow + ring, col, cells);
+        }
+
+        for (int row = thisRow - ring + 1; row <= thisRow + ring - 1; row++) {
+            addCellIfInBounds(row, thisCol - ring, cells);
+            addCellIfInBounds(row, thisCol + ring, cells);
+        }
+
+        return cells;
+    }
+
+    private void addCellIfInBounds(int row, int col, List<BoardCell> cells) {
+        if (row >= 0 && col >= 0 && row < getRowCount() && col < getColCount()) {
+            cells.add(getCell(row, col));
+        }
+    }
+
     public Collection<Entity> getActiveEntitiesUnmodifiable() {
         return Collections.unmodifiableCollection(activeEntities.values());
     }
@@ -15,18 +15,50 @@ public class BoardCell {
     public static final int CELL_SIZE = 32;
 
     public final TileGround ground;
-    public final TileOverlay overlay;
     public final int col;
     public final int row;
 
     private final LinkedHashSet<Entity> entities = new LinkedHashSet<>();
+    private TileOverlay overlay;                            // replaced when destructible overlay is destroyed
+    private int overlayHitPoints;                           // damage destructible overlay can take yet
+    private Bounds obstacleBounds;                          // parsed once per overlay change
 
     public BoardCell(String groundID, String overlayID, int row, int col) {
         this.row = row;
         this.col = col;
 
         this.ground = Resources.getGroundType(groundID);
-        this.overlay = Resources.getOverlayType(overlayID);
+        setOverlay(Resources.getOverlayType(overlayID));
+    }
+
+    public TileOverlay getOverlay() {
+        return overlay;
+    }
+
+    public int getOverlayHitPoints() {
+        return overlayHitPoints;
+    }
+
+    /**
+     * Replaces overlay, restoring it's hit points. Board takes care of telling path finders about it.
+     * @param overlay new overlay.
+     */
+    void setOverlay(TileOverlay overlay) {
+        this.overlay = overlay;
+        this.overlayHitPoints = overlay.isDestructible() ? TileOverlay.DESTRUCTIBLE_HIT_POINTS : 0;
+        this.obstacleBounds = parseObstacleBounds();
+    }
+
+    /**
+     * Takes hit points from destructible overlay.
+     * @param amount damage taken.
+     * @return true if overlay has no hit points left.
+     */
+    boolean damageOverlay(int amount) {
+        if (!overlay.isDestructible()) return false;
+
+        overlayHitPoints = Math.max(0, overlayHitPoints - amount);
+        return overlayHitPoints == 0;
     }
 
     @Override
@@ -45,6 +77,10 @@ public class BoardCell {
      * @return obstacle bounds or null if cell has no obstacle.
      */
     public Bounds getObstacleBounds() {
+        return obstacleBounds;
+    }
+
+    private Bounds parseObstacleBounds() {
         if ( ground.isMoveObstacle() ) {
             // return full cell as obstacle
             return Bounds.fromBoardCell(row, col);
@@ -147,6 +147,37 @@ public class Bounds {
         return Math.abs(x2 - x1);
     }
 
+    /**
+     * Checks if line segment crosses bounds, clipping segment by each axis in turn.
+     *
+     * @return true if any part of segment is inside of bounds.
+     */
+    public boolean intersectsSegment(double ax, double ay, double bx, double by) {
+        double t0 = 0;
+        double t1 = 1;
+        double[] p = {ax - bx, bx - ax, ay - by, by - ay};
+        double[] q = {ax - getX(), getX() + getWidth() - ax, ay - getY(), getY() + getHeight() - ay};
+
+        for (int i = 0; i < 4; i++) {
+            if (p[i] == 0) {
+                if (q[i] < 0) return false;                 // parallel to this side and outside of it
+                continue;
+            }
+
+            double t = q[i] / p[i];
+
+            if (p[i] < 0) {
+                t0 = Math.max(t0, t);
+            } else {
+                t1 = Math.min(t1, t);
+            }
+
+            if (t0 > t1) return false;
+        }
+
+        return true;
+    }
+
     public Bounds centered(double center_x, double center_y) {
         return fromBoundsCentered(this, center_x, center_y);
     }
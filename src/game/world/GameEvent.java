@@ -0,0 +1,23 @@
+package game.world;
+
+/**
+ * Single event read from GameEventBus. Cursor fills the same instance for each event it reads, so reading does not
+ * create garbage.
+ */
+public final class GameEvent {
+    public long sequence;                                   // number of event, counting from first published
+    public GameEventType type;
+    public long time;                                       // board logic time of event
+    public byte classIndex;                                 // type of entity, see Resources.ofIndex()
+    public short entityKey;
+    public short sourceKey;                                 // entity that caused event, or 0 if unknown
+    public int amount;                                      // hit points taken, for damage events
+    public int x;                                           // position of entity, in pixels
+    public int y;
+
+    @Override
+    public String toString() {
+        return String.format("GameEvent{%d %s at %d: entity %d of class %d, source %d, amount %d at %d,%d}",
+                sequence, type, time, entityKey, classIndex, sourceKey, amount, x, y);
+    }
+}
@@ -0,0 +1,159 @@
+package game.world;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Preallocated ring buffer of board events. Board publishes from it's update thread, and any number of consumers
+ * read at their own pace, each with it's own cursor. Publisher never waits for consumers: consumer that falls more
+ * than capacity behind loses oldest events and is told how many.
+ * <p>
+ * Each event is a fixed number of int fields in one array, so publishing does not create garbage. Fields are
+ * atomic, so consumer can tell event was overwritten while it was reading it by checking publish count afterwards.
+ */
+public class GameEventBus {
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final int TYPE = 0;                      // field offsets inside of event record
+    private static final int CLASS_INDEX = 1;
+    private static final int ENTITY_KEY = 2;
+    private static final int SOURCE_KEY = 3;
+    private static final int AMOUNT = 4;
+    private static final int X = 5;
+    private static final int Y = 6;
+    private static final int FIELDS = 7;
+
+    private static final GameEventType[] TYPES = GameEventType.values();
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicIntegerArray fields;
+    private final AtomicLongArray times;
+    private final AtomicLong published = new AtomicLong();  // number of events published so far
+
+    /**
+     * @param capacity number of events kept, rounded up to power of two.
+     */
+    public GameEventBus(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+
+        this.capacity = size;
+        this.mask = size - 1;
+        this.fields = new AtomicIntegerArray(size * FIELDS);
+        this.times = new AtomicLongArray(size);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    /**
+     * Publishes event. Must be called from single thread, the one updating board.
+     */
+    public void publish(GameEventType type, long time, byte classIndex, short entityKey, short sourceKey, int amount,
+                        double x, double y) {
+        long sequence = published.get();
+        int slot = (int) (sequence & mask);
+        int base = slot * FIELDS;
+
+        fields.set(base + TYPE, type.ordinal());
+        fields.set(base + CLASS_INDEX, classIndex);
+        fields.set(base + ENTITY_KEY, entityKey);
+        fields.set(base + SOURCE_KEY, sourceKey);
+        fields.set(base + AMOUNT, amount);
+        fields.set(base + X, (int) x);
+        fields.set(base + Y, (int) y);
+        times.set(slot, time);
+
+        published.set(sequence + 1);                        // consumers can read it from now on
+    }
+
+    /**
+     * Creates cursor that reads events published from now on.
+     */
+    public Cursor newCursor() {
+        return new Cursor(published.get());
+    }
+
+    /**
+     * Reading position of single consumer. Cursor must be used by one thread at a time, different cursors can be
+     * used by different threads.
+     */
+    public final class Cursor {
+        private final GameEvent event = new GameEvent();
+        private long next;                                  // sequence of next event to read
+        private long missedCount;                           // events overwritten before they were read
+
+        private Cursor(long next) {
+            this.next = next;
+        }
+
+        public long getSequence() {
+            return next;
+        }
+
+        public long getMissedCount() {
+            return missedCount;
+        }
+
+        /**
+         * @return number of events published but not read yet, including ones already lost.
+         */
+        public long getLag() {
+            return published.get() - next;
+        }
+
+        /**
+         * Reads events published since last call.
+         * @param listener receives events in order of publishing.
+         * @param maxEvents limit of events to read in this call.
+         * @return number of events given to listener.
+         */
+        public int poll(GameEventListener listener, int maxEvents) {
+            int delivered = 0;
+            long available = published.get();
+
+            while (next < available && delivered < maxEvents) {
+                if (available - next >= capacity) {         // publisher went round the ring - skip lost events
+                    long oldestIntact = available - capacity + 1;
+                    missedCount += oldestIntact - next;
+                    next = oldestIntact;
+                }
+
+                if (!read(next)) {                          // overwritten while reading - skip it on next round
+                    available = published.get();
+                    continue;
+                }
+
+                next++;
+                listener.onEvent(event);
+                delivered++;
+            }
+
+            return delivered;
+        }
+
+        private boolean read(long sequence) {
+            int slot = (int) (sequence & mask);
+            int base = slot * FIELDS;
+
+            event.sequence = sequence;
+            event.type = TYPES[fields.get(base + TYPE)];
+            event.classIndex = (byte) fields.get(base + CLASS_INDEX);
+            event.entityKey = (short) fields.get(base + ENTITY_KEY);
+            event.sourceKey = (short) fields.get(base + SOURCE_KEY);
+            event.amount = fields.get(base + AMOUNT);
+            event.x = fields.get(base + X);
+            event.y = fields.get(base + Y);
+            event.time = times.get(slot);
+
+            // publisher starts overwriting this slot only after publishing sequence + capacity - 1
+            return published.get() - sequence < capacity;
+        }
+    }
+}
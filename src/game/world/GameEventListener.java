@@ -0,0 +1,11 @@
+package game.world;
+
+/**
+ * Receives events read by GameEventBus cursor.
+ */
+public interface GameEventListener {
+    /**
+     * @param event event read. Instance is reused for next event, so copy fields that must be kept.
+     */
+    void onEvent(GameEvent event);
+}
@@ -0,0 +1,11 @@
+package game.world;
+
+/**
+ * Kinds of events board publishes to it's event bus.
+ */
+public enum GameEventType {
+    DAMAGE_TAKEN,                                           // entity lost hit points, amount is number of them
+    ENTITY_DESTROYED,                                       // entity lost all hit points
+    SPAWNED,                                                // tank was placed on spawn point
+    SHOT_FIRED                                              // entity is bullet, source is shooter
+}
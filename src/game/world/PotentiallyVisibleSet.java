@@ -0,0 +1,166 @@
+package game.world;
+
+import java.util.BitSet;
+
+/**
+ * Keeps which sectors of board can see each other through walls. Sector is square of cells, and sector sees another
+ * one if line between centers of any two of their cells crosses no bounds of cells blocking shots. Test is made at
+ * cell centers only, so visible sets are approximate, but sector always sees itself and sectors next to it, which
+ * covers entities standing close to walls.
+ *
+ * Visibility is computed once for all pairs of sectors. When overlay of cell changes, only pairs of sectors which
+ * rectangle spans that cell are tested again, as lines of other pairs can't cross it.
+ */
+public class PotentiallyVisibleSet {
+    public static final int SECTOR_SIZE = 4;                // cells per side of sector
+    private static final double STEP = BoardCell.CELL_SIZE / 4.0;  // line sampling step, pixels
+
+    private final Board board;
+    private final int sectorRows;
+    private final int sectorCols;
+    private final BitSet[] visible;                         // per sector: bit of each sector it sees
+
+    /**
+     * Constructs set and tests all pairs of sectors.
+     * @param board board to compute visibility of.
+     */
+    public PotentiallyVisibleSet(Board board) {
+        this.board = board;
+        this.sectorRows = (board.getRowCount() + SECTOR_SIZE - 1) / SECTOR_SIZE;
+        this.sectorCols = (board.getColCount() + SECTOR_SIZE - 1) / SECTOR_SIZE;
+        this.visible = new BitSet[sectorRows * sectorCols];
+
+        for (int i = 0; i < visible.length; i++) {
+            visible[i] = new BitSet(visible.length);
+        }
+
+        for (int a = 0; a < visible.length; a++) {
+            for (int b = a; b < visible.length; b++) {
+                update(a, b);
+            }
+        }
+    }
+
+    public int getSectorCount() {
+        return visible.length;
+    }
+
+    public int getSector(BoardCell cell) {
+        return (cell.row / SECTOR_SIZE) * sectorCols + cell.col / SECTOR_SIZE;
+    }
+
+    /**
+     * Checks if entity in one cell can possibly see entity in another cell.
+     */
+    public boolean isVisible(BoardCell from, BoardCell to) {
+        return visible[getSector(from)].get(getSector(to));
+    }
+
+    /**
+     * Gets number of sectors visible from sector, itself included.
+     */
+    public int getVisibleCount(int sector) {
+        return visible[sector].cardinality();
+    }
+
+    /**
+     * Tests again pairs of sectors that can see each other through cell, called by board when overlay of cell
+     * changes. Destroyed wall opens the view, wall placed closes it.
+     */
+    public void cellChanged(BoardCell cell) {
+        int row = cell.row / SECTOR_SIZE;
+        int col = cell.col / SECTOR_SIZE;
+
+        for (int a = 0; a < visible.length; a++) {
+            int rowA = a / sectorCols;
+            int colA = a % sectorCols;
+
+            for (int b = a; b < visible.length; b++) {
+                int rowB = b / sectorCols;
+                int colB = b % sectorCols;
+
+                // line between sectors stays in rectangle spanned by them
+                if (row < Math.min(rowA, rowB) || row > Math.max(rowA, rowB)) continue;
+                if (col < Math.min(colA, colB) || col > Math.max(colA, colB)) continue;
+
+                update(a, b);
+            }
+        }
+    }
+
+    private void update(int a, int b) {
+        boolean seen = isNear(a, b) || hasLineOfSight(a, b);
+
+        visible[a].set(b, seen);
+        visible[b].set(a, seen);
+    }
+
+    private boolean isNear(int a, int b) {
+        return Math.abs(a / sectorCols - b / sectorCols) <= 1 && Math.abs(a % sectorCols - b % sectorCols) <= 1;
+    }
+
+    /**
+     * Looks for any cell of one sector seeing any cell of other sector.
+     */
+    private boolean hasLineOfSight(int a, int b) {
+        int row1A = (a / sectorCols) * SECTOR_SIZE;
+        int col1A = (a % sectorCols) * SECTOR_SIZE;
+        int row1B = (b / sectorCols) * SECTOR_SIZE;
+        int col1B = (b % sectorCols) * SECTOR_SIZE;
+
+        for (int rowA = row1A; rowA < Math.min(row1A + SECTOR_SIZE, board.getRowCount()); rowA++) {
+            for (int colA = col1A; colA < Math.min(col1A + SECTOR_SIZE, board.getColCount()); colA++) {
+                BoardCell from = board.getCell(rowA, colA);
+                if (isSightObstacle(from)) continue;        // nobody stands inside of wall
+
+                for (int rowB = row1B; rowB < Math.min(row1B + SECTOR_SIZE, board.getRowCount()); rowB++) {
+                    for (int colB = col1B; colB < Math.min(col1B + SECTOR_SIZE, board.getColCount()); colB++) {
+                        BoardCell to = board.getCell(rowB, colB);
+                        if (isSightObstacle(to)) continue;
+
+                        if (isLineClear(from, to)) return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Walks line between cell centers in steps shorter than cell, testing line against bounds of blocking cells
+     * stepped on. Line touching corner of cell between two steps may miss it, which only makes set larger.
+     */
+    private boolean isLineClear(BoardCell from, BoardCell to) {
+        double ax = from.getCenter().x;
+        double ay = from.getCenter().y;
+        double bx = to.getCenter().x;
+        double by = to.getCenter().y;
+
+        int steps = (int) Math.ceil(Math.hypot(bx - ax, by - ay) / STEP);
+        BoardCell last = from;
+
+        for (int i = 1; i < steps; i++) {
+            double x = ax + (bx - ax) * i / steps;
+            double y = ay + (by - ay) * i / steps;
+            BoardCell cell = board.getCell(BoardCell.yToRow(y), BoardCell.xToCol(x));
+
+            if (cell == last) continue;
+            last = cell;
+
+            if (isSightObstacle(cell) && getSightBounds(cell).intersectsSegment(ax, ay, bx, by)) return false;
+        }
+
+        return true;
+    }
+
+    private static boolean isSightObstacle(BoardCell cell) {
+        return cell.ground.isShootObstacle() || cell.getOverlay().isShootObstacle();
+    }
+
+    private static Bounds getSightBounds(BoardCell cell) {
+        // blocking ground fills whole cell, overlays block within their obstacle bounds
+        Bounds bounds = cell.ground.isShootObstacle() ? null : cell.getObstacleBounds();
+        return (bounds == null) ? Bounds.fromBoardCell(cell.row, cell.col) : bounds;
+    }
+}
@@ -0,0 +1,132 @@
+package game.world;
+
+import game.world.entities.Entity;
+import game.world.entities.Positionable;
+import game.world.entities.Tank;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Keeps number of tanks in cells around each spawn point, and set of spawn points with none around. Bullets and
+ * other short-lived collidables don't block spawn points, they are gone before tank spawned there could get stuck.
+ * Counts are updated only when entity moves into another cell, so choosing free spawn point is a single random pick
+ * instead of overlap checks around every spawn point.
+ */
+final class SpawnPointIndex {
+    private static final int CELLS_AWAY = 1;                // tank this many cells away may overlap spawn cell
+
+    private final List<SpawnPoint> spawnPoints;
+    private final int colCount;
+    private final int[][] spawnPointsNearCell;              // per cell: indices of spawn points it can block
+    private final int[] occupants;                          // per spawn point: tanks in cells around
+
+    private final int[] free;                               // indices of spawn points with no occupants
+    private final int[] freePosition;                       // position of spawn point in free, or -1 if busy
+    private int freeCount;
+
+    /**
+     * Constructs index and counts tanks already on board.
+     * @param board board spawn points belong to.
+     * @param spawnPoints spawn points of board.
+     */
+    SpawnPointIndex(Board board, List<SpawnPoint> spawnPoints) {
+        this.spawnPoints = spawnPoints;
+        this.colCount = board.getColCount();
+
+        int size = spawnPoints.size();
+        spawnPointsNearCell = new int[board.getRowCount() * colCount][];
+        occupants = new int[size];
+        free = new int[size];
+        freePosition = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            SpawnPoint spawnPoint = spawnPoints.get(i);
+
+            for (int row = spawnPoint.row - CELLS_AWAY; row <= spawnPoint.row + CELLS_AWAY; row++) {
+                for (int col = spawnPoint.col - CELLS_AWAY; col <= spawnPoint.col + CELLS_AWAY; col++) {
+                    if (row < 0 || row >= board.getRowCount() || col < 0 || col >= colCount) continue;
+
+                    int cell = row * colCount + col;
+                    int[] near = spawnPointsNearCell[cell];
+                    int[] grown = near == null ? new int[1] : Arrays.copyOf(near, near.length + 1);
+                    grown[grown.length - 1] = i;
+                    spawnPointsNearCell[cell] = grown;
+                }
+            }
+
+            free[i] = i;
+            freePosition[i] = i;
+        }
+
+        freeCount = size;
+
+        for (int row = 0; row < board.getRowCount(); row++) {
+            for (int col = 0; col < colCount; col++) {
+                BoardCell cell = board.getCell(row, col);
+
+                for (Entity entity : cell.getEntitiesUnmodifiable()) {
+                    if (entity instanceof Positionable) entityMoved((Positionable) entity, null, cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves tank from spawn points around one cell to spawn points around another.
+     * @param from previous cell or null if entity was off board.
+     * @param to new cell or null if entity left board.
+     */
+    void entityMoved(Positionable entity, BoardCell from, BoardCell to) {
+        if (!(entity instanceof Tank)) return;
+
+        if (from != null) count(from, -1);
+        if (to != null) count(to, +1);
+    }
+
+    boolean hasFree() {
+        return freeCount > 0;
+    }
+
+    int getFreeCount() {
+        return freeCount;
+    }
+
+    /**
+     * @return random spawn point with no tanks around or null if all are busy.
+     */
+    SpawnPoint getRandomFree(Random random) {
+        if (freeCount == 0) return null;
+        return spawnPoints.get(free[random.nextInt(freeCount)]);
+    }
+
+    private void count(BoardCell cell, int delta) {
+        int[] near = spawnPointsNearCell[cell.row * colCount + cell.col];
+        if (near == null) return;
+
+        for (int i : near) {
+            occupants[i] += delta;
+
+            if (occupants[i] == 0) {
+                addFree(i);
+            } else if (delta > 0 && occupants[i] == 1) {   // first occupant came
+                removeFree(i);
+            }
+        }
+    }
+
+    private void addFree(int i) {
+        freePosition[i] = freeCount;
+        free[freeCount++] = i;
+    }
+
+    private void removeFree(int i) {
+        int position = freePosition[i];
+        int last = free[--freeCount];
+
+        free[position] = last;                              // move last free spawn point into the gap
+        freePosition[last] = position;
+        freePosition[i] = -1;
+    }
+}
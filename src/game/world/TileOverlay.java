@@ -7,6 +7,8 @@ import game.Resources;
  * This class holds overlay tile information
  */
 public class TileOverlay {
+    public static final int DESTRUCTIBLE_HIT_POINTS = 150;  // three bullet hits
+
     public final String ID;
     public final ImageFrameInfo imageFrame;
     public final int frameIndex;
@@ -54,6 +56,10 @@ public class TileOverlay {
         return flags.contains("b");
     }
 
+    public boolean isDestructible() {
+        return flags.contains("d");
+    }
+
     public boolean isVisible() {
         return imageFrame != null;
     }
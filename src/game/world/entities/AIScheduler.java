@@ -0,0 +1,161 @@
+package game.world.entities;
+
+import game.util.Timeout;
+import game.world.Board;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Spreads expensive AI decisions across board ticks. Decision timeouts of each bot get own phase, so bots spawned
+ * together do not decide in same tick, and time spent on decisions in one tick is limited by budget. Decision that
+ * does not fit into budget is deferred: bot keeps it's due timeout and asks again on next tick. On deterministic
+ * board budget is number of decisions per tick, since measured time differs from run to run.
+ */
+public class AIScheduler {
+    private static final long DEFAULT_TICK_BUDGET = 2_000_000;  // nanoseconds of decision work per tick
+    private static final double PHASE_STEP = 0.6180339887;  // golden ratio keeps any number of phases evenly spread
+    private static final int PRUNE_INTERVAL = 1024;         // ticks between removals of gone bots statistics
+    private static final int DEFAULT_DECISION_LIMIT = 4;    // decisions per tick on deterministic board
+
+    private final Board board;
+
+    private long tickBudget = DEFAULT_TICK_BUDGET;
+    private int decisionLimit = DEFAULT_DECISION_LIMIT;
+    private long tickSpent;                                 // nanoseconds spent on decisions in current tick
+    private int tickDecisions;                              // decisions made in current tick
+    private long tickCount;
+    private double nextPhase;
+
+    private long decisionStart;                             // nanoTime when current decision was started
+
+    private long decisionCount;                             // number of decisions made, for statistics
+    private long deferredCount;                             // number of decisions moved to later tick, for statistics
+    private long maxTickSpent;                              // longest decision time of single tick, for statistics
+    private long pathRequestCount;                          // number of path searches made by bots, for statistics
+
+    // bot entity key -> latency in milliseconds between it's last decision was due and made
+    private final Map<Short, Long> decisionLatency = new HashMap<>();
+
+    public AIScheduler(Board board) {
+        this.board = board;
+    }
+
+    /**
+     * Starts new tick, giving it full budget. Called once per board update.
+     */
+    public void beginTick() {
+        tickSpent = 0;
+        tickDecisions = 0;
+
+        if (++tickCount % PRUNE_INTERVAL == 0) {
+            decisionLatency.keySet().removeIf(key -> board.getEntity(key) == null);
+        }
+    }
+
+    /**
+     * Resets timeout with next phase, so it occurs at different moment than timeouts reset before.
+     * @param timeout decision timeout of a bot.
+     */
+    public void stagger(Timeout timeout) {
+        nextPhase = (nextPhase + PHASE_STEP) % 1.0;
+        timeout.reset((long) (nextPhase * timeout.getTimeoutTime()));
+    }
+
+    /**
+     * Asks for permission to make a decision in current tick. When granted, decision must be finished with
+     * endDecision(). First decision of a tick is always granted, so AI makes progress even with tiny budget.
+     * @return true if decision can be made now, false if it is deferred to next tick.
+     */
+    public boolean beginDecision() {
+        boolean overBudget = board.isDeterministic() ? tickDecisions >= decisionLimit : tickSpent >= tickBudget;
+
+        if (tickDecisions > 0 && overBudget) {
+            deferredCount++;
+            return false;
+        }
+
+        decisionStart = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Finishes decision granted by beginDecision() and records it's latency.
+     * @param bot entity decision was made for.
+     * @param timeout decision timeout, checked but not yet reset.
+     */
+    public void endDecision(Entity bot, Timeout timeout) {
+        endDecision(bot, timeout.getOverdueTime());
+    }
+
+    /**
+     * Finishes decision granted by beginDecision() and records it's latency.
+     * @param bot entity decision was made for.
+     * @param latency milliseconds between decision was due and made.
+     */
+    public void endDecision(Entity bot, long latency) {
+        tickSpent += System.nanoTime() - decisionStart;
+        tickDecisions++;
+        decisionCount++;
+        maxTickSpent = Math.max(maxTickSpent, tickSpent);
+
+        decisionLatency.put(bot.getKey(), latency);
+    }
+
+    /**
+     * Gets latency of bot's last decision.
+     * @param key bot entity key.
+     * @return milliseconds between decision was due and made, or -1 if bot made no decisions yet.
+     */
+    public long getDecisionLatency(short key) {
+        Long latency = decisionLatency.get(key);
+        return latency == null ? -1 : latency;
+    }
+
+    public long getTickBudget() {
+        return tickBudget;
+    }
+
+    /**
+     * Sets amount of time AI decisions may take in one tick.
+     * @param tickBudget budget in nanoseconds.
+     */
+    public void setTickBudget(long tickBudget) {
+        this.tickBudget = tickBudget;
+    }
+
+    /**
+     * Records that bot made path search or flow field request.
+     */
+    public void recordPathRequest() {
+        pathRequestCount++;
+    }
+
+    public long getPathRequestCount() {
+        return pathRequestCount;
+    }
+
+    public int getDecisionLimit() {
+        return decisionLimit;
+    }
+
+    /**
+     * Sets number of AI decisions allowed in one tick of deterministic board.
+     * @param decisionLimit number of decisions.
+     */
+    public void setDecisionLimit(int decisionLimit) {
+        this.decisionLimit = decisionLimit;
+    }
+
+    public long getDecisionCount() {
+        return decisionCount;
+    }
+
+    public long getDeferredCount() {
+        return deferredCount;
+    }
+
+    public long getMaxTickSpent() {
+        return maxTickSpent;
+    }
+}
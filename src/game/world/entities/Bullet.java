@@ -3,16 +3,21 @@ package game.world.entities;
 import game.graphics.Animation;
 import game.world.Board;
 import game.world.BoardCell;
+import game.world.Bounds;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * An entity that can damage other entities by colliding with thenm.
  */
 public class Bullet extends DestructibleCollidableEntity implements Visible {
+    private static final int WALL_DAMAGE = 50;              // same as tank takes
     private final Animation animation = new Animation(getTypeInfo().imageInfo);
     private int lifetime = getTypeInfo().maxLifetime;
+    private int rewind;                                     // milliseconds to rewind targets by, server-side only
+    private boolean batched;                                // moved by board's ProjectileSystem, not by itself
 
     public Bullet(UUID ownerUniqueID, Board board) {
         super(ownerUniqueID, board);
@@ -38,13 +43,29 @@ public class Bullet extends DestructibleCollidableEntity implements Visible {
         setMoveSpeed(getOrderedSpeed());
     }
 
+    public int getRewind() {
+        return rewind;
+    }
+
+    /**
+     * Makes bullet hit targets where shooter saw them, instead of where they are now.
+     * @param rewind milliseconds to rewind targets by, usually latency of shooting client.
+     */
+    public void setRewind(int rewind) {
+        this.rewind = rewind;
+    }
+
     private void readAnimation(ByteBuffer src) {
         getAnimation().setCurrentFrameIndex(src.get());
     }
 
+    void setBatched(boolean batched) {
+        this.batched = batched;
+    }
+
     @Override
     public void update() {
-        super.update();
+        if (!batched) super.update();
         if (lifetime > 0) lifetime--;
 
         if (lifetime == 0 || rangeExceeded()) {
@@ -110,9 +131,30 @@ public class Bullet extends DestructibleCollidableEntity implements Visible {
         takeDamage(getHitPoints());
     }
 
+    @Override
+    protected void collideWithCell(BoardCell cell) {
+        if (isMaster()) {
+            getBoard().cellDamaged(cell, WALL_DAMAGE);      // clients get terrain changes from server
+        }
+
+        collideWith(null);
+    }
+
+    @Override
+    protected List<Collidable> getPotentialObstacles(Point newPos, List<BoardCell> cellsAround) {
+        if (rewind == 0) return super.getPotentialObstacles(newPos, cellsAround);
+        return getBoard().getLagCompensation().getPotentialObstacles(this, newPos, rewind);
+    }
+
+    @Override
+    protected Bounds getObstacleBounds(Collidable obstacle) {
+        if (rewind == 0) return super.getObstacleBounds(obstacle);
+        return getBoard().getLagCompensation().getBoundsAt(obstacle, rewind);
+    }
+
     @Override
     public boolean cellHasObstacle(BoardCell cell) {
-        return cell.ground.isShootObstacle() || cell.overlay.isShootObstacle();
+        return cell.ground.isShootObstacle() || cell.getOverlay().isShootObstacle();
     }
 
     @Override
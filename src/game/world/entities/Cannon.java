@@ -12,11 +12,24 @@ public class Cannon {
     private final double MAX_FIRE_RATE = 0.5;
 
     private double rearmingDelay = 1000 / MAX_FIRE_RATE;
+    private int rewind;                                     // milliseconds bullets rewind their targets by
 
     public Cannon(Positionable ownerEntity) {
         this.ownerEntity = ownerEntity;
     }
 
+    public int getRewind() {
+        return rewind;
+    }
+
+    /**
+     * Sets lag compensation of bullets fired from now on.
+     * @param rewind milliseconds to rewind targets by, usually latency of client controlling the owner.
+     */
+    public void setRewind(int rewind) {
+        this.rewind = rewind;
+    }
+
     public boolean canShoot() { return rearmingDelay == 0; }
 
     public short shoot() {
@@ -33,8 +46,11 @@ public class Cannon {
         bullet.setPos(pos);
         bullet.setHeading(heading);
         bullet.setOrderedHeading(heading);
+        bullet.setRewind(rewind);
 
         ownerEntity.getBoard().registerEntity(bullet);
+        ownerEntity.getBoard().getProjectiles().add(bullet);   // moved together with all other bullets
+        ownerEntity.getBoard().entityFired(ownerEntity, bullet);
 
         return bullet.getKey();
     }
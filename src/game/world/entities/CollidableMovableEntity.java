@@ -54,14 +54,14 @@ abstract class CollidableMovableEntity extends MoveableEntity implements Collida
                 if (obstacleBounds != null && thisNewBounds.collidesWith(obstacleBounds)) {
                     collisionDetected = true;               // set collision flag
 
-                    collideWith(null);
+                    collideWithCell(cell);
                     //break;                                  // break out from search
                 }
             }
         }
 
         // check collision against other entities in the search area
-        List<Collidable> obstacles = getPotentialObstaclesFromCells(cellsAround);
+        List<Collidable> obstacles = getPotentialObstacles(newPos, cellsAround);
 
         for (Collidable obstacle : obstacles) {
 
@@ -69,7 +69,7 @@ abstract class CollidableMovableEntity extends MoveableEntity implements Collida
                 continue;
             }
 
-            if (thisNewBounds.overlap(obstacle.getBounds())) {
+            if (thisNewBounds.overlap(getObstacleBounds(obstacle))) {
                 collideWith(obstacle);                      // process collision for both this
                 obstacle.collideWith(this);                 // and other entity
                 collisionDetected = true;
@@ -91,6 +91,27 @@ abstract class CollidableMovableEntity extends MoveableEntity implements Collida
         }
     }
 
+    /**
+     * Processes collision with obstacle of cell. Subclass may damage cell it hit.
+     */
+    protected void collideWithCell(BoardCell cell) {
+        collideWith(null);
+    }
+
+    /**
+     * Gets entities that may block attempted position. Subclass may look for them elsewhere than cells around.
+     */
+    protected List<Collidable> getPotentialObstacles(Point newPos, List<BoardCell> cellsAround) {
+        return getPotentialObstaclesFromCells(cellsAround);
+    }
+
+    /**
+     * Gets bounds of obstacle to test against. Subclass may see obstacle where it was some time ago.
+     */
+    protected Bounds getObstacleBounds(Collidable obstacle) {
+        return obstacle.getBounds();
+    }
+
     private boolean boundsOutsideBoardAt(double x, double y) {
         Bounds newBounds = getBounds().centered(x,y);
 
@@ -0,0 +1,364 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+
+import java.util.Arrays;
+
+/**
+ * Incremental path finder for pursuing moving target, an implementation of Moving Target D* Lite.
+ * <p>
+ * Search tree is rooted at pursuer's cell and kept between calls. When target moves, heuristic offset km is
+ * increased instead of restarting. When pursuer moves along previous path, only part of tree that is not under new
+ * start cell is deleted. When cell obstacle state changes, only states depending on that cell are repaired.
+ * Instance belongs to single entity, because obstacle rules are taken from it.
+ */
+public class DStarLitePathFinder implements PathSearch {
+    private static final int INFINITY = Integer.MAX_VALUE / 4;
+    private static final int MAX_KM = 1 << 20;              // restart search before key offset gets too large
+    private static final int MOVE_COST = 10;                // same as PathFinder straight move cost
+    private static final int NONE = -1;
+
+    private static final int[] ROW_STEP = {-1, 0, +1, 0};
+    private static final int[] COL_STEP = {0, +1, 0, -1};
+
+    private final Board board;
+    private final Moveable entity;
+    private final int rows;
+    private final int cols;
+
+    private final boolean[] blocked;
+    private final int[] g;
+    private final int[] rhs;
+    private final int[] parent;
+
+    // open list is binary heap indexed by cell, so keys can be updated and states removed
+    private final int[] heapNode;
+    private final long[] heapKey;
+    private final int[] heapIndex;
+    private int heapSize;
+
+    private int start = NONE;
+    private int goal = NONE;
+    private int km;
+
+    private int expandedNodeCount;
+
+    public DStarLitePathFinder(Board board, Moveable entity) {
+        this.board = board;
+        this.entity = entity;
+        this.rows = board.getRowCount();
+        this.cols = board.getColCount();
+
+        int size = rows * cols;
+        blocked = new boolean[size];
+        g = new int[size];
+        rhs = new int[size];
+        parent = new int[size];
+        heapNode = new int[size];
+        heapKey = new long[size];
+        heapIndex = new int[size];
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                blocked[row * cols + col] = entity.cellHasObstacle(board.getCell(row, col));
+            }
+        }
+    }
+
+    /**
+     * Finds path from entity's current cell, reusing previous search when possible.
+     * @param entity entity this path finder was created for.
+     * @param destinationCell current cell of target.
+     * @return list of adjacent board cells, excluding start, or empty list if no path was found.
+     */
+    @Override
+    public PathList<BoardCell> find(Moveable entity, BoardCell destinationCell) {
+        if (entity != this.entity) {
+            throw new IllegalArgumentException("Incremental path finder can't be shared between entities");
+        }
+
+        expandedNodeCount = 0;
+
+        BoardCell startCell = entity.getCell();
+        if (startCell == null || destinationCell == null) return new PathList<>();
+
+        int newStart = startCell.row * cols + startCell.col;
+        int newGoal = destinationCell.row * cols + destinationCell.col;
+
+        if (newStart == newGoal || blocked[newGoal]) return new PathList<>();
+
+        if (start == NONE || rhs[newStart] >= INFINITY || km > MAX_KM) {
+            // nothing to reuse: first search, or pursuer left previous search tree
+            initialize(newStart, newGoal);
+        } else {
+            if (newGoal != goal) {
+                km += heuristic(goal, newGoal);             // target moved: keep keys as lower bounds
+                goal = newGoal;
+            }
+
+            if (newStart != start) {
+                int oldStart = start;
+                start = newStart;
+                deleteOutsideOfStartTree(oldStart);
+            }
+        }
+
+        computeCostMinimalPath();
+
+        PathList<BoardCell> path = makePath();
+        if (path == null) {
+            // parent chain is broken, which should not happen - fall back to search from scratch
+            initialize(newStart, newGoal);
+            computeCostMinimalPath();
+            path = makePath();
+        }
+
+        return path == null ? new PathList<>() : path;
+    }
+
+    @Override
+    public int getExpandedNodeCount() {
+        return expandedNodeCount;
+    }
+
+    /**
+     * Re-reads obstacle state of cell and repairs states that depend on it.
+     * @param cell cell which ground or overlay has changed.
+     */
+    @Override
+    public void cellChanged(BoardCell cell) {
+        int v = cell.row * cols + cell.col;
+        boolean nowBlocked = entity.cellHasObstacle(cell);
+
+        if (blocked[v] == nowBlocked) return;
+        blocked[v] = nowBlocked;
+
+        if (start == NONE) return;
+
+        // cost of every edge into and out of this cell changed
+        updateRhs(v);
+        for (int dir = 0; dir < 4; dir++) {
+            int s = neighbour(v, dir);
+            if (s != NONE) updateRhs(s);
+        }
+    }
+
+    private void initialize(int newStart, int newGoal) {
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        Arrays.fill(parent, NONE);
+        Arrays.fill(heapIndex, NONE);
+        heapSize = 0;
+
+        km = 0;
+        start = newStart;
+        goal = newGoal;
+
+        rhs[start] = 0;
+        updateState(start);
+    }
+
+    /**
+     * Basic deletion of moving target D* Lite: states that were reached through old start only are
+     * invalidated by making old start an ordinary state again, the rest is repaired by search itself.
+     */
+    private void deleteOutsideOfStartTree(int oldStart) {
+        parent[start] = NONE;
+        updateRhs(oldStart);
+    }
+
+    private void computeCostMinimalPath() {
+        while (heapSize > 0 && (heapKey[0] < calculateKey(goal) || rhs[goal] != g[goal])) {
+            int u = heapNode[0];
+            long oldKey = heapKey[0];
+            long newKey = calculateKey(u);
+
+            if (oldKey < newKey) {
+                updateKey(u, newKey);
+                continue;
+            }
+
+            expandedNodeCount++;
+
+            if (g[u] > rhs[u]) {
+                // over-consistent: settle and offer cheaper parent to neighbours
+                g[u] = rhs[u];
+                remove(u);
+
+                for (int dir = 0; dir < 4; dir++) {
+                    int s = neighbour(u, dir);
+                    if (s == NONE || s == start) continue;
+
+                    int cost = g[u] + cost(u, s);
+                    if (cost < rhs[s]) {
+                        parent[s] = u;
+                        rhs[s] = cost;
+                        updateState(s);
+                    }
+                }
+            } else {
+                // under-consistent: invalidate and let children find other parents
+                g[u] = INFINITY;
+
+                for (int dir = 0; dir < 4; dir++) {
+                    int s = neighbour(u, dir);
+                    if (s == NONE) continue;
+
+                    if (s != start && parent[s] == u) {
+                        updateRhs(s);
+                    } else {
+                        updateState(s);
+                    }
+                }
+
+                updateState(u);
+            }
+        }
+    }
+
+    /**
+     * Recalculates rhs of state from it's neighbours and updates it's place in open list.
+     */
+    private void updateRhs(int s) {
+        if (s != start) {
+            rhs[s] = INFINITY;
+            parent[s] = NONE;
+
+            for (int dir = 0; dir < 4; dir++) {
+                int p = neighbour(s, dir);
+                if (p == NONE || g[p] >= INFINITY) continue;
+
+                int cost = g[p] + cost(p, s);
+                if (cost < rhs[s]) {
+                    rhs[s] = cost;
+                    parent[s] = p;
+                }
+            }
+        }
+
+        updateState(s);
+    }
+
+    private void updateState(int s) {
+        if (g[s] != rhs[s]) {
+            if (heapIndex[s] == NONE) {
+                insert(s, calculateKey(s));
+            } else {
+                updateKey(s, calculateKey(s));
+            }
+        } else if (heapIndex[s] != NONE) {
+            remove(s);
+        }
+    }
+
+    private long calculateKey(int s) {
+        long k2 = Math.min(g[s], rhs[s]);
+        long k1 = Math.min(k2 + heuristic(s, goal) + km, INFINITY);
+
+        return (k1 << 32) | k2;
+    }
+
+    private int heuristic(int from, int to) {
+        return (Math.abs(from / cols - to / cols) + Math.abs(from % cols - to % cols)) * MOVE_COST;
+    }
+
+    private int cost(int from, int to) {
+        return (blocked[from] || blocked[to]) ? INFINITY : MOVE_COST;
+    }
+
+    private int neighbour(int s, int dir) {
+        int row = s / cols + ROW_STEP[dir];
+        int col = s % cols + COL_STEP[dir];
+
+        if (row < 0 || col < 0 || row >= rows || col >= cols) return NONE;
+        return row * cols + col;
+    }
+
+    /**
+     * Follows parent chain from goal back to start.
+     * @return path, empty path if goal is unreachable, or null if chain is broken.
+     */
+    private PathList<BoardCell> makePath() {
+        PathList<BoardCell> path = new PathList<>();
+        if (rhs[goal] >= INFINITY) return path;
+
+        int[] reversed = new int[rows * cols];
+        int length = 0;
+
+        for (int s = goal; s != start; s = parent[s]) {
+            if (s == NONE || length == reversed.length) return null;
+            reversed[length++] = s;
+        }
+
+        for (int i = length - 1; i >= 0; i--) {
+            path.add(board.getCell(reversed[i] / cols, reversed[i] % cols));
+        }
+
+        return path;
+    }
+
+    private void insert(int s, long key) {
+        heapNode[heapSize] = s;
+        heapKey[heapSize] = key;
+        heapIndex[s] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private void updateKey(int s, long key) {
+        int i = heapIndex[s];
+        long old = heapKey[i];
+        heapKey[i] = key;
+
+        if (key < old) siftUp(i); else siftDown(i);
+    }
+
+    private void remove(int s) {
+        int i = heapIndex[s];
+        heapIndex[s] = NONE;
+
+        if (i == --heapSize) return;
+
+        int last = heapNode[heapSize];                      // last heap entry takes place of removed one
+        move(heapSize, i);
+        siftUp(i);
+        siftDown(heapIndex[last]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int up = (i - 1) / 2;
+            if (heapKey[up] <= heapKey[i]) break;
+            swap(i, up);
+            i = up;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int child = i * 2 + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heapKey[child + 1] < heapKey[child]) child++;
+            if (heapKey[i] <= heapKey[child]) break;
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int node = heapNode[i];
+        long key = heapKey[i];
+
+        move(j, i);
+
+        heapNode[j] = node;
+        heapKey[j] = key;
+        heapIndex[node] = j;
+    }
+
+    private void move(int from, int to) {
+        heapNode[to] = heapNode[from];
+        heapKey[to] = heapKey[from];
+        heapIndex[heapNode[to]] = to;
+    }
+}
@@ -11,6 +11,7 @@ import java.util.UUID;
 public abstract class DestructibleCollidableEntity extends CollidableMovableEntity implements Destructible {
 
     private byte hitPoints;
+    private short damageSourceKey;                          // entity that caused next damage, reported with it
 
     DestructibleCollidableEntity(UUID ownerUniqueID, Board board) {
         super(ownerUniqueID, board);
@@ -35,9 +36,28 @@ public abstract class DestructibleCollidableEntity extends CollidableMovableEnti
         this.hitPoints = hitPoints;
     }
 
+    /**
+     * Sets entity that causes damage taken next, so board can tell who hit and who destroyed this entity.
+     * @param damageSourceKey key of entity, or 0 if unknown.
+     */
+    void setDamageSourceKey(short damageSourceKey) {
+        this.damageSourceKey = damageSourceKey;
+    }
+
     @Override
     public void takeDamage(byte amount) {
+        boolean wasDead = isDead();
         hitPoints = amount > hitPoints ? 0 : (byte)(hitPoints - amount);
+
+        if (getBoard() != null) {
+            getBoard().entityDamaged(this, amount, damageSourceKey);
+
+            if (!wasDead && isDead()) {
+                getBoard().entityDestroyed(this, damageSourceKey);
+            }
+        }
+
+        damageSourceKey = 0;
     }
 
     @Override
@@ -4,10 +4,10 @@ import game.util.Timeout;
 import game.world.Board;
 import game.world.BoardCell;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
-import java.util.Set;
 
 import static game.util.Debug.log;
 import static java.lang.Math.*;
@@ -15,30 +15,53 @@ import static java.lang.Math.*;
 /**
  * Some sort of primitive AI logic: it can find targets, move and fire.
  */
-class EnemyBotAI {
+class EnemyBotAI implements ProximityListener {
     private final int MAX_TARGET_DECISION_TIMEOUT = 1000;
     private final int MAX_PURSUE_DECISION_TIMEOUT = 1000;
     private final int MAX_ROAMING_DECISION_TIMEOUT = 5000;
 
-    private final Timeout targetDecisionTimeout = new Timeout(MAX_TARGET_DECISION_TIMEOUT);
-    private final Timeout pursueDecisionTimeout = new Timeout(MAX_PURSUE_DECISION_TIMEOUT);
-    private final Timeout roamingDecisionTimeout = new Timeout(MAX_ROAMING_DECISION_TIMEOUT);
+    private final Timeout targetDecisionTimeout;
+    private final Timeout pursueDecisionTimeout;
+    private final Timeout roamingDecisionTimeout;
 
     private final double EPSILON = 0.3;
 
+    // search in 8-cell radius
+    private final int SEARCH_CELLS = 8;
+    private final int TARGET_RADIUS = BoardCell.CELL_SIZE * SEARCH_CELLS;
+
     private final Board board;
 
     private final Tank controlled;
 
     private short targetKey;
 
-    private final Random random = new Random();
+    private final Random random;
     private PathList<BoardCell> path = new PathList<>();
+    private DStarLitePathFinder pursuitPathFinder;          // incremental search kept while pursuing alone
+    private int pursuitTerrainVersion;                      // terrain changes pursuit search already knows of
+    private BoardCell pursuedCell;                          // target cell path was last made to
+    private ProximitySensor targetSensor;                   // reports tanks coming in or out of search area
+    private boolean targetDecisionNeeded = true;            // set by sensor events
+    private long targetDecisionNeededTime;                  // time of first event not yet handled
 
     public EnemyBotAI(Board board, Tank controlled) {
         this.board = board;
         this.controlled = controlled;
         targetKey = EntityBase.INVALID_UNIQUE_ID;
+
+        // board defines time and randomness, so deterministic board makes bots deterministic too
+        random = board.getRandom();
+        targetDecisionTimeout = new Timeout(MAX_TARGET_DECISION_TIMEOUT, board::getTime);
+        pursueDecisionTimeout = new Timeout(MAX_PURSUE_DECISION_TIMEOUT, board::getTime);
+        roamingDecisionTimeout = new Timeout(MAX_ROAMING_DECISION_TIMEOUT, board::getTime);
+        targetDecisionNeededTime = board.getTime();
+
+        // bots spawned together should not make their decisions in same tick
+        AIScheduler scheduler = board.getAIScheduler();
+        scheduler.stagger(targetDecisionTimeout);
+        scheduler.stagger(pursueDecisionTimeout);
+        scheduler.stagger(roamingDecisionTimeout);
     }
 
     private boolean hasTarget() {
@@ -50,29 +73,54 @@ class EnemyBotAI {
     }
 
     public void update() {
-        // 1. search for target in range
-        if (targetDecisionTimeout.occurred()) {
-            // recalculate target decision
-            // reset timeout
+        AIScheduler scheduler = board.getAIScheduler();
+
+        if (targetSensor == null) {
+            // sensor is added on first update, so only computer controlled bots on server have one
+            targetSensor = new ProximitySensor(controlled, SEARCH_CELLS, Tank.class, this);
+            board.getProximitySensors().addSensor(targetSensor);
+        }
+
+        // 1. search for target in range. It is needed only when tank came in or out of search area, but while
+        // there are tanks around it is refreshed periodically, since closest one changes as they move
+        boolean tanksAround = !targetSensor.getEntitiesInsideUnmodifiable().isEmpty();
+
+        if (targetDecisionNeeded) {
+            if (scheduler.beginDecision()) {
+                makeTargetDecision();
+                scheduler.endDecision(controlled, board.getTime() - targetDecisionNeededTime);
+                targetDecisionNeeded = false;
+                targetDecisionTimeout.reset();
+            }
+        } else if (tanksAround && targetDecisionTimeout.occurred() && scheduler.beginDecision()) {
             makeTargetDecision();
+            scheduler.endDecision(controlled, targetDecisionTimeout);
             targetDecisionTimeout.reset();
         }
 
-        if (hasTarget() && pursueDecisionTimeout.occurred()) {
+        // replan as soon as target changes cell, incremental search makes it cheap
+        if (hasTarget() && (pursueDecisionTimeout.occurred() || getTarget().getCell() != pursuedCell)) {
             // this is important: we have to recalculate path only when aligned in cell otherwise tank may
             // take wrong decision and collide with adjacent obstacles
             if (alignedInCell(controlled.getCell()) || path.isEmpty()) {
-                makePathToTarget();
+                if (scheduler.beginDecision()) {
+                    makePathToTarget();
+                    scheduler.endDecision(controlled, pursueDecisionTimeout);
+                    pursueDecisionTimeout.reset();
+                }
+            } else {
+                pursueDecisionTimeout.reset();
             }
-
-            pursueDecisionTimeout.reset();
         }
 
         // 2 if no target found - go roaming
         if (!hasTarget() && alignedInCell(controlled.getCell())) {
             if (path.isEmpty() || roamingDecisionTimeout.occurred()) {
-                makeRandomPathDecision();
-                roamingDecisionTimeout.reset();
+                if (scheduler.beginDecision()) {
+                    makeRandomPathDecision();
+                    scheduler.endDecision(controlled, roamingDecisionTimeout);
+                    roamingDecisionTimeout.reset();
+                }
             }
         }
 
@@ -86,18 +134,35 @@ class EnemyBotAI {
     }
 
     private void makeRandomPathDecision() {
-        BoardCell cell;
+        InfluenceMap influence = board.getInfluenceMap();
+        final int ROAMING_CANDIDATES = 4;
+        final int MAX_ROAMING_SEARCHES = 2;                 // path stays empty if none found, retried next update
+        final double DAMAGE_PER_BOT = 25;                   // recent damage repelling as much as one other bot
 
-        do {
-            // get random cell as roaming destination
+        // get few random cells as roaming destination candidates, and try the most interesting first:
+        // sectors with hostile tanks attract, sectors crowded with other bots or where tanks were hit recently
+        // repel so bots spread and don't walk into crossfire
+        List<BoardCell> candidates = new ArrayList<>(ROAMING_CANDIDATES);
+
+        for (int n = 0; n < ROAMING_CANDIDATES; n++) {
             int row = random.nextInt(board.getRowCount());
             int col = random.nextInt(board.getColCount());
 
-            cell = board.getCell(row, col);
+            candidates.add(board.getCell(row, col));
+        }
 
-            path = board.getPathFinder().find(controlled, cell);
-            // is destination is unreachable - try again
-        } while (path.isEmpty());
+        candidates.sort(Comparator.comparingDouble(cell -> {
+            int sector = influence.getSector(cell);
+            return influence.getFriendlyTanks(sector) - influence.getHostileTanks(sector) * 2
+                    + influence.getRecentDamage(sector) / DAMAGE_PER_BOT;
+        }));
+
+        // searches are capped, since unreachable destination costs whole search of reachable area
+        for (int n = 0; n < MAX_ROAMING_SEARCHES; n++) {
+            board.getAIScheduler().recordPathRequest();
+            path = board.getPathFinder().find(controlled, candidates.get(n));
+            if (!path.isEmpty()) break;
+        }
 
     }
 
@@ -116,10 +181,21 @@ class EnemyBotAI {
         if (entity == null || !(entity instanceof Tank)) return;
 
         Tank target = (Tank) entity;
-        BoardCell targetCell = target.getCell();
-        if (targetCell == null) return;
+        pursuedCell = target.getCell();
+        if (pursuedCell == null) return;
 
-        path = board.getPathFinder().find(controlled, targetCell);
+        board.getAIScheduler().recordPathRequest();
+
+        if (board.getFlowFields().getPursuerCount(targetKey) > 1) {
+            // bots chasing same target share one flow field, so pursuit does not run its own search
+            FlowField field = board.getFlowFields().getFlowField(controlled, target);
+            if (field == null) return;
+
+            path = field.getPath(controlled.getCell());
+        } else {
+            // single pursuer repairs it's previous search instead of starting over
+            path = getPursuitPathFinder().find(controlled, pursuedCell);
+        }
 
         if (path.isEmpty()) return;
 
@@ -139,6 +215,25 @@ class EnemyBotAI {
 
     }
 
+    private DStarLitePathFinder getPursuitPathFinder() {
+        // lazily created, so client-side copies of bots do not allocate search state
+        if (pursuitPathFinder == null) {
+            pursuitPathFinder = new DStarLitePathFinder(board, controlled);
+            pursuitTerrainVersion = board.getTerrainVersion();
+        }
+
+        // search state outlives terrain changes, so it's repaired with cells changed since last search
+        if (pursuitTerrainVersion != board.getTerrainVersion()) {
+            for (BoardCell cell : board.getTerrainChangesSince(pursuitTerrainVersion)) {
+                pursuitPathFinder.cellChanged(cell);
+            }
+
+            pursuitTerrainVersion = board.getTerrainVersion();
+        }
+
+        return pursuitPathFinder;
+    }
+
     private boolean makeTurnDecision() {
         if (path.isEmpty()) {
 
@@ -229,32 +324,23 @@ class EnemyBotAI {
             return;
         }
 
-        // check for targets in front of us. To do so we need to collect all cells in front first.
-        // get all cells along line of fire
-        Set<BoardCell> lineOfFire = new HashSet<>();
+        // check for targets in front of us. Aim check below allows lateral error of about half a tank, which
+        // at any distance tanks can be apart is inside of 45 degrees from line of fire
+        final double FIRE_CONE_HALF_ANGLE = 45;
 
         double heading = controlled.getHeading();
         int distance = controlled.getCannon().maximumRange();
         Point muzzlePoint = controlled.getCannon().muzzlePoint();
 
-        for (int n = 0; n < distance; n = n + BoardCell.CELL_SIZE * 2) {
-            Point p = muzzlePoint.at(heading, n);
-            if (board.coordinatesInBounds(p) && board.getCellAt(p).isShootObstacle()) continue;
+        List<Tank> potentialTargets = board.getWithinCone(muzzlePoint, heading, FIRE_CONE_HALF_ANGLE, distance,
+                Tank.class);
 
-            lineOfFire.addAll(board.getCellsAround(p, 1));
-        }
-
-        // process potential targets in line of fire cells
-        for (BoardCell cell : lineOfFire) {
-
-            for (Entity entity : cell.getEntitiesUnmodifiable()) {
-                if (entity == controlled) continue;
-                if (entity instanceof Tank) {
-                    if (isAimedAt((Tank) entity)) {
-                        controlled.fireOnce();
-                        return;
-                    }
-                }
+        // process potential targets in line of fire
+        for (Tank target : potentialTargets) {
+            if (target == controlled) continue;
+            if (isAimedAt(target)) {
+                controlled.fireOnce();
+                return;
             }
         }
 
@@ -276,30 +362,32 @@ class EnemyBotAI {
 
         targetKey = EntityBase.INVALID_UNIQUE_ID;
 
-        // search in 8-cell radius
-        final int SEARCH_CELLS = 8;
-        final int TARGET_RADIUS = BoardCell.CELL_SIZE * SEARCH_CELLS;
+        // few nearest tanks only: cost depends on how crowded it is around, not on search area
+        final int TARGET_CANDIDATES = 3;
+        List<Tank> nearest = board.getNearest(controlled.getPos(), Tank.class, TARGET_CANDIDATES, TARGET_RADIUS,
+                t -> t != controlled);
 
-        double closestDistance = Integer.MAX_VALUE;
-        double targetDistance;
+        // prefer targets that are not already surrounded by other bots, nor covered by other hostiles and fire
+        final double THREAT_DISTANCE = BoardCell.CELL_SIZE / 8.0;  // distance threat of one counts as
+        InfluenceMap influence = board.getInfluenceMap();
+        int ownSector = influence.getSector(controlled.getCell());
 
         Tank closestTarget = null;
+        double closestScore = Double.MAX_VALUE;
 
-        List<Entity> potentialTargetsList = board.getEntitiesAround(controlled.getPos(), SEARCH_CELLS);
-        for (Entity entity : potentialTargetsList) {
-            if (!(entity instanceof Tank) || entity == controlled) continue;
+        for (Tank target : nearest) {
+            int sector = influence.getSector(target.getCell());
+            int otherBots = influence.getFriendlyTanks(sector) - (sector == ownSector ? 1 : 0);
 
-            Tank target = (Tank) entity;
-
-            targetDistance = controlled.getDistanceTo(target);
-            if (targetDistance < closestDistance) {
-                closestDistance = targetDistance;
+            double score = controlled.getDistanceTo(target) + otherBots * BoardCell.CELL_SIZE * 2
+                    + influence.getThreat(sector) * THREAT_DISTANCE;
+            if (score < closestScore) {
+                closestScore = score;
                 closestTarget = target;
             }
         }
 
-        //
-        if (closestTarget != null && controlled.getDistanceTo(closestTarget) < TARGET_RADIUS) {
+        if (closestTarget != null) {
             targetKey = closestTarget.getKey();
 
             if (closestTarget != getTarget()) {
@@ -307,6 +395,25 @@ class EnemyBotAI {
             }
         }
 
+        board.getFlowFields().setPursuing(controlled, targetKey);
+
+    }
+
+    @Override
+    public void entityEntered(ProximitySensor sensor, Positionable entity) {
+        requestTargetDecision();
+    }
+
+    @Override
+    public void entityExited(ProximitySensor sensor, Positionable entity) {
+        requestTargetDecision();
+    }
+
+    private void requestTargetDecision() {
+        if (!targetDecisionNeeded) {
+            targetDecisionNeeded = true;
+            targetDecisionNeededTime = board.getTime();
+        }
     }
 
     public synchronized PathList<BoardCell> getPath() {
@@ -0,0 +1,156 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first integration field towards single target cell. Each cell stores direction of next step to target,
+ * so any number of entities of same movement class can follow it with one array read per step.
+ */
+public class FlowField {
+    private static final byte NO_DIRECTION = -1;
+
+    private static final int[] ROW_STEP = {-1, 0, +1, 0};
+    private static final int[] COL_STEP = {0, +1, 0, -1};
+
+    public final BoardCell target;
+
+    private final Board board;
+    private final Moveable entity;                          // defines obstacle rules when cells change
+    private final int rows;
+    private final int cols;
+    private final byte[] direction;                         // per cell: index of step towards target
+    private final int[] distance;                           // per cell: steps to target, or -1 if unreachable
+
+    FlowField(Board board, Moveable entity, BoardCell target) {
+        this.board = board;
+        this.entity = entity;
+        this.target = target;
+        this.rows = board.getRowCount();
+        this.cols = board.getColCount();
+
+        direction = new byte[rows * cols];
+        distance = new int[rows * cols];
+
+        Arrays.fill(direction, NO_DIRECTION);
+        Arrays.fill(distance, -1);
+
+        if (entity.cellHasObstacle(target)) return;         // nothing can reach obstacle cell
+
+        // uniform move cost, so dijkstra pass degenerates into breadth-first search from target
+        distance[target.row * cols + target.col] = 0;
+        propagate(target.row * cols + target.col);
+    }
+
+    /**
+     * Repairs field after obstacle state of cell changed. Cell that opened can only make paths shorter, so
+     * distances are lowered outwards from it until they stop improving. Cell that closed may cut paths going
+     * through it, and it's cheaper to build field anew than to find out which ones.
+     * @param cell cell which overlay has changed.
+     * @return false if field is obsolete and has to be rebuilt.
+     */
+    boolean cellChanged(BoardCell cell) {
+        int index = cell.row * cols + cell.col;
+
+        if (entity.cellHasObstacle(cell)) {
+            return distance[index] < 0;                     // unreachable cell does not carry any path
+        }
+
+        if (distance[index] >= 0) return true;              // already open
+
+        if (cell == target) {
+            distance[index] = 0;
+        } else {
+            for (int dir = 0; dir < 4; dir++) {
+                int next = neighbour(cell.row, cell.col, dir);
+                if (next < 0 || distance[next] < 0) continue;
+
+                if (distance[index] < 0 || distance[next] + 1 < distance[index]) {
+                    distance[index] = distance[next] + 1;
+                    direction[index] = (byte) dir;
+                }
+            }
+
+            if (distance[index] < 0) return true;           // opened, but still cut off from target
+        }
+
+        propagate(index);
+        return true;
+    }
+
+    /**
+     * Lowers distances of cells around given ones, breadth-first. Each cell is queued only when it's distance
+     * improves, so on repair only part of field that gets shorter paths is visited.
+     */
+    private void propagate(int from) {
+        int[] queue = new int[rows * cols];
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = from;
+
+        while (head < tail) {
+            int index = queue[head++];
+            int row = index / cols;
+            int col = index % cols;
+
+            for (int dir = 0; dir < 4; dir++) {
+                int next = neighbour(row, col, dir);
+                if (next < 0) continue;
+                if (distance[next] >= 0 && distance[next] <= distance[index] + 1) continue;
+                if (entity.cellHasObstacle(board.getCell(next / cols, next % cols))) continue;
+
+                distance[next] = distance[index] + 1;
+                direction[next] = (byte) ((dir + 2) % 4);   // neighbour steps back towards this cell
+                queue[tail++] = next;
+            }
+        }
+    }
+
+    private int neighbour(int row, int col, int dir) {
+        int nextRow = row + ROW_STEP[dir];
+        int nextCol = col + COL_STEP[dir];
+
+        if (nextRow < 0 || nextCol < 0 || nextRow >= rows || nextCol >= cols) return -1;
+
+        return nextRow * cols + nextCol;
+    }
+
+    /**
+     * Gets next cell on shortest path to target.
+     * @param from cell to step from.
+     * @return adjacent cell, or null if target is unreachable or already reached.
+     */
+    public BoardCell getNextCell(BoardCell from) {
+        int dir = direction[from.row * cols + from.col];
+        if (dir == NO_DIRECTION) return null;
+
+        return board.getCell(from.row + ROW_STEP[dir], from.col + COL_STEP[dir]);
+    }
+
+    /**
+     * Gets number of steps to target.
+     * @param from cell to measure from.
+     * @return number of steps, or -1 if target is unreachable.
+     */
+    public int getDistance(BoardCell from) {
+        return distance[from.row * cols + from.col];
+    }
+
+    /**
+     * Follows field directions, producing same path list PathSearch.find() does.
+     * @param from start cell, excluded from path.
+     * @return list of adjacent cells ending at target, or empty list if target is unreachable.
+     */
+    public PathList<BoardCell> getPath(BoardCell from) {
+        PathList<BoardCell> path = new PathList<>();
+
+        for (BoardCell cell = getNextCell(from); cell != null; cell = getNextCell(cell)) {
+            path.add(cell);
+        }
+
+        return path;
+    }
+}
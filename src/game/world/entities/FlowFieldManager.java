@@ -0,0 +1,118 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shares flow fields between entities heading to same target. One field is kept per movement class and target
+ * entity and it is rebuilt only when target moves into another cell. Also tracks who pursues whom, so single
+ * pursuers can use their own incremental path finder instead.
+ */
+public class FlowFieldManager {
+    private final Board board;
+
+    // movement class -> target entity key -> field towards target's last known cell
+    private final Map<Class<?>, Map<Short, FlowField>> fields = new HashMap<>();
+
+    // pursuer entity key -> target entity key
+    private final Map<Short, Short> pursuedTargets = new HashMap<>();
+
+    private int buildCount;                                 // number of fields built, for statistics
+    private int requestCount;                               // number of field requests, for statistics
+
+    public FlowFieldManager(Board board) {
+        this.board = board;
+    }
+
+    /**
+     * Gets flow field for entity towards target current cell, building it only if target changed cell.
+     * @param entity entity that will follow field, it's class defines obstacle rules.
+     * @param target entity to head to.
+     * @return flow field or null if target is off board.
+     */
+    public FlowField getFlowField(Moveable entity, Positionable target) {
+        requestCount++;
+
+        BoardCell targetCell = target.getCell();
+        if (targetCell == null) return null;
+
+        Map<Short, FlowField> byTarget = fields.get(entity.getClass());
+        if (byTarget == null) {
+            byTarget = new HashMap<>();
+            fields.put(entity.getClass(), byTarget);
+        }
+
+        FlowField field = byTarget.get(target.getKey());
+
+        if (field == null || field.target != targetCell) {
+            removeObsolete();
+
+            field = new FlowField(board, entity, targetCell);
+            byTarget.put(target.getKey(), field);
+            buildCount++;
+        }
+
+        return field;
+    }
+
+    /**
+     * Records target of pursuer, replacing previous one.
+     * @param pursuer entity that pursues.
+     * @param targetKey key of pursued entity or INVALID_UNIQUE_ID if pursuer has no target.
+     */
+    public void setPursuing(Entity pursuer, short targetKey) {
+        if (targetKey == EntityBase.INVALID_UNIQUE_ID) {
+            pursuedTargets.remove(pursuer.getKey());
+        } else {
+            pursuedTargets.put(pursuer.getKey(), targetKey);
+        }
+    }
+
+    /**
+     * Counts pursuers of target that are still on board.
+     * @param targetKey key of pursued entity.
+     * @return number of pursuers.
+     */
+    public int getPursuerCount(short targetKey) {
+        int count = 0;
+
+        for (Map.Entry<Short, Short> entry : pursuedTargets.entrySet()) {
+            if (entry.getValue() == targetKey && board.getEntity(entry.getKey()) != null) count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Repairs fields after obstacle state of cell changed, dropping ones that can't be repaired in place. Dropped
+     * fields are rebuilt on next request.
+     * @param cell cell which overlay has changed.
+     */
+    public void cellChanged(BoardCell cell) {
+        for (Map<Short, FlowField> byTarget : fields.values()) {
+            byTarget.values().removeIf(field -> !field.cellChanged(cell));
+        }
+    }
+
+    /**
+     * Drops fields of targets and pursuers that are no longer on board.
+     */
+    private void removeObsolete() {
+        for (Map<Short, FlowField> byTarget : fields.values()) {
+            byTarget.keySet().removeIf(key -> board.getEntity(key) == null);
+        }
+
+        pursuedTargets.keySet().removeIf(key -> board.getEntity(key) == null);
+    }
+
+    public int getBuildCount() {
+        return buildCount;
+    }
+
+    public int getRequestCount() {
+        return requestCount;
+    }
+}
@@ -0,0 +1,132 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+
+/**
+ * Coarse map of board sectors shared by all bots. Each sector holds number of hostile (player) tanks, friendly
+ * (bot) tanks and bullets in it, and damage recently taken in it. Counts are updated only when entity moves into
+ * another sector, so reading map costs the same regardless of how many entities are around.
+ */
+public class InfluenceMap {
+    public static final int SECTOR_CELLS = 4;               // sector is square of this many cells on each side
+    private static final double DAMAGE_HALF_LIFE = 5000;    // milliseconds for recent damage to fade by half
+
+    private final Board board;
+    private final int sectorRows;
+    private final int sectorCols;
+
+    private final int[] hostileTanks;
+    private final int[] friendlyTanks;
+    private final int[] bullets;
+    private final double[] damage;                          // damage at the moment of damageTime
+    private final long[] damageTime;
+
+    /**
+     * Constructs map and counts entities already on board.
+     * @param board board to cover.
+     */
+    public InfluenceMap(Board board) {
+        this.board = board;
+        sectorRows = (board.getRowCount() + SECTOR_CELLS - 1) / SECTOR_CELLS;
+        sectorCols = (board.getColCount() + SECTOR_CELLS - 1) / SECTOR_CELLS;
+
+        int size = sectorRows * sectorCols;
+        hostileTanks = new int[size];
+        friendlyTanks = new int[size];
+        bullets = new int[size];
+        damage = new double[size];
+        damageTime = new long[size];
+
+        for (int row = 0; row < board.getRowCount(); row++) {
+            for (int col = 0; col < board.getColCount(); col++) {
+                BoardCell cell = board.getCell(row, col);
+
+                for (Entity entity : cell.getEntitiesUnmodifiable()) {
+                    count(entity, getSector(cell), +1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves entity from one sector to another if cell change crossed sector boundary.
+     * @param from previous cell or null if entity was off board.
+     * @param to new cell or null if entity left board.
+     */
+    public void entityMoved(Positionable entity, BoardCell from, BoardCell to) {
+        int fromSector = from == null ? -1 : getSector(from);
+        int toSector = to == null ? -1 : getSector(to);
+
+        if (fromSector == toSector) return;
+
+        if (fromSector >= 0) count(entity, fromSector, -1);
+        if (toSector >= 0) count(entity, toSector, +1);
+    }
+
+    /**
+     * Records damage taken in cell.
+     * @param cell cell of damaged entity.
+     * @param amount hit points taken.
+     */
+    public void entityDamaged(BoardCell cell, int amount) {
+        int sector = getSector(cell);
+        long now = board.getTime();
+
+        damage[sector] = getRecentDamage(sector, now) + amount;
+        damageTime[sector] = now;
+    }
+
+    private void count(Entity entity, int sector, int delta) {
+        if (entity instanceof Enemy) {
+            friendlyTanks[sector] += delta;
+        } else if (entity instanceof Tank) {
+            hostileTanks[sector] += delta;
+        } else if (entity instanceof Bullet) {
+            bullets[sector] += delta;
+        }
+    }
+
+    private double getRecentDamage(int sector, long now) {
+        if (damage[sector] == 0) return 0;
+        return damage[sector] * Math.pow(0.5, (now - damageTime[sector]) / DAMAGE_HALF_LIFE);
+    }
+
+    public int getSector(BoardCell cell) {
+        return (cell.row / SECTOR_CELLS) * sectorCols + cell.col / SECTOR_CELLS;
+    }
+
+    public int getSectorCount() {
+        return sectorRows * sectorCols;
+    }
+
+    public int getHostileTanks(int sector) {
+        return hostileTanks[sector];
+    }
+
+    public int getFriendlyTanks(int sector) {
+        return friendlyTanks[sector];
+    }
+
+    public int getBullets(int sector) {
+        return bullets[sector];
+    }
+
+    /**
+     * Gets damage taken in sector, fading with time.
+     * @param sector sector index.
+     * @return amount of hit points, halved every DAMAGE_HALF_LIFE milliseconds.
+     */
+    public double getRecentDamage(int sector) {
+        return getRecentDamage(sector, board.getTime());
+    }
+
+    /**
+     * Gets how dangerous sector is for bots: hostile tanks, flying bullets and recent damage.
+     * @param sector sector index.
+     * @return threat value, 0 if sector is calm.
+     */
+    public double getThreat(int sector) {
+        return hostileTanks[sector] * 4 + bullets[sector] + getRecentDamage(sector);
+    }
+}
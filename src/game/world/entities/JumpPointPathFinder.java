@@ -0,0 +1,368 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static game.util.Debug.log;
+
+/**
+ * Jump point search for 4-connected grids with uniform move cost.
+ * <p>
+ * Canonical paths are horizontal-first: a vertical move may be followed by any move, while a horizontal move may turn
+ * only where the turn could not have been made one cell earlier (forced neighbour). Jump distances for all four
+ * directions are precomputed once per movement class and stored per cell, so a jump is a single array read.
+ */
+public class JumpPointPathFinder implements PathSearch {
+    private static final int NORTH = 0;
+    private static final int EAST = 1;
+    private static final int SOUTH = 2;
+    private static final int WEST = 3;
+    private static final int NONE = -1;
+
+    private static final int[] ROW_STEP = {-1, 0, +1, 0};
+    private static final int[] COL_STEP = {0, +1, 0, -1};
+
+    private static final int MOVE_COST = 10;                // same as PathFinder straight move cost
+
+    /**
+     * Jump distances of one movement class. For each cell and direction value is either positive number of steps
+     * to next jump point, or zero/negative number of free steps until obstacle or board edge.
+     */
+    private static class JumpTable {
+        private final Moveable entity;                      // defines obstacle rules when cells change
+        private final int rows;
+        private final int cols;
+        private final boolean[] blocked;
+        private final short[] distance;
+
+        JumpTable(Board board, Moveable entity) {
+            this.entity = entity;
+            rows = board.getRowCount();
+            cols = board.getColCount();
+            blocked = new boolean[rows * cols];
+            distance = new short[rows * cols * 4];
+
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    blocked[row * cols + col] = entity.cellHasObstacle(board.getCell(row, col));
+                }
+            }
+
+            // horizontal distances depend on neighbour rows only, vertical ones depend on horizontal
+            for (int row = 0; row < rows; row++) computeRow(row);
+            for (int col = 0; col < cols; col++) computeColumn(col);
+        }
+
+        /**
+         * Repairs distances around cell which obstacle state has changed. Only rows next to cell can get other
+         * horizontal distances, and only columns where those rows gained or lost jump points, or column of cell
+         * itself, can get other vertical ones - the rest of table stays as it is.
+         */
+        void cellChanged(BoardCell cell) {
+            boolean nowBlocked = entity.cellHasObstacle(cell);
+            if (blocked[cell.row * cols + cell.col] == nowBlocked) return;
+
+            blocked[cell.row * cols + cell.col] = nowBlocked;
+
+            int row1 = Math.max(0, cell.row - 1);
+            int row2 = Math.min(rows - 1, cell.row + 1);
+            boolean[] columnChanged = new boolean[cols];
+            columnChanged[cell.col] = true;
+
+            for (int row = row1; row <= row2; row++) {
+                boolean[] wasJumpPoint = new boolean[cols];
+                for (int col = 0; col < cols; col++) wasJumpPoint[col] = isJumpPoint(row, col, NORTH);
+
+                computeRow(row);
+
+                for (int col = 0; col < cols; col++) {
+                    if (isJumpPoint(row, col, NORTH) != wasJumpPoint[col]) columnChanged[col] = true;
+                }
+            }
+
+            for (int col = 0; col < cols; col++) {
+                if (columnChanged[col]) computeColumn(col);
+            }
+        }
+
+        private void computeRow(int row) {
+            for (int col = cols - 1; col >= 0; col--) distance[index(row, col, EAST)] = step(row, col, EAST);
+            for (int col = 0; col < cols; col++) distance[index(row, col, WEST)] = step(row, col, WEST);
+        }
+
+        private void computeColumn(int col) {
+            for (int row = 0; row < rows; row++) distance[index(row, col, NORTH)] = step(row, col, NORTH);
+            for (int row = rows - 1; row >= 0; row--) distance[index(row, col, SOUTH)] = step(row, col, SOUTH);
+        }
+
+        int index(int row, int col, int dir) {
+            return (row * cols + col) * 4 + dir;
+        }
+
+        boolean isBlocked(int row, int col) {
+            return row < 0 || col < 0 || row >= rows || col >= cols || blocked[row * cols + col];
+        }
+
+        int getDistance(int row, int col, int dir) {
+            return distance[index(row, col, dir)];
+        }
+
+        /**
+         * Checks if horizontal move into cell has to turn here, because cell behind is blocked in that row.
+         */
+        boolean hasForcedNeighbour(int row, int col, int dir, int turnDir) {
+            int turnRow = row + ROW_STEP[turnDir];
+            return !isBlocked(turnRow, col) && isBlocked(turnRow, col - COL_STEP[dir]);
+        }
+
+        private boolean isJumpPoint(int row, int col, int dir) {
+            if (dir == EAST || dir == WEST) {
+                return hasForcedNeighbour(row, col, dir, NORTH) || hasForcedNeighbour(row, col, dir, SOUTH);
+            }
+
+            // vertical move stops where horizontal scan can reach a jump point
+            return getDistance(row, col, EAST) > 0 || getDistance(row, col, WEST) > 0;
+        }
+
+        private short step(int row, int col, int dir) {
+            int nextRow = row + ROW_STEP[dir];
+            int nextCol = col + COL_STEP[dir];
+
+            if (isBlocked(nextRow, nextCol)) return 0;
+            if (isJumpPoint(nextRow, nextCol, dir)) return 1;
+
+            int next = getDistance(nextRow, nextCol, dir);
+            return (short) (next > 0 ? next + 1 : next - 1);
+        }
+    }
+
+    private final Board board;
+    private final int rows;
+    private final int cols;
+    private final Map<Class<?>, JumpTable> jumpTables = new HashMap<>();
+
+    // search state, reused between calls and invalidated by search stamp instead of clearing
+    private final int[] g;
+    private final int[] parent;
+    private final int[] arrival;
+    private final int[] stamp;
+    private final boolean[] closed;
+    private int currentStamp;
+
+    private int[] heapNode = new int[64];
+    private int[] heapKey = new int[64];
+    private int heapSize;
+
+    private int expandedNodeCount;
+
+    public JumpPointPathFinder(Board board) {
+        this.board = board;
+        this.rows = board.getRowCount();
+        this.cols = board.getColCount();
+
+        int size = rows * cols;
+        g = new int[size];
+        parent = new int[size];
+        arrival = new int[size];
+        stamp = new int[size];
+        closed = new boolean[size];
+
+        log(String.format("Setting up %s with %d rows, %d cols", getClass().getSimpleName(), rows, cols));
+    }
+
+    private JumpTable getJumpTable(Moveable entity) {
+        // entities of same class share obstacle rules, so they share precomputed jump distances
+        JumpTable table = jumpTables.get(entity.getClass());
+
+        if (table == null) {
+            table = new JumpTable(board, entity);
+            jumpTables.put(entity.getClass(), table);
+        }
+
+        return table;
+    }
+
+    @Override
+    public void cellChanged(BoardCell cell) {
+        for (JumpTable table : jumpTables.values()) table.cellChanged(cell);
+    }
+
+    @Override
+    public PathList<BoardCell> find(Moveable entity, BoardCell destinationCell) {
+        expandedNodeCount = 0;
+
+        PathList<BoardCell> path = new PathList<>();
+        BoardCell startCell = entity.getCell();
+
+        if (startCell == null || destinationCell == null || startCell == destinationCell) return path;
+
+        JumpTable table = getJumpTable(entity);
+        if (table.isBlocked(destinationCell.row, destinationCell.col)) return path;
+
+        int start = startCell.row * cols + startCell.col;
+        int goal = destinationCell.row * cols + destinationCell.col;
+
+        currentStamp++;
+        heapSize = 0;
+
+        visit(start, 0, start, NONE, destinationCell);
+
+        while (heapSize > 0) {
+            int node = pop();
+
+            if (closed[node]) continue;                     // stale heap entry, node already expanded
+            closed[node] = true;
+            expandedNodeCount++;
+
+            if (node == goal) {
+                return makePath(start, goal);
+            }
+
+            int row = node / cols;
+            int col = node % cols;
+
+            for (int dir = NORTH; dir <= WEST; dir++) {
+                if (!isSuccessorDirection(table, row, col, arrival[node], dir)) continue;
+
+                int next = jump(table, row, col, dir, destinationCell.row, destinationCell.col);
+                if (next < 0) continue;
+
+                int steps = Math.abs(next / cols - row) + Math.abs(next % cols - col);
+                visit(next, g[node] + steps * MOVE_COST, node, dir, destinationCell);
+            }
+        }
+
+        return path;
+    }
+
+    @Override
+    public int getExpandedNodeCount() {
+        return expandedNodeCount;
+    }
+
+    /**
+     * Pruning rules of canonical horizontal-first ordering.
+     */
+    private boolean isSuccessorDirection(JumpTable table, int row, int col, int arrivalDir, int dir) {
+        if (arrivalDir == NONE) return true;                // start node expands in all directions
+        if (dir == (arrivalDir + 2) % 4) return false;      // never go back
+
+        if (arrivalDir == NORTH || arrivalDir == SOUTH) return true;  // vertical move can be followed by any
+
+        if (dir == arrivalDir) return true;                 // horizontal move continues naturally
+        return table.hasForcedNeighbour(row, col, arrivalDir, dir);  // and turns only when forced
+    }
+
+    /**
+     * Jumps from cell in given direction using precomputed distances and goal bounding.
+     * @return index of cell reached or -1 if direction is a dead end.
+     */
+    private int jump(JumpTable table, int row, int col, int dir, int goalRow, int goalCol) {
+        int distance = table.getDistance(row, col, dir);
+        int free = Math.abs(distance);
+
+        // goal lies on this line: stop at goal itself, or at goal row when moving vertically
+        int goalSteps = (dir == EAST || dir == WEST)
+                ? (goalRow == row ? (goalCol - col) * COL_STEP[dir] : 0)
+                : (goalRow - row) * ROW_STEP[dir];
+
+        if (goalSteps > 0 && goalSteps <= free) {
+            return (row + ROW_STEP[dir] * goalSteps) * cols + col + COL_STEP[dir] * goalSteps;
+        }
+
+        if (distance > 0) {
+            return (row + ROW_STEP[dir] * distance) * cols + col + COL_STEP[dir] * distance;
+        }
+
+        return -1;
+    }
+
+    private void visit(int node, int cost, int from, int dir, BoardCell destination) {
+        if (stamp[node] != currentStamp) {
+            stamp[node] = currentStamp;
+            closed[node] = false;
+        } else if (closed[node] || g[node] <= cost) {
+            return;
+        }
+
+        g[node] = cost;
+        parent[node] = from;
+        arrival[node] = dir;
+
+        int h = (Math.abs(node / cols - destination.row) + Math.abs(node % cols - destination.col)) * MOVE_COST;
+        push(node, cost + h);
+    }
+
+    /**
+     * Expands jump points into list of adjacent cells, so bots can follow it same way as A-star path.
+     */
+    private PathList<BoardCell> makePath(int start, int goal) {
+        List<BoardCell> reversed = new ArrayList<>();
+
+        for (int node = goal; node != start; node = parent[node]) {
+            int from = parent[node];
+            int rowStep = Integer.signum(node / cols - from / cols);
+            int colStep = Integer.signum(node % cols - from % cols);
+
+            for (int row = node / cols, col = node % cols; row != from / cols || col != from % cols; ) {
+                reversed.add(board.getCell(row, col));
+                row -= rowStep;
+                col -= colStep;
+            }
+        }
+
+        PathList<BoardCell> path = new PathList<>();
+        for (int i = reversed.size() - 1; i >= 0; i--) {
+            path.add(reversed.get(i));
+        }
+
+        return path;
+    }
+
+    private void push(int node, int key) {
+        if (heapSize == heapNode.length) {
+            heapNode = Arrays.copyOf(heapNode, heapSize * 2);
+            heapKey = Arrays.copyOf(heapKey, heapSize * 2);
+        }
+
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) / 2;
+            if (heapKey[up] <= key) break;
+            heapNode[i] = heapNode[up];
+            heapKey[i] = heapKey[up];
+            i = up;
+        }
+
+        heapNode[i] = node;
+        heapKey[i] = key;
+    }
+
+    private int pop() {
+        int result = heapNode[0];
+        int node = heapNode[--heapSize];
+        int key = heapKey[heapSize];
+
+        int i = 0;
+        while (true) {
+            int child = i * 2 + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && heapKey[child + 1] < heapKey[child]) child++;
+            if (heapKey[child] >= key) break;
+            heapNode[i] = heapNode[child];
+            heapKey[i] = heapKey[child];
+            i = child;
+        }
+
+        heapNode[i] = node;
+        heapKey[i] = key;
+
+        return result;
+    }
+}
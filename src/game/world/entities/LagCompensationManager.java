@@ -0,0 +1,123 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+import game.world.Bounds;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps recent positions of entities bullets can hit, so bullet fired by lagging client can be tested against
+ * targets where that client saw them, not where they are now on server. Each entity has fixed-size history, so
+ * memory is bounded by rewind depth and number of entities.
+ */
+public class LagCompensationManager {
+    public static final int DEFAULT_MAX_REWIND = 300;       // milliseconds, deepest rewind allowed
+    static final int SAMPLE_INTERVAL = 10;                  // logic milliseconds between recorded positions
+
+    private final Board board;
+    private final Map<Short, PositionHistory> histories = new HashMap<>();
+
+    private int maxRewind;
+    private double maxSpeed;                                // fastest tracked entity, limits how far rewind can move it
+
+    public LagCompensationManager(Board board, int maxRewind) {
+        this.board = board;
+        this.maxRewind = maxRewind;
+    }
+
+    public int getMaxRewind() {
+        return maxRewind;
+    }
+
+    /**
+     * Sets rewind depth. Histories recorded so far are dropped, as they have capacity of previous depth.
+     * @param maxRewind milliseconds, deepest rewind allowed.
+     */
+    public void setMaxRewind(int maxRewind) {
+        this.maxRewind = maxRewind;
+        histories.clear();
+    }
+
+    public int getHistoryCount() {
+        return histories.size();
+    }
+
+    /**
+     * Limits requested rewind to configured depth.
+     * @param rewind milliseconds, usually latency of client.
+     * @return rewind that can be served from history.
+     */
+    public int clampRewind(int rewind) {
+        return Math.max(0, Math.min(rewind, maxRewind));
+    }
+
+    /**
+     * Records positions of entities, called by board after each update.
+     */
+    public void record() {
+        long now = board.getLogicTime();
+        if (now % SAMPLE_INTERVAL != 0) return;
+
+        // drop histories of removed entities, key can be reused by new entity
+        histories.values().removeIf(h -> board.getEntity(h.entity.getKey()) != h.entity);
+
+        for (Entity entity : board.getActiveEntitiesUnmodifiable()) {
+            if (!isTracked(entity)) continue;
+
+            PositionHistory history = histories.get(entity.getKey());
+
+            if (history == null) {
+                history = new PositionHistory((Collidable) entity, maxRewind / SAMPLE_INTERVAL + 2);
+                histories.put(entity.getKey(), history);
+
+                EntityTypeInfo info = entity.getTypeInfo();
+                maxSpeed = Math.max(maxSpeed, Math.max(info.maxForwardSpeed, info.maxReverseSpeed));
+            }
+
+            Collidable collidable = (Collidable) entity;
+            history.record(now, collidable.getX(), collidable.getY());
+        }
+    }
+
+    /**
+     * Finds entities that could be at given position some time ago.
+     * @param subject entity looking for obstacles.
+     * @param pos position of subject.
+     * @param rewind milliseconds to look back.
+     * @return potential obstacles, their rewound bounds are given by getBoundsAt().
+     */
+    public List<Collidable> getPotentialObstacles(Collidable subject, Point pos, int rewind) {
+        double radius = BoardCell.CELL_SIZE * 2 + maxSpeed * clampRewind(rewind);
+        List<Collidable> obstacles = new ArrayList<>();
+
+        for (Collidable candidate : board.getWithinRadius(pos, radius, Collidable.class)) {
+            if (subject.canCollideWith(candidate)) obstacles.add(candidate);
+        }
+
+        return obstacles;
+    }
+
+    /**
+     * Gets bounds entity had some time ago.
+     * @param rewind milliseconds to look back.
+     * @return rewound bounds, or current bounds if entity has no history for that time.
+     */
+    public Bounds getBoundsAt(Collidable entity, int rewind) {
+        PositionHistory history = histories.get(entity.getKey());
+        if (history == null || history.entity != entity) return entity.getBounds();
+
+        Point pos = history.getPositionAt(board.getLogicTime() - clampRewind(rewind));
+        if (pos == null) return entity.getBounds();
+
+        return entity.getTypeInfo().bounds.centered(pos.x, pos.y);
+    }
+
+    private static boolean isTracked(Entity entity) {
+        // bullets do not collide with each other, so nothing needs to see where they were
+        return entity instanceof Collidable && !(entity instanceof Bullet);
+    }
+}
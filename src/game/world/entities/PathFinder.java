@@ -11,7 +11,7 @@ import static game.util.Debug.log;
 /**
  * A-star implementation of path finding.
  */
-public class PathFinder {
+public class PathFinder implements PathSearch {
     private static final boolean    ALLOW_DIAGONAL_MOVEMENT = false;
 
     private static class PathCell {
@@ -108,6 +108,8 @@ public class PathFinder {
 
     private final PathCell[][] cells;
 
+    private int expandedNodeCount;                          // nodes closed by last find(), for statistics
+
     private static PathCell getPathCellMinimumF(Set<PathCell> open, PathCell destination) {
         PathCell result = null;
         int minCost = Integer.MAX_VALUE;
@@ -163,8 +165,10 @@ public class PathFinder {
      * @param destinationCell destination on board.
      * @return list of board cells with path or empty list if no path was found.
      */
+    @Override
     public PathList<BoardCell> find(Moveable entity, BoardCell destinationCell) {
         reset();
+        expandedNodeCount = 0;
 
         boolean found;
 
@@ -180,10 +184,20 @@ public class PathFinder {
 
             closed.add(current);
             open.remove(current);
+            expandedNodeCount++;
 
             PathCell[] adjacent = getAdjacentCells(current);
 
             for (PathCell cell : adjacent) {
+                int dx = Math.abs(current.getCol() - cell.getCol());
+                int dy = Math.abs(current.getRow() - cell.getRow());
+                boolean diagonal = (dx == 1 && dy == 1);
+
+                // diagonal cells must be skipped before relaxing, otherwise an open cell may get diagonal parent
+                if (diagonal && !ALLOW_DIAGONAL_MOVEMENT) {
+                    continue;
+                }
+
                 if (entity.cellHasObstacle(cell.getBoardCell())) {
                     continue;
                 }
@@ -194,16 +208,6 @@ public class PathFinder {
 
                 if (!open.contains(cell)) {
 
-                    if (!ALLOW_DIAGONAL_MOVEMENT) {
-                        int dx = Math.abs(current.getCol() - cell.getCol());
-                        int dy = Math.abs(current.getRow() - cell.getRow());
-
-                        if (dx == 1 && dy == 1) {
-                            continue;
-                        }
-                    }
-
-
                     open.add(cell);
                     cell.parent = current;
                     cell.calcG();
@@ -211,7 +215,10 @@ public class PathFinder {
 
                 } else {
 
-                    if (cell.getG() < current.getG()) {
+                    int moveCost = diagonal ? PathCell.DIAGONAL_MOVE_COST : PathCell.STRAIGHT_MOVE_COST;
+
+                    // re-parent only if path through current is cheaper than one already known
+                    if (current.getG() + moveCost < cell.getG()) {
                         cell.parent = current;
                         cell.calcG();
                     }
@@ -232,6 +239,11 @@ public class PathFinder {
         return path;
     }
 
+    @Override
+    public int getExpandedNodeCount() {
+        return expandedNodeCount;
+    }
+
     private PathCell[] getAdjacentCells(PathCell current) {
         int rowStart    = Math.max(current.getRow() - 1, 0);
         int rowEnd = Math.min(current.getRow() + 1, cells.length - 1);
@@ -0,0 +1,9 @@
+package game.world.entities;
+
+/**
+ * Path finding algorithms available to board.
+ */
+public enum PathFinderType {
+    A_STAR,                                                 // generic A-star, see PathFinder
+    JUMP_POINT                                              // jump point search for 4-connected uniform-cost grids
+}
@@ -0,0 +1,30 @@
+package game.world.entities;
+
+import game.world.BoardCell;
+
+/**
+ * A path finding algorithm that can be selected per board.
+ */
+public interface PathSearch {
+
+    /**
+     * Finds path for entity from it's current cell to destination.
+     * @param entity entity to find path for, used to test if cells are obstacles or not.
+     * @param destinationCell destination on board.
+     * @return list of adjacent board cells, excluding start, or empty list if no path was found.
+     */
+    PathList<BoardCell> find(Moveable entity, BoardCell destinationCell);
+
+    /**
+     * Gets number of nodes expanded by last find() call, used to compare algorithms.
+     * @return number of nodes moved to closed list.
+     */
+    int getExpandedNodeCount();
+
+    /**
+     * Re-reads obstacle state of cell. Algorithms that keep no state between calls can ignore it.
+     * @param cell cell which overlay has changed.
+     */
+    default void cellChanged(BoardCell cell) {
+    }
+}
@@ -0,0 +1,60 @@
+package game.world.entities;
+
+/**
+ * Fixed-size ring buffer of recent positions of single entity. Arrays are allocated once, so recording position does
+ * not create garbage, and memory taken does not grow with time.
+ */
+final class PositionHistory {
+    final Collidable entity;
+
+    private final long[] times;
+    private final double[] xs;
+    private final double[] ys;
+    private int newest = -1;                                // index of newest sample
+    private int size;
+
+    PositionHistory(Collidable entity, int capacity) {
+        this.entity = entity;
+        this.times = new long[capacity];
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+    }
+
+    int getCapacity() {
+        return times.length;
+    }
+
+    void record(long time, double x, double y) {
+        newest = (newest + 1) % times.length;
+        times[newest] = time;
+        xs[newest] = x;
+        ys[newest] = y;
+
+        if (size < times.length) size++;
+    }
+
+    /**
+     * Gets position entity had at given time, interpolating between samples.
+     * @param time logic time to look at.
+     * @return position, oldest position if time is older than history, or null if time is newer than history.
+     */
+    Point getPositionAt(long time) {
+        if (size == 0 || time >= times[newest]) return null;
+
+        int later = newest;
+
+        for (int i = 1; i < size; i++) {
+            int earlier = (newest - i + times.length) % times.length;
+
+            if (times[earlier] <= time) {
+                double t = (double) (time - times[earlier]) / (times[later] - times[earlier]);
+                return new Point(xs[earlier] + (xs[later] - xs[earlier]) * t,
+                        ys[earlier] + (ys[later] - ys[earlier]) * t);
+            }
+
+            later = earlier;
+        }
+
+        return new Point(xs[later], ys[later]);                // older than history - best known position
+    }
+}
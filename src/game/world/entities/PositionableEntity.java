@@ -66,6 +66,11 @@ abstract class PositionableEntity extends EntityBase implements Positionable {
             new_cell.insertEntity(this);
         }
 
+        // this is the only place entity crosses cell boundary, so proximity sensors are fed from here
+        if (new_cell != old_cell && getBoard() != null) {
+            getBoard().entityCellChanged(this, old_cell, new_cell);
+        }
+
     }
 
     @Override
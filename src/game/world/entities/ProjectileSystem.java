@@ -0,0 +1,242 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+import game.world.Bounds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.Math.*;
+
+/**
+ * Moves all bullets of board in one pass. Bullet never turns or accelerates after it's fired, so instead of running
+ * generic movement of each bullet entity, it's position, step and remaining range are kept in primitive arrays and
+ * advanced together. Bullet entities are still registered on board - they carry bullet state to clients and take
+ * part in collisions of other entities, but they do not move themselves.
+ */
+public class ProjectileSystem {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Board board;
+    private final int[] targets;                            // per cell: number of entities bullets can hit
+    private final List<Collidable> hits = new ArrayList<>();  // reused for each bullet, to resolve after scanning
+
+    private Bullet[] bullets = new Bullet[INITIAL_CAPACITY];
+    private short[] ownerKeys = new short[INITIAL_CAPACITY];
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] dx = new double[INITIAL_CAPACITY];     // step per logic millisecond
+    private double[] dy = new double[INITIAL_CAPACITY];
+    private double[] nextX = new double[INITIAL_CAPACITY];  // attempted position of this tick
+    private double[] nextY = new double[INITIAL_CAPACITY];
+    private double[] range = new double[INITIAL_CAPACITY];  // remaining distance before self destruction
+    private double[] speed = new double[INITIAL_CAPACITY];
+    private int count;
+
+    /**
+     * Constructs system and counts entities bullets can hit already on board.
+     * @param board board to move bullets of.
+     */
+    public ProjectileSystem(Board board) {
+        this.board = board;
+        this.targets = new int[board.getRowCount() * board.getColCount()];
+
+        for (int row = 0; row < board.getRowCount(); row++) {
+            for (int col = 0; col < board.getColCount(); col++) {
+                BoardCell cell = board.getCell(row, col);
+
+                for (Entity entity : cell.getEntitiesUnmodifiable()) {
+                    if (isTarget(entity)) targets[getCellIndex(cell)]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps count of targets in cells, so cells crowded with bullets only are not scanned.
+     * @param from previous cell or null if entity was off board.
+     * @param to new cell or null if entity left board.
+     */
+    public void entityMoved(Positionable entity, BoardCell from, BoardCell to) {
+        if (!isTarget(entity)) return;
+
+        if (from != null) targets[getCellIndex(from)]--;
+        if (to != null) targets[getCellIndex(to)]++;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Takes over movement of bullet, that already has it's position, heading and speed set.
+     * @param bullet bullet fired.
+     */
+    public void add(Bullet bullet) {
+        if (count == bullets.length) grow();
+
+        double heading = toRadians(bullet.getHeading());
+        double step = bullet.getMoveSpeed();
+
+        bullets[count] = bullet;
+        ownerKeys[count] = bullet.getParentKey();
+        x[count] = bullet.getX();
+        y[count] = bullet.getY();
+        dx[count] = sin(heading) * step;                    // same as MoveableEntity.getNextPosition()
+        dy[count] = -cos(heading) * step;
+        range[count] = bullet.getTypeInfo().maxRange;
+        speed[count] = step;
+        count++;
+
+        bullet.setBatched(true);
+    }
+
+    /**
+     * Advances all bullets by one logic millisecond, called by board before entities are updated.
+     */
+    public void update() {
+        removeGone();
+
+        // integrate all at once: simple loop over primitive arrays that JIT compiler can vectorize
+        for (int i = 0; i < count; i++) {
+            nextX[i] = x[i] + dx[i];
+            nextY[i] = y[i] + dy[i];
+            range[i] -= speed[i];
+        }
+
+        for (int i = 0; i < count; i++) {
+            Bullet bullet = bullets[i];
+
+            if (hitTest(i)) continue;                       // bullet hit something - it stays and explodes
+
+            x[i] = nextX[i];
+            y[i] = nextY[i];
+            bullet.setPos(x[i], y[i]);                      // move entity, so it's cell and network state follow
+
+            if (range[i] < 0) {
+                bullet.takeDamage(bullet.getHitPoints());   // self destruct
+            }
+        }
+    }
+
+    /**
+     * Tests step of bullet against obstacle cells and collidable entities in cells crossed by step. Step is shorter
+     * than cell, so walking cells of swept bounds is the grid raycast of this step.
+     * @return true if bullet hit something.
+     */
+    private boolean hitTest(int i) {
+        Bullet bullet = bullets[i];
+        Bounds bounds = bullet.getTypeInfo().bounds.centered(nextX[i], nextY[i]);
+        double halfWidth = bounds.getWidth() / 2;
+        double halfHeight = bounds.getHeight() / 2;
+
+        int col1 = max(0, BoardCell.xToCol(min(x[i], nextX[i]) - halfWidth));
+        int col2 = min(board.getColCount() - 1, BoardCell.xToCol(max(x[i], nextX[i]) + halfWidth));
+        int row1 = max(0, BoardCell.yToRow(min(y[i], nextY[i]) - halfHeight));
+        int row2 = min(board.getRowCount() - 1, BoardCell.yToRow(max(y[i], nextY[i]) + halfHeight));
+
+        boolean hit = false;
+
+        // obstacle bounds are inside of their cell, so only cells crossed can block
+        for (int row = row1; row <= row2; row++) {
+            for (int col = col1; col <= col2; col++) {
+                BoardCell cell = board.getCell(row, col);
+                if (!bullet.cellHasObstacle(cell)) continue;
+
+                Bounds obstacleBounds = cell.getObstacleBounds();
+
+                if (obstacleBounds != null && bounds.collidesWith(obstacleBounds)) {
+                    bullet.collideWithCell(cell);           // destructible wall takes damage
+                    hit = true;
+                }
+            }
+        }
+
+        hits.clear();
+
+        if (bullet.getRewind() > 0) {                       // lagging shooter - targets are where client saw them
+            LagCompensationManager lagCompensation = board.getLagCompensation();
+            Point pos = new Point(nextX[i], nextY[i]);
+
+            for (Collidable obstacle : lagCompensation.getPotentialObstacles(bullet, pos, bullet.getRewind())) {
+                if (bounds.overlap(lagCompensation.getBoundsAt(obstacle, bullet.getRewind()))) hits.add(obstacle);
+            }
+        } else {
+            // entities can stick out of their cell, so one more cell around is searched
+            for (int row = max(0, row1 - 1); row <= min(board.getRowCount() - 1, row2 + 1); row++) {
+                for (int col = max(0, col1 - 1); col <= min(board.getColCount() - 1, col2 + 1); col++) {
+                    if (targets[row * board.getColCount() + col] == 0) continue;
+
+                    for (Entity entity : board.getCell(row, col).getEntitiesUnmodifiable()) {
+                        if (!isTarget(entity)) continue;
+                        if (entity.getKey() == ownerKeys[i]) continue;  // do not hit shooter
+                        if (!bullet.canCollideWith(entity)) continue;   // same rules as any other collision
+
+                        Collidable obstacle = (Collidable) entity;
+                        if (bounds.overlap(obstacle.getBounds())) hits.add(obstacle);
+                    }
+                }
+            }
+        }
+
+        // collisions are resolved after scanning, as they can add entities to cells scanned
+        for (Collidable obstacle : hits) {
+            bullet.collideWith(obstacle);
+            obstacle.collideWith(bullet);
+            hit = true;
+        }
+
+        return hit;
+    }
+
+    /**
+     * Drops bullets that exploded or were removed from board, keeping order of the rest.
+     */
+    private void removeGone() {
+        int kept = 0;
+
+        for (int i = 0; i < count; i++) {
+            Bullet bullet = bullets[i];
+            if (bullet.isDead() || board.getEntity(bullet.getKey()) != bullet) continue;
+
+            bullets[kept] = bullet;
+            ownerKeys[kept] = ownerKeys[i];
+            x[kept] = x[i];
+            y[kept] = y[i];
+            dx[kept] = dx[i];
+            dy[kept] = dy[i];
+            range[kept] = range[i];
+            speed[kept] = speed[i];
+            kept++;
+        }
+
+        Arrays.fill(bullets, kept, count, null);
+        count = kept;
+    }
+
+    private int getCellIndex(BoardCell cell) {
+        return cell.row * board.getColCount() + cell.col;
+    }
+
+    private static boolean isTarget(Entity entity) {
+        // bullets do not hit each other
+        return entity instanceof Collidable && !(entity instanceof Bullet);
+    }
+
+    private void grow() {
+        int capacity = bullets.length * 2;
+
+        bullets = Arrays.copyOf(bullets, capacity);
+        ownerKeys = Arrays.copyOf(ownerKeys, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        dx = Arrays.copyOf(dx, capacity);
+        dy = Arrays.copyOf(dy, capacity);
+        nextX = Arrays.copyOf(nextX, capacity);
+        nextY = Arrays.copyOf(nextY, capacity);
+        range = Arrays.copyOf(range, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+    }
+}
@@ -0,0 +1,9 @@
+package game.world.entities;
+
+/**
+ * Receives events of entities coming in or out of proximity sensor's area.
+ */
+public interface ProximityListener {
+    void entityEntered(ProximitySensor sensor, Positionable entity);
+    void entityExited(ProximitySensor sensor, Positionable entity);
+}
@@ -0,0 +1,122 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Square area of cells around owner entity that keeps track of entities of given type inside of it. Listener is
+ * notified only when entity crosses area border, either by moving itself or by owner moving.
+ */
+public class ProximitySensor {
+    private final Positionable owner;
+    private final int cellsAway;
+    private final Class<? extends Positionable> type;
+    private final ProximityListener listener;
+
+    private final Set<Positionable> inside = new LinkedHashSet<>();
+
+    // kept by sensor manager: sectors which buckets sensor is in, empty range if none, and last event passed
+    int sectorRowStart = 0, sectorRowEnd = -1, sectorColStart = 0, sectorColEnd = -1;
+    long notifiedEvent = -1;
+
+    /**
+     * Constructs sensor, it starts working after being added to board's sensor manager.
+     * @param owner entity sensor moves with, never reported by it's own sensor.
+     * @param cellsAway number of cells area extends from owner's cell to each side.
+     * @param type class of entities to report.
+     * @param listener receiver of enter and exit events.
+     */
+    public ProximitySensor(Positionable owner, int cellsAway, Class<? extends Positionable> type,
+                           ProximityListener listener) {
+        this.owner = owner;
+        this.cellsAway = cellsAway;
+        this.type = type;
+        this.listener = listener;
+    }
+
+    public Positionable getOwner() {
+        return owner;
+    }
+
+    public int getCellsAway() {
+        return cellsAway;
+    }
+
+    public Set<Positionable> getEntitiesInsideUnmodifiable() {
+        return Collections.unmodifiableSet(inside);
+    }
+
+    /**
+     * Checks whether cell is inside of area centered at another cell.
+     */
+    private boolean covers(BoardCell center, BoardCell cell) {
+        return center != null && cell != null
+                && Math.abs(center.row - cell.row) <= cellsAway && Math.abs(center.col - cell.col) <= cellsAway;
+    }
+
+    /**
+     * Handles entity other than owner moving from one cell to another.
+     * @param from previous cell or null if entity was off board.
+     * @param to new cell or null if entity left board.
+     */
+    void entityMoved(Positionable entity, BoardCell from, BoardCell to) {
+        if (entity == owner || !type.isInstance(entity)) return;
+
+        BoardCell center = owner.getCell();
+        boolean wasInside = covers(center, from);
+        boolean isInside = covers(center, to);
+
+        if (isInside && !wasInside && inside.add(entity)) {
+            listener.entityEntered(this, entity);
+        } else if (wasInside && !isInside && inside.remove(entity)) {
+            listener.entityExited(this, entity);
+        }
+    }
+
+    /**
+     * Handles owner moving from one cell to another: only entities in cells along area border are checked.
+     * @param board board owner is on.
+     * @param from previous owner cell or null if owner was off board.
+     * @param to new owner cell or null if owner left board.
+     */
+    void ownerMoved(Board board, BoardCell from, BoardCell to) {
+        // entities left behind
+        for (Iterator<Positionable> it = inside.iterator(); it.hasNext(); ) {
+            Positionable entity = it.next();
+
+            if (!covers(to, entity.getCell())) {
+                it.remove();
+                listener.entityExited(this, entity);
+            }
+        }
+
+        if (to == null) return;
+
+        // entities in newly covered cells
+        int rowStart = Math.max(0, to.row - cellsAway);
+        int rowEnd = Math.min(board.getRowCount() - 1, to.row + cellsAway);
+        int colStart = Math.max(0, to.col - cellsAway);
+        int colEnd = Math.min(board.getColCount() - 1, to.col + cellsAway);
+
+        for (int row = rowStart; row <= rowEnd; row++) {
+            for (int col = colStart; col <= colEnd; col++) {
+                BoardCell cell = board.getCell(row, col);
+                if (covers(from, cell)) continue;
+
+                for (Entity entity : cell.getEntitiesUnmodifiable()) {
+                    if (entity == owner || !type.isInstance(entity)) continue;
+
+                    Positionable positionable = (Positionable) entity;
+                    if (inside.add(positionable)) {
+                        listener.entityEntered(this, positionable);
+                    }
+                }
+            }
+        }
+    }
+}
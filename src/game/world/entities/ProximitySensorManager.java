@@ -0,0 +1,185 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps proximity sensors of board and feeds them with cell transfers of entities, so entities can react to
+ * others coming near instead of polling surroundings.
+ * <p>
+ * Sensors are kept in buckets of board sectors their areas overlap, and cell transfer is passed only to sensors
+ * in buckets of cells it's from and to. So cost of transfer depends on sensors around, and sensors of idle bots
+ * far away cost nothing. Buckets are arrays copied when sensor comes in or out, which happens only when it's area
+ * crosses sector border, so listeners may add or remove sensors while bucket is iterated.
+ */
+public class ProximitySensorManager {
+    private static final int SECTOR_CELLS = 4;              // bucket covers square of this many cells on each side
+    private static final ProximitySensor[] NONE = new ProximitySensor[0];
+
+    private final Board board;
+    private final int sectorCols;
+    private final ProximitySensor[][] buckets;              // per sector: sensors which area overlaps it
+    private final Map<Positionable, ProximitySensor[]> ownedSensors = new HashMap<>();
+    private int sensorCount;
+
+    private long eventCount;                                // number of cell transfers processed, for statistics
+
+    public ProximitySensorManager(Board board) {
+        this.board = board;
+        int sectorRows = (board.getRowCount() + SECTOR_CELLS - 1) / SECTOR_CELLS;
+        sectorCols = (board.getColCount() + SECTOR_CELLS - 1) / SECTOR_CELLS;
+        buckets = new ProximitySensor[sectorRows * sectorCols][];
+        Arrays.fill(buckets, NONE);
+    }
+
+    /**
+     * Adds sensor and reports entities already inside of it's area.
+     * @param sensor sensor to add, it is removed automatically when it's owner leaves board.
+     */
+    public void addSensor(ProximitySensor sensor) {
+        Positionable owner = sensor.getOwner();
+
+        ownedSensors.put(owner, with(ownedSensors.getOrDefault(owner, NONE), sensor));
+        sensorCount++;
+
+        place(sensor, owner.getCell());
+        sensor.ownerMoved(board, null, owner.getCell());
+    }
+
+    public void removeSensor(ProximitySensor sensor) {
+        Positionable owner = sensor.getOwner();
+        ProximitySensor[] owned = ownedSensors.get(owner);
+        if (owned == null || !Arrays.asList(owned).contains(sensor)) return;
+
+        owned = without(owned, sensor);
+        if (owned.length == 0) {
+            ownedSensors.remove(owner);
+        } else {
+            ownedSensors.put(owner, owned);
+        }
+
+        sensorCount--;
+        place(sensor, null);
+    }
+
+    /**
+     * Notifies sensors about entity moving from one cell to another.
+     * @param entity entity that moved.
+     * @param from previous cell or null if entity was off board.
+     * @param to new cell or null if entity left board.
+     */
+    public void entityMoved(Positionable entity, BoardCell from, BoardCell to) {
+        if (sensorCount == 0) return;
+
+        eventCount++;
+
+        ProximitySensor[] owned = ownedSensors.get(entity);
+
+        if (owned != null) {
+            for (ProximitySensor sensor : owned) {
+                sensor.ownerMoved(board, from, to);
+
+                if (to == null) {
+                    removeSensor(sensor);
+                } else {
+                    place(sensor, to);
+                }
+            }
+        }
+
+        int fromSector = (from == null) ? -1 : getSector(from.row, from.col);
+        int toSector = (to == null) ? -1 : getSector(to.row, to.col);
+
+        if (fromSector >= 0) notify(buckets[fromSector], entity, from, to);
+        if (toSector >= 0 && toSector != fromSector) notify(buckets[toSector], entity, from, to);
+    }
+
+    private void notify(ProximitySensor[] bucket, Positionable entity, BoardCell from, BoardCell to) {
+        for (ProximitySensor sensor : bucket) {
+            if (sensor.notifiedEvent == eventCount) continue;  // in both buckets, already notified
+
+            sensor.notifiedEvent = eventCount;
+            sensor.entityMoved(entity, from, to);
+        }
+    }
+
+    /**
+     * Moves sensor into buckets of sectors it's area overlaps when centered at given cell.
+     * @param center cell of sensor owner, or null to take sensor out of all buckets.
+     */
+    private void place(ProximitySensor sensor, BoardCell center) {
+        int rowStart = 0, rowEnd = -1, colStart = 0, colEnd = -1;
+
+        if (center != null) {
+            int cellsAway = sensor.getCellsAway();
+
+            rowStart = Math.max(0, center.row - cellsAway) / SECTOR_CELLS;
+            rowEnd = Math.min(board.getRowCount() - 1, center.row + cellsAway) / SECTOR_CELLS;
+            colStart = Math.max(0, center.col - cellsAway) / SECTOR_CELLS;
+            colEnd = Math.min(board.getColCount() - 1, center.col + cellsAway) / SECTOR_CELLS;
+        }
+
+        if (rowStart == sensor.sectorRowStart && rowEnd == sensor.sectorRowEnd
+                && colStart == sensor.sectorColStart && colEnd == sensor.sectorColEnd) return;
+
+        // sectors left behind
+        for (int row = sensor.sectorRowStart; row <= sensor.sectorRowEnd; row++) {
+            for (int col = sensor.sectorColStart; col <= sensor.sectorColEnd; col++) {
+                if (row >= rowStart && row <= rowEnd && col >= colStart && col <= colEnd) continue;
+
+                int sector = getSector(row * SECTOR_CELLS, col * SECTOR_CELLS);
+                buckets[sector] = without(buckets[sector], sensor);
+            }
+        }
+
+        // sectors newly overlapped
+        for (int row = rowStart; row <= rowEnd; row++) {
+            for (int col = colStart; col <= colEnd; col++) {
+                if (row >= sensor.sectorRowStart && row <= sensor.sectorRowEnd
+                        && col >= sensor.sectorColStart && col <= sensor.sectorColEnd) continue;
+
+                int sector = getSector(row * SECTOR_CELLS, col * SECTOR_CELLS);
+                buckets[sector] = with(buckets[sector], sensor);
+            }
+        }
+
+        sensor.sectorRowStart = rowStart;
+        sensor.sectorRowEnd = rowEnd;
+        sensor.sectorColStart = colStart;
+        sensor.sectorColEnd = colEnd;
+    }
+
+    private int getSector(int row, int col) {
+        return (row / SECTOR_CELLS) * sectorCols + col / SECTOR_CELLS;
+    }
+
+    private static ProximitySensor[] with(ProximitySensor[] sensors, ProximitySensor sensor) {
+        ProximitySensor[] grown = Arrays.copyOf(sensors, sensors.length + 1);
+        grown[sensors.length] = sensor;
+        return grown;
+    }
+
+    private static ProximitySensor[] without(ProximitySensor[] sensors, ProximitySensor sensor) {
+        for (int i = 0; i < sensors.length; i++) {
+            if (sensors[i] != sensor) continue;
+
+            ProximitySensor[] shrunk = Arrays.copyOf(sensors, sensors.length - 1);
+            System.arraycopy(sensors, i + 1, shrunk, i, sensors.length - i - 1);
+            return shrunk;
+        }
+
+        return sensors;
+    }
+
+    public int getSensorCount() {
+        return sensorCount;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+}
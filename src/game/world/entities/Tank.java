@@ -56,10 +56,10 @@ public class Tank extends DestructibleCollidableEntity implements Visible {
     @Override
     public boolean cellHasObstacle(BoardCell cell) {
         // tank can't move over water obstacle without bridge overlay
-        if (cell.ground.isMoveObstacle() && !cell.overlay.isBridge()) return true;
+        if (cell.ground.isMoveObstacle() && !cell.getOverlay().isBridge()) return true;
 
         // if overlay is obstacle, we check bounds
-        if (cell.overlay.isMoveObstacle()) return true;
+        if (cell.getOverlay().isMoveObstacle()) return true;
 
         // otherwise it's all clear
         return false;
@@ -138,6 +138,7 @@ public class Tank extends DestructibleCollidableEntity implements Visible {
     @Override
     public void collideWith(Collidable other) {
         if (other instanceof Bullet) {
+            setDamageSourceKey(((Bullet) other).getParentKey());    // shooter gets credit for hit
             takeDamage((byte) 50);
         }
     }
@@ -3,8 +3,11 @@ package game.client.messages;
 import game.client.InputFireOrder;
 import game.client.InputMoveOrder;
 import game.client.InputTurnOrder;
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.ByteBuffer;
 import java.util.Random;
 
@@ -17,12 +20,52 @@ public class ClientInputMessageTest {
         InputMoveOrder moveOrder = InputMoveOrder.FORWARD;
         InputFireOrder fireOrder = InputFireOrder.FIRE;
 
-        ClientInputMessage c1 = new ClientInputMessage(turnOrder, moveOrder, fireOrder);
+        ClientInputMessage c1 = new ClientInputMessage(turnOrder, moveOrder, fireOrder, 12345);
 
         ByteBuffer buf = c1.toBuffer();
 
         ClientInputMessage c2 = new ClientInputMessage(buf);
 
         assertTrue(c1.turnOrder == c2.turnOrder && c1.moveOrder == c2.moveOrder && c1.fireOrder == c2.fireOrder);
+        assertEquals(c1.clientTime, c2.clientTime);
     }
-}
\ No newline at end of file
+
+    /**
+     * Poor man's benchmark of typed encoding into reused buffer, reports time and allocation per message.
+     */
+    @Test
+    public void testWriteToAllocatesNothing() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+
+        com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+        long threadID = Thread.currentThread().getId();
+
+        ClientInputMessage message = new ClientInputMessage(InputTurnOrder.EAST, InputMoveOrder.FORWARD,
+                InputFireOrder.FIRE, 12345);
+        ByteBuffer buf = ByteBuffer.allocateDirect(ClientMessageBase.SEND_BUFFER_MAX_SIZE);
+        final int COUNT = 1000000;
+
+        for (int i = 0; i < COUNT; i++) {               // warm up
+            buf.clear();
+            message.writeTo(buf);
+        }
+
+        long bytes0 = allocation.getThreadAllocatedBytes(threadID);
+        long t0 = System.nanoTime();
+
+        for (int i = 0; i < COUNT; i++) {
+            buf.clear();
+            message.writeTo(buf);
+        }
+
+        long t1 = System.nanoTime();
+        double bytesPerOp = (double) (allocation.getThreadAllocatedBytes(threadID) - bytes0) / COUNT;
+
+        System.out.printf("ClientInputMessage.writeTo: %.1f ns/op, %.2f bytes/op%n", (double) (t1 - t0) / COUNT,
+                bytesPerOp);
+
+        assertTrue(bytesPerOp < 1);
+        assertEquals(message.toBuffer(), (ByteBuffer) buf.flip());
+    }
+}
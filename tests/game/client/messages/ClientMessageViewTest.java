@@ -0,0 +1,122 @@
+package game.client.messages;
+
+import game.client.InputFireOrder;
+import game.client.InputMoveOrder;
+import game.client.InputTurnOrder;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class ClientMessageViewTest {
+    @Test
+    public void testViewsReadSameFieldsAsConstructors() {
+        ClientInputMessage input = new ClientInputMessage(InputTurnOrder.WEST, InputMoveOrder.REVERSE,
+                InputFireOrder.FIRE, 54321);
+        ClientInputMessage.View inputView = new ClientInputMessage.View().wrap(input.toBuffer());
+
+        assertEquals(input.turnOrder, inputView.getTurnOrder());
+        assertEquals(input.moveOrder, inputView.getMoveOrder());
+        assertEquals(input.fireOrder, inputView.getFireOrder());
+        assertEquals(input.clientTime, inputView.getClientTime());
+
+        ClientSnapshotAck ack = new ClientSnapshotAck(777, (short) 1024, (short) 768);
+        ClientSnapshotAck.View ackView = new ClientSnapshotAck.View().wrap(ack.toBuffer());
+
+        assertEquals(ack.sequence, ackView.getSequence());
+        assertEquals(ack.viewWidth, ackView.getViewWidth());
+        assertEquals(ack.viewHeight, ackView.getViewHeight());
+
+        List<ClientBotControl.Orders> orders = new ArrayList<>();
+        for (int i = 0; i < ClientBotControl.MAX_BOTS; i++) {
+            orders.add(new ClientBotControl.Orders((short) (i * 3), InputTurnOrder.fromOrdinal(i % 5),
+                    InputMoveOrder.fromOrdinal(i % 3), InputFireOrder.fromOrdinal(i % 2)));
+        }
+
+        ClientBotControl control = new ClientBotControl(orders);
+        ClientBotControl.View controlView = new ClientBotControl.View().wrap(control.toBuffer());
+
+        assertEquals(orders.size(), controlView.getCount());
+        for (int n = 0; n < orders.size(); n++) {
+            assertEquals(orders.get(n).botKey, controlView.getBotKey(n));
+            assertEquals(orders.get(n).turnOrder, controlView.getTurnOrder(n));
+            assertEquals(orders.get(n).moveOrder, controlView.getMoveOrder(n));
+            assertEquals(orders.get(n).fireOrder, controlView.getFireOrder(n));
+        }
+    }
+
+    @Test
+    public void testUniqueIDIsComparedInPlace() {
+        UUID uniqueID = UUID.randomUUID();
+        byte[] expected = uniqueID.toString().getBytes();
+
+        assertTrue(ClientConfirmReady.hasUniqueID(new ClientConfirmReady(uniqueID.toString()).toBuffer(), expected));
+        assertFalse(ClientConfirmReady.hasUniqueID(new ClientConfirmReady(UUID.randomUUID().toString()).toBuffer(),
+                expected));
+        assertFalse(ClientSelfDestructMessage.hasUniqueID(new ClientSelfDestructMessage("short").toBuffer(),
+                expected));
+
+        ByteBuffer truncated = new ClientSelfDestructMessage(uniqueID.toString()).toBuffer();
+        truncated.limit(truncated.limit() - 1);
+        assertFalse(ClientSelfDestructMessage.hasUniqueID(truncated, expected));
+    }
+
+    /**
+     * Poor man's benchmark of decoding with constructor and with reused view, reports time and allocation per
+     * message.
+     */
+    @Test
+    public void testViewAllocatesNothing() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+
+        com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+        long threadID = Thread.currentThread().getId();
+
+        ByteBuffer buf = ByteBuffer.allocateDirect(ClientMessageBase.SEND_BUFFER_MAX_SIZE);
+        new ClientInputMessage(InputTurnOrder.EAST, InputMoveOrder.FORWARD, InputFireOrder.FIRE, 12345).writeTo(buf);
+        buf.flip();
+
+        ClientInputMessage.View view = new ClientInputMessage.View();
+        final int COUNT = 1000000;
+        long sum = 0;
+
+        for (int i = 0; i < COUNT; i++) {               // warm up both
+            sum += new ClientInputMessage(buf).clientTime;
+            sum += view.wrap(buf).getClientTime() + view.getTurnOrder().ordinal();
+        }
+
+        long bytes0 = allocation.getThreadAllocatedBytes(threadID);
+        long t0 = System.nanoTime();
+
+        for (int i = 0; i < COUNT; i++) {
+            sum += new ClientInputMessage(buf).clientTime;
+        }
+
+        long bytes1 = allocation.getThreadAllocatedBytes(threadID);
+        long t1 = System.nanoTime();
+
+        for (int i = 0; i < COUNT; i++) {
+            ClientInputMessage.View v = view.wrap(buf);
+            sum += v.getClientTime() + v.getTurnOrder().ordinal() + v.getMoveOrder().ordinal()
+                    + v.getFireOrder().ordinal();
+        }
+
+        long bytes2 = allocation.getThreadAllocatedBytes(threadID);
+        long t2 = System.nanoTime();
+
+        System.out.printf("ClientInputMessage decode: constructor %.1f ns/op, %.2f bytes/op; " +
+                        "view %.1f ns/op, %.2f bytes/op (%d)%n",
+                (double) (t1 - t0) / COUNT, (double) (bytes1 - bytes0) / COUNT,
+                (double) (t2 - t1) / COUNT, (double) (bytes2 - bytes1) / COUNT, sum);
+
+        assertTrue((double) (bytes2 - bytes1) / COUNT < 1);
+    }
+}
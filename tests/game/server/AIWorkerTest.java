@@ -0,0 +1,144 @@
+package game.server;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local multi-process setup: server in this process, AI workers in child JVMs.
+ */
+public class AIWorkerTest {
+    private static final int WAIT_LIMIT = 20000;
+
+    private static Process startWorker(int port, String name) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classPath = System.getProperty("java.class.path");
+
+        return new ProcessBuilder(java, "-cp", classPath, AIWorkerTask.class.getName(),
+                "localhost", String.valueOf(port), "/map.txt", name)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+        long start = System.currentTimeMillis();
+
+        while (System.currentTimeMillis() - start < WAIT_LIMIT) {
+            if (condition.getAsBoolean()) return true;
+            Thread.sleep(50);
+        }
+
+        return false;
+    }
+
+    @Test
+    public void testBotsMoveToWorkersAndBackWhenWorkersDie() throws Exception {
+        ServerTask server = new ServerTask(new InetSocketAddress("localhost", 0), "/map.txt").setMaxBoxCount(4);
+        Thread serverThread = new Thread(server);
+        serverThread.start();
+
+        int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+        Process worker1 = startWorker(port, "worker-1");
+        Process worker2 = startWorker(port, "worker-2");
+
+        try {
+            // bots are spread between both workers
+            assertTrue(waitFor(() -> server.getAIWorkerCount() == 2 && server.getRemoteBotCount() == 4));
+
+            // dead worker's bots are given to the one left
+            worker1.destroy();
+            assertTrue(waitFor(() -> server.getAIWorkerCount() == 1 && server.getRemoteBotCount() == 4));
+
+            // without workers bots go back to server's own AI
+            worker2.destroy();
+            assertTrue(waitFor(() -> server.getAIWorkerCount() == 0 && server.getRemoteBotCount() == 0));
+        } finally {
+            worker1.destroyForcibly();
+            worker2.destroyForcibly();
+
+            server.exit();
+            serverThread.join();
+        }
+    }
+
+    @Test
+    public void testWorkerStaysWhileServerRunsAndExitsWithIt() throws Exception {
+        ServerTask server = new ServerTask(new InetSocketAddress("localhost", 0), "/map.txt");
+        Thread serverThread = new Thread(server);
+        serverThread.start();
+
+        AIWorkerTask worker = new AIWorkerTask(server.getLocalAddress(), "/map.txt", "worker-1");
+        Thread workerThread = new Thread(worker);
+        workerThread.start();
+
+        try {
+            assertTrue(waitFor(() -> server.getAIWorkerCount() == 1));
+
+            // server answers hellos, so worker without bots outlives it's silence timeout
+            Thread.sleep(2500);
+            assertTrue(workerThread.isAlive());
+        } finally {
+            server.exit();
+            serverThread.join();
+        }
+
+        workerThread.join(WAIT_LIMIT);
+        assertFalse(workerThread.isAlive());
+    }
+
+    @Test
+    public void testWorkerExitsWhenServerIsSilent() throws Exception {
+        try (DatagramChannel silent = DatagramChannel.open()) {
+            silent.bind(new InetSocketAddress("localhost", 0));
+
+            AIWorkerTask worker = new AIWorkerTask(silent.getLocalAddress(), "/map.txt", "worker-1");
+            Thread workerThread = new Thread(worker);
+            workerThread.start();
+
+            workerThread.join(WAIT_LIMIT);
+            boolean exited = !workerThread.isAlive();
+
+            worker.exit();
+            assertTrue(exited);
+        }
+    }
+
+    @Test
+    public void testWorkerJoiningLateGetsTerrainChangedBefore() throws Exception {
+        ServerTask server = new ServerTask(new InetSocketAddress("localhost", 0), "/map.txt");
+        server.getBoard().setCellOverlay(server.getBoard().getCell(7, 13), "0");    // wall destroyed
+
+        Thread serverThread = new Thread(server);
+        serverThread.start();
+        Thread.sleep(1000);                                 // regular resends of change are over
+
+        AIWorkerTask worker = new AIWorkerTask(server.getLocalAddress(), "/map.txt", "worker-1");
+        Thread workerThread = new Thread(worker);
+        workerThread.start();
+
+        try {
+            assertTrue(waitFor(() -> worker.getBoard().getCell(7, 13).getOverlay().ID.equals("0")));
+        } finally {
+            worker.exit();
+            workerThread.join();
+
+            server.exit();
+            serverThread.join();
+        }
+    }
+
+    @Test
+    public void testWorkersAreAcceptedFromLoopbackOnly() throws Exception {
+        assertTrue(AIWorkerManager.isAllowed(new InetSocketAddress(InetAddress.getLoopbackAddress(), 4000)));
+        assertTrue(AIWorkerManager.isAllowed(new InetSocketAddress("127.0.0.2", 4000)));
+        assertFalse(AIWorkerManager.isAllowed(new InetSocketAddress("10.0.0.1", 4000)));
+        assertFalse(AIWorkerManager.isAllowed(InetSocketAddress.createUnresolved("localhost", 4000)));
+    }
+}
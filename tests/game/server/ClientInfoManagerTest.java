@@ -5,6 +5,7 @@ import org.junit.Test;
 import java.net.InetSocketAddress;
 import java.util.UUID;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -114,4 +115,18 @@ public class ClientInfoManagerTest {
 
         assertTrue(clientInfo2 == null);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testShardIsSetWhenClientRegisters() throws Exception {
+        ClientInfoManager manager = new ClientInfoManager();
+        InetSocketAddress address = InetSocketAddress.createUnresolved("127.0.0.1", 20000);
+
+        // join reply is sent right after registration, so it must already go out of channel join came in
+        manager.register(name1, address, 3);
+        assertEquals(3, manager.getShard(address, 0));
+
+        manager.updateShard(address, 2);
+        assertEquals(2, manager.getShard(address, 0));
+        assertEquals(1, manager.getShard(InetSocketAddress.createUnresolved("127.0.0.1", 20001), 1));
+    }
+}
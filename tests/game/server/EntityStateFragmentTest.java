@@ -0,0 +1,149 @@
+package game.server;
+
+import game.world.Board;
+import game.world.entities.Entity;
+import game.world.entities.Tank;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class EntityStateFragmentTest {
+
+    private static List<Tank> addTanks(Board board, int count) {
+        List<Tank> tanks = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            Tank tank = new Tank(UUID.randomUUID(), board);
+            tank.setPos(board.getCell(i % board.getRowCount(), i / board.getRowCount()).getCenter());
+            board.registerEntity(tank);
+            tanks.add(tank);
+        }
+
+        return tanks;
+    }
+
+    private static int size(List<EntityStateFragment> fragments) {
+        int size = 0;
+        for (EntityStateFragment fragment : fragments) size += fragment.toBuffer().limit();
+        return size;
+    }
+
+    private static Map<Short, byte[]> decode(List<EntityStateFragment> fragments, Map<Short, byte[]> baseline) {
+        Map<Short, byte[]> records = new HashMap<>();
+
+        for (EntityStateFragment fragment : fragments) {
+            ByteBuffer buf = fragment.getEntityStateBuffer();
+
+            for (int i = 0; i < fragment.entityCount; i++) {
+                byte[] record = EntityStateFragment.readDeltaRecord(buf, baseline);
+                records.put(EntityStateFragment.getEntityKey(ByteBuffer.wrap(record)), record);
+            }
+
+            assertFalse(buf.hasRemaining());
+        }
+
+        return records;
+    }
+
+    @Test
+    public void testDeltaRecordsRestoreFullRecords() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        List<Tank> tanks = addTanks(board, 200);
+        Map<Short, byte[]> baseline = EntityStateFragment.makeRecords(board.getActiveEntitiesUnmodifiable());
+
+        Random random = new Random(1);
+
+        for (Tank tank : tanks) {
+            if (random.nextBoolean()) tank.setPos(tank.getX() + random.nextInt(3), tank.getY());
+            if (random.nextBoolean()) tank.setHeading(random.nextInt(4) * 90);
+        }
+
+        addTanks(board, 10);                                // new entities are not in baseline
+
+        Map<Short, byte[]> records = EntityStateFragment.makeRecords(board.getActiveEntitiesUnmodifiable());
+        List<EntityStateFragment> fragments = new ArrayList<>();
+        EntityStateFragment.appendDeltaFragments(records, baseline, fragments);
+
+        Map<Short, byte[]> decoded = decode(fragments, baseline);
+
+        assertEquals(records.size(), decoded.size());
+        for (Map.Entry<Short, byte[]> entry : records.entrySet()) {
+            assertArrayEquals(entry.getValue(), decoded.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testIdleEntitiesTakeFewBytes() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        addTanks(board, 500);
+
+        Collection<Entity> entities = board.getActiveEntitiesUnmodifiable();
+        Map<Short, byte[]> baseline = EntityStateFragment.makeRecords(entities);
+        Map<Short, byte[]> records = EntityStateFragment.makeRecords(entities);
+
+        List<EntityStateFragment> full = new ArrayList<>();
+        EntityStateFragment.appendStateFragments(entities, full);
+
+        List<EntityStateFragment> delta = new ArrayList<>();
+        EntityStateFragment.appendDeltaFragments(records, baseline, delta);
+
+        System.out.printf("500 idle tanks: %d bytes full, %d bytes delta%n", size(full), size(delta));
+
+        // key and empty mask per entity
+        assertTrue(size(delta) <= 500 * 3 + delta.size() * Short.BYTES);
+        assertTrue(size(delta) * 5 < size(full));
+    }
+
+    @Test
+    public void testLeaveRecordsFollowDeltaRecords() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        addTanks(board, 300);
+
+        Map<Short, byte[]> records = EntityStateFragment.makeRecords(board.getActiveEntitiesUnmodifiable());
+        List<Short> leaving = Arrays.asList((short) 1001, (short) 1002, (short) 1003);
+
+        List<EntityStateFragment> fragments = new ArrayList<>();
+        EntityStateFragment.appendDeltaFragments(records, null, Collections.emptyList(), leaving, fragments);
+
+        List<Short> left = new ArrayList<>();
+        int recordCount = 0;
+
+        for (EntityStateFragment fragment : fragments) {
+            ByteBuffer buf = fragment.getEntityStateBuffer();
+
+            for (int i = 0; i < fragment.entityCount; i++) {
+                if (EntityStateFragment.isLeaveRecord(buf)) {
+                    left.add(EntityStateFragment.readKeyRecord(buf));
+                } else {
+                    assertTrue(left.isEmpty());
+                    EntityStateFragment.readDeltaRecord(buf, null);
+                    recordCount++;
+                }
+            }
+
+            assertFalse(buf.hasRemaining());
+        }
+
+        assertEquals(records.size(), recordCount);
+        assertEquals(leaving, left);
+    }
+
+    @Test
+    public void testHistoryForgetsOldSnapshots() throws Exception {
+        SnapshotHistory history = new SnapshotHistory();
+        Map<Short, byte[]> first = new HashMap<>();
+
+        history.put(1, first);
+        assertSame(first, history.get(1));
+        assertNull(history.get(2));
+
+        for (int sequence = 2; sequence <= SnapshotHistory.CAPACITY; sequence++) history.put(sequence, new HashMap<>());
+        assertSame(first, history.get(1));
+
+        history.put(SnapshotHistory.CAPACITY + 1, new HashMap<>());
+        assertNull(history.get(1));
+    }
+}
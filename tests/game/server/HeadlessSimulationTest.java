@@ -0,0 +1,42 @@
+package game.server;
+
+import game.world.entities.Enemy;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HeadlessSimulationTest {
+
+    @Test
+    public void testRunsRequestedLogicTime() throws Exception {
+        HeadlessSimulation simulation = new HeadlessSimulation("/map.txt", 5, 1);
+        HeadlessSimulation.Report report = simulation.run(5000);
+
+        assertEquals(5000, report.ticks);
+        assertTrue(report.aiDecisions > 0);
+
+        long bots = simulation.getBoard().getActiveEntitiesUnmodifiable().stream()
+                .filter(e -> e instanceof Enemy).count();
+        assertTrue(bots > 0 && bots <= 5);
+    }
+
+    @Test
+    public void testSameSeedGivesSameStateEveryTick() throws Exception {
+        HeadlessSimulation first = new HeadlessSimulation("/map.txt", 8, 42);
+        HeadlessSimulation second = new HeadlessSimulation("/map.txt", 8, 42);
+        HeadlessSimulation other = new HeadlessSimulation("/map.txt", 8, 43);
+
+        boolean diverged = false;
+
+        for (int tick = 0; tick < 20000; tick++) {
+            first.tick();
+            second.tick();
+            other.tick();
+
+            assertEquals("tick " + tick, first.getBoard().getStateHash(), second.getBoard().getStateHash());
+            diverged |= first.getBoard().getStateHash() != other.getBoard().getStateHash();
+        }
+
+        assertTrue(diverged);
+    }
+}
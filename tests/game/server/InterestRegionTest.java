@@ -0,0 +1,82 @@
+package game.server;
+
+import game.world.Board;
+import game.world.BoardCell;
+import game.world.entities.Entity;
+import game.world.entities.Point;
+import game.world.entities.Tank;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class InterestRegionTest {
+
+    private static Tank addTank(Board board, int row, int col) {
+        Tank tank = new Tank(UUID.randomUUID(), board);
+        tank.setPos(board.getCell(row, col).getCenter());
+        board.registerEntity(tank);
+        return tank;
+    }
+
+    @Test
+    public void testFarEntitiesAreLeftOut() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        Tank near = addTank(board, 2, 2);
+        Tank far = addTank(board, board.getRowCount() - 1, board.getColCount() - 1);
+
+        Point center = board.getCell(4, 4).getCenter();
+        int size = BoardCell.CELL_SIZE * 6;
+        InterestRegion region = InterestRegion.around(board, center, size, size, BoardCell.CELL_SIZE);
+
+        assertTrue(region.contains(near));
+        assertFalse(region.contains(far));
+
+        List<Entity> entities = region.getEntities(board);
+        assertTrue(entities.contains(near));
+        assertFalse(entities.contains(far));
+    }
+
+    @Test
+    public void testRegionIsKeptInsideBoard() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        int size = BoardCell.CELL_SIZE * 6;
+
+        // view can't scroll past corner, so it shows cells on other side of center instead
+        InterestRegion region = InterestRegion.around(board, board.getCell(0, 0).getCenter(), size, size, 0);
+
+        assertEquals(0, region.row1);
+        assertEquals(0, region.col1);
+        assertEquals(6, region.row2);
+        assertEquals(6, region.col2);
+    }
+
+    @Test
+    public void testLeaveIsRepeatedUntilAcked() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        Tank stays = addTank(board, 2, 2);
+        Tank left = addTank(board, 3, 3);
+
+        Map<Short, byte[]> records = new HashMap<>();
+        records.put(stays.getKey(), new byte[0]);
+
+        // client acked snapshot with both, leave went out with previous snapshot but it's datagram was lost
+        Map<Short, byte[]> acked = new HashMap<>(records);
+        acked.put(left.getKey(), new byte[0]);
+
+        assertEquals(Collections.singletonList(left.getKey()),
+                ServerTask.getLeavingKeys(board, records, records, acked));
+
+        // once client acks snapshot without it, leave is not sent anymore
+        assertTrue(ServerTask.getLeavingKeys(board, records, records, records).isEmpty());
+
+        // destroyed entity is not leaving
+        board.removeActiveEntity(left.getKey());
+        assertEquals(Collections.emptyList(), ServerTask.getLeavingKeys(board, records, acked, acked));
+    }
+}
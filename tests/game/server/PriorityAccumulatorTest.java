@@ -0,0 +1,86 @@
+package game.server;
+
+import game.world.Board;
+import game.world.entities.Bullet;
+import game.world.entities.Point;
+import game.world.entities.Tank;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PriorityAccumulatorTest {
+
+    private static Tank addTank(Board board, int row, int col) {
+        Tank tank = new Tank(UUID.randomUUID(), board);
+        tank.setPos(board.getCell(row, col).getCenter());
+        board.registerEntity(tank);
+        return tank;
+    }
+
+    private static int cost(Map<Short, byte[]> records, Set<Short> keys) {
+        int cost = 0;
+        for (short key : keys) cost += EntityStateFragment.getDeltaRecordSize(records.get(key), null);
+        return cost;
+    }
+
+    @Test
+    public void testBudgetIsKeptAndNobodyStarves() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        for (int i = 0; i < 100; i++) addTank(board, i % board.getRowCount(), i / board.getRowCount());
+
+        Map<Short, byte[]> records = EntityStateFragment.makeRecords(board.getActiveEntitiesUnmodifiable());
+        PriorityAccumulator priorities = new PriorityAccumulator();
+        Point center = board.getCell(0, 0).getCenter();
+        final int BUDGET = 500;
+
+        Set<Short> everSent = new HashSet<>();
+        int sends = 0;
+
+        while (everSent.size() < records.size()) {
+            Set<Short> sent = priorities.schedule(board, records, null, center, (short) -1, BUDGET);
+
+            assertTrue(cost(records, sent) <= BUDGET);
+            everSent.addAll(sent);
+            assertTrue("some entities starve", ++sends < 100);
+        }
+
+        System.out.printf("100 tanks sent within %d sends of %d bytes%n", sends, BUDGET);
+    }
+
+    @Test
+    public void testNearBulletGoesFirst() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        Tank near = addTank(board, 1, 1);
+        Tank far = addTank(board, board.getRowCount() - 1, board.getColCount() - 1);
+
+        Bullet bullet = new Bullet(UUID.randomUUID(), board);
+        bullet.setPos(board.getCell(1, 2).getCenter());
+        board.registerEntity(bullet);
+
+        Map<Short, byte[]> records = EntityStateFragment.makeRecords(board.getActiveEntitiesUnmodifiable());
+        int bulletCost = EntityStateFragment.getDeltaRecordSize(records.get(bullet.getKey()), null);
+
+        Set<Short> sent = new PriorityAccumulator().schedule(board, records, null, near.getPos(), near.getKey(),
+                cost(records, Collections.singleton(near.getKey())) + bulletCost);
+
+        assertTrue(sent.contains(near.getKey()));           // own entity is always sent
+        assertTrue(sent.contains(bullet.getKey()));
+        assertFalse(sent.contains(far.getKey()));
+
+        // weight falls with distance
+        assertTrue(PriorityAccumulator.getWeight(far, near.getPos()) < PriorityAccumulator.getWeight(near, near.getPos()));
+    }
+
+    @Test
+    public void testIdleEntitiesAreAlwaysSent() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        for (int i = 0; i < 50; i++) addTank(board, i % board.getRowCount(), i / board.getRowCount());
+
+        Map<Short, byte[]> records = EntityStateFragment.makeRecords(board.getActiveEntitiesUnmodifiable());
+        Set<Short> sent = new PriorityAccumulator().schedule(board, records, records, null, (short) -1, 0);
+
+        assertEquals(records.keySet(), sent);
+    }
+}
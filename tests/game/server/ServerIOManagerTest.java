@@ -0,0 +1,152 @@
+package game.server;
+
+import game.util.PacketRing;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class ServerIOManagerTest {
+    private static final int SHARDS = 4;
+    private static final int WAIT_LIMIT = 5000;
+
+    private static List<DatagramChannel> openSenders(ServerIOManager io, int count) throws Exception {
+        List<DatagramChannel> senders = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            DatagramChannel sender = DatagramChannel.open();
+            sender.connect(io.getLocalAddress());
+            senders.add(sender);
+        }
+
+        return senders;
+    }
+
+    @Test
+    public void testClientsStayOnTheirShard() throws Exception {
+        ServerIOManager io = new ServerIOManager(new InetSocketAddress("localhost", 0), 64, SHARDS);
+        List<DatagramChannel> senders = new ArrayList<>();
+        Map<SocketAddress, Set<Integer>> shards = new HashMap<>();
+        final int COUNT = 10;
+
+        try {
+            Assume.assumeTrue(io.getShardCount() == SHARDS);  // SO_REUSEPORT supported
+
+            senders.addAll(openSenders(io, 32));
+            io.start();
+
+            for (int i = 0; i < COUNT; i++) {
+                for (DatagramChannel sender : senders) sender.write(ByteBuffer.allocate(4));
+            }
+
+            long start = System.currentTimeMillis();
+            int received = 0;
+
+            while (received < COUNT * senders.size() && System.currentTimeMillis() - start < WAIT_LIMIT) {
+                PacketRing.Slot slot = io.peekReceived();
+                if (slot == null) continue;
+
+                shards.computeIfAbsent(slot.getAddress(), address -> new HashSet<>()).add(slot.getShard());
+                received++;
+                io.releaseReceived(slot);
+            }
+
+            assertEquals(COUNT * senders.size(), received);
+
+            Set<Integer> used = new HashSet<>();
+            for (Map.Entry<SocketAddress, Set<Integer>> entry : shards.entrySet()) {
+                assertEquals(1, entry.getValue().size());   // kernel keeps address on one channel
+                used.addAll(entry.getValue());
+
+                ByteBuffer reply = io.claimSend();
+                reply.putInt(entry.getValue().iterator().next()).flip();
+                io.publishSend(entry.getKey(), entry.getValue().iterator().next());
+            }
+
+            assertTrue(used.size() > 1);                    // clients are spread over channels
+            io.flush();
+
+            for (DatagramChannel sender : senders) {        // connected, so only datagrams from server's port pass
+                sender.configureBlocking(false);
+                ByteBuffer reply = ByteBuffer.allocate(4);
+
+                start = System.currentTimeMillis();
+                while (sender.read(reply) <= 0 && System.currentTimeMillis() - start < WAIT_LIMIT) {
+                    Thread.sleep(1);
+                }
+
+                Set<Integer> shard = shards.get(sender.getLocalAddress());
+                assertEquals(shard.iterator().next().intValue(), reply.getInt(0));
+            }
+        } finally {
+            io.close();
+            for (DatagramChannel sender : senders) sender.close();
+        }
+    }
+
+    /**
+     * Poor man's benchmark: senders flood server's port on loopback, while server loop stand-in drains inbound
+     * ring. Reports datagrams received per second with single channel and with sharded ones.
+     */
+    @Test
+    public void testShardedReceiveThroughput() throws Exception {
+        for (int shardCount : new int[]{1, SHARDS}) {
+            ServerIOManager io = new ServerIOManager(new InetSocketAddress("localhost", 0), 64, shardCount);
+            List<DatagramChannel> senders = openSenders(io, 8);
+            AtomicBoolean flooding = new AtomicBoolean(true);
+            List<Thread> threads = new ArrayList<>();
+            final int DURATION = 500;
+
+            io.start();
+
+            for (DatagramChannel sender : senders) {
+                threads.add(new Thread(() -> {
+                    ByteBuffer buf = ByteBuffer.allocateDirect(16);
+
+                    while (flooding.get()) try {
+                        buf.clear();
+                        sender.write(buf);
+                    } catch (Exception ignored) {           // port unreachable once server closes
+                    }
+                }));
+            }
+
+            Thread drain = new Thread(() -> {
+                while (flooding.get()) {
+                    PacketRing.Slot slot = io.peekReceived();
+                    if (slot != null) io.releaseReceived(slot);
+                }
+            });
+
+            threads.add(drain);
+            threads.forEach(Thread::start);
+
+            long received0 = io.getReceivedCount();
+            Thread.sleep(DURATION);
+            long received = io.getReceivedCount() - received0;
+
+            flooding.set(false);
+            for (Thread thread : threads) thread.join();
+
+            System.out.printf("%d receive channels: %d datagrams/s, %d dropped by ring%n", io.getShardCount(),
+                    received * 1000 / DURATION, io.getDroppedCount());
+
+            io.close();
+            for (DatagramChannel sender : senders) sender.close();
+
+            assertTrue(received > 0);
+        }
+    }
+}
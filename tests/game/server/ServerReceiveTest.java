@@ -0,0 +1,48 @@
+package game.server;
+
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import static org.junit.Assert.*;
+
+public class ServerReceiveTest {
+    private static final int WAIT_LIMIT = 5000;
+
+    @Test
+    public void testBurstIsDrainedOverSeveralLoops() throws Exception {
+        ServerTask server = new ServerTask(new InetSocketAddress("localhost", 0), "/map.txt").setReceiveLimits(4, 1024);
+        final int COUNT = 40;
+
+        try (DatagramChannel sender = DatagramChannel.open()) {
+            sender.connect(server.getLocalAddress());
+
+            for (int i = 0; i < COUNT; i++) {               // unknown message type, dropped by server
+                ByteBuffer buf = ByteBuffer.allocate(8);
+                buf.putInt(Integer.MAX_VALUE).putInt(i).flip();
+                sender.write(buf);
+            }
+
+            sender.write(ByteBuffer.allocate(2000));        // doesn't fit receive buffer
+
+            Thread serverThread = new Thread(server);
+            serverThread.start();
+
+            try {
+                long start = System.currentTimeMillis();
+                while (server.getDroppedDatagramCount() < COUNT + 1) {
+                    if (System.currentTimeMillis() - start > WAIT_LIMIT) break;
+                    Thread.sleep(10);
+                }
+
+                assertEquals(COUNT + 1, server.getDroppedDatagramCount());
+                assertTrue(server.getDeferredDatagramCount() >= COUNT / 4);  // each loop but last one is cut short
+            } finally {
+                server.exit();
+                serverThread.join();
+            }
+        }
+    }
+}
@@ -1,12 +1,60 @@
 package game.server.messages;
 
+import game.server.EntityStateFragment;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+
 import static org.junit.Assert.*;
 
 public class ServerBoardStateUpdateTest {
+
+    private static ServerBoardStateUpdate makeUpdate(short clientKey) {
+        ByteBuffer states = ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5});
+        return new ServerBoardStateUpdate(1234, 1.5, true, clientKey, 7, 5, (byte) 1, (byte) 3,
+                new EntityStateFragment((short) 2, states));
+    }
+
     @Test
     public void testServerWorldStateUpdate(){
+        ServerBoardStateUpdate update = makeUpdate((short) 42);
+        ServerBoardStateUpdate read = new ServerBoardStateUpdate(update.toBuffer());
+
+        assertEquals(1234, read.time);
+        assertEquals(1.5, read.speed, 0.01);
+        assertTrue(read.paused);
+        assertEquals(42, read.clientKey);
+        assertEquals(7, read.sequence);
+        assertEquals(5, read.baseline);
+        assertEquals(1, read.fragmentIndex);
+        assertEquals(3, read.fragmentCount);
+        assertEquals(2, read.state.entityCount);
+        assertEquals(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5}), read.state.getEntityStateBuffer());
+    }
+
+    @Test
+    public void testLayout() throws Exception {
+        ServerBoardStateUpdate update = makeUpdate((short) 42);
+
+        ByteBuffer made = ByteBuffer.allocate(100);
+        made.putInt(update.getType().ordinal()).putInt(1234).put((byte) 50).put((byte) 1).putShort((short) 42);
+        made.putInt(7).putInt(5).put((byte) 1).put((byte) 3);
+        made.putShort((short) 2).put(new byte[]{1, 2, 3, 4, 5});
+        made.flip();
+
+        assertEquals(made, update.toBuffer());
+        assertEquals(made.limit(), update.getSize());
+    }
+
+    @Test
+    public void testClientKeyPatchedInPlace() throws Exception {
+        ByteBuffer buf = ByteBuffer.allocateDirect(ServerMessageBase.SEND_BUFFER_MAX_SIZE);
+        makeUpdate((short) 0).writeTo(buf);
+        buf.flip();
+
+        ServerBoardStateUpdate.patchClientKey(buf, (short) 99);
 
+        assertEquals(0, buf.position());
+        assertEquals(makeUpdate((short) 99).toBuffer(), buf);
     }
-}
\ No newline at end of file
+}
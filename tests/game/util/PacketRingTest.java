@@ -0,0 +1,87 @@
+package game.util;
+
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PacketRingTest {
+    private static final SocketAddress ADDRESS = new InetSocketAddress("localhost", 20000);
+
+    @Test
+    public void testSpscRingKeepsOrderAndReportsFull() {
+        SpscPacketRing ring = new SpscPacketRing(3, 16);
+        assertEquals(4, ring.getCapacity());                // rounded up to power of two
+
+        for (int i = 0; i < ring.getCapacity(); i++) {
+            ByteBuffer buf = ring.claim();
+            buf.putInt(i).flip();
+            ring.publish(ADDRESS, i % 2);
+        }
+
+        assertNull(ring.claim());
+        assertEquals(4, ring.size());
+
+        for (int i = 0; i < ring.getCapacity(); i++) {
+            PacketRing.Slot slot = ring.peek();
+            assertEquals(i, slot.getBuffer().getInt(0));
+            assertEquals(ADDRESS, slot.getAddress());
+            assertEquals(i % 2, slot.getShard());
+            ring.advance();
+        }
+
+        assertNull(ring.peek());
+        assertNotNull(ring.claim());                        // slots are free again
+    }
+
+    @Test
+    public void testMpscRingPassesAllDatagramsOfEachProducerInOrder() throws Exception {
+        final int PRODUCERS = 4;
+        final int COUNT = 200000;
+        MpscPacketRing ring = new MpscPacketRing(64, 8);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+
+            threads.add(new Thread(() -> {
+                ByteBuffer buf = ByteBuffer.allocateDirect(8);
+
+                for (int i = 0; i < COUNT; i++) {
+                    buf.clear();
+                    buf.putInt(producer).putInt(i).flip();
+
+                    ByteBuffer free;
+                    while ((free = ring.offer(buf, ADDRESS, producer)) == null) {
+                        Thread.yield();                     // full, wait for consumer
+                    }
+                    buf = free;
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+
+        int[] next = new int[PRODUCERS];
+        int received = 0;
+
+        while (received < PRODUCERS * COUNT) {
+            PacketRing.Slot slot = ring.peek();
+            if (slot == null) continue;
+
+            int producer = slot.getBuffer().getInt(0);
+            assertEquals(producer, slot.getShard());
+            assertEquals(next[producer]++, slot.getBuffer().getInt(4));
+            ring.advance();
+            received++;
+        }
+
+        for (Thread thread : threads) thread.join();
+        assertNull(ring.peek());
+    }
+}
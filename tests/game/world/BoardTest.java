@@ -0,0 +1,214 @@
+package game.world;
+
+import game.world.entities.*;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class BoardTest {
+
+    private static List<Tank> placeTanks(Board board, Random r, int count) {
+        List<Tank> tanks = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            Tank tank = new Tank(UUID.randomUUID(), board);
+            tank.setPos(r.nextDouble() * board.getWidthInPixels(), r.nextDouble() * board.getHeightInPixels());
+            board.registerEntity(tank);
+            tanks.add(tank);
+        }
+
+        return tanks;
+    }
+
+    @Test
+    public void testNearestMatchesBruteForce() throws Exception {
+        Random r = new Random(1);
+        Board board = Board.fromResource("/map.txt");
+        List<Tank> tanks = placeTanks(board, r, 60);
+
+        for (int i = 0; i < 200; i++) {
+            Point pos = new Point(r.nextDouble() * board.getWidthInPixels(),
+                    r.nextDouble() * board.getHeightInPixels());
+            double maxDistance = r.nextDouble() * 500;
+            int k = 1 + r.nextInt(4);
+
+            List<Tank> expected = new ArrayList<>();
+            for (Tank tank : tanks) {
+                if (tank.getDistanceTo(pos) < maxDistance) expected.add(tank);
+            }
+            expected.sort(Comparator.comparingDouble(t -> t.getDistanceTo(pos)));
+            expected = expected.subList(0, Math.min(k, expected.size()));
+
+            assertEquals(expected, board.getNearest(pos, Tank.class, k, maxDistance, t -> true));
+        }
+    }
+
+    @Test
+    public void testRadiusAndConeMatchBruteForce() throws Exception {
+        Random r = new Random(2);
+        Board board = Board.fromResource("/map.txt");
+        List<Tank> tanks = placeTanks(board, r, 60);
+
+        for (int i = 0; i < 200; i++) {
+            Point pos = new Point(r.nextDouble() * board.getWidthInPixels(),
+                    r.nextDouble() * board.getHeightInPixels());
+            double range = r.nextDouble() * 500;
+            double heading = r.nextInt(360);
+            double halfAngle = r.nextInt(90);
+
+            Set<Tank> inRadius = new HashSet<>();
+            Set<Tank> inCone = new HashSet<>();
+            for (Tank tank : tanks) {
+                if (tank.getDistanceTo(pos) > range) continue;
+                inRadius.add(tank);
+
+                double delta = MoveableEntity.getHeadingDelta(heading, pos.getHeadingTo(tank.getPos()));
+                if (Math.abs(delta) <= halfAngle) inCone.add(tank);
+            }
+
+            assertEquals(inRadius, new HashSet<>(board.getWithinRadius(pos, range, Tank.class)));
+            assertEquals(inCone, new HashSet<>(board.getWithinCone(pos, heading, halfAngle, range, Tank.class)));
+        }
+    }
+
+    private static boolean isOccupied(Board board, SpawnPoint spawnPoint) {
+        for (Entity entity : board.getEntitiesAround(spawnPoint.getPos(), 1)) {
+            if (entity instanceof Tank) return true;
+        }
+
+        return false;
+    }
+
+    @Test
+    public void testSpawnPointsAreFilledUntilAllOccupied() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        int spawned = 0;
+
+        while (board.spawnEnemy(UUID.randomUUID()) != null) {
+            spawned++;
+            assertTrue(spawned <= board.getSpawnPointsUnmodifiable().size());
+        }
+
+        assertTrue(spawned > 0);
+        assertFalse(board.hasFreeSpawnPoint());
+
+        for (SpawnPoint spawnPoint : board.getSpawnPointsUnmodifiable()) {
+            assertTrue(isOccupied(board, spawnPoint));
+        }
+    }
+
+    @Test
+    public void testSpawnRequestsWaitForFreeSpawnPointInOrder() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        List<Enemy> occupants = new ArrayList<>();
+
+        Enemy occupant;
+        while ((occupant = board.spawnEnemy(UUID.randomUUID())) != null) {
+            occupants.add(occupant);
+        }
+
+        List<String> order = new ArrayList<>();
+        board.requestEnemySpawn(UUID.randomUUID(), bot -> order.add("first"));
+        board.requestPlayerSpawn(UUID.randomUUID(), player -> order.add("second"));
+
+        assertEquals(2, board.getPendingSpawnCount());
+        board.update();
+        assertEquals(2, board.getPendingSpawnCount());
+
+        // spawn point gets free, so first request is served
+        board.removeActiveEntity(occupants.get(0).getKey());
+        board.update();
+
+        assertEquals(Collections.singletonList("first"), order);
+        assertEquals(1, board.getPendingSpawnCount());
+
+        board.removeActiveEntity(occupants.get(1).getKey());
+        board.update();
+
+        assertEquals(Arrays.asList("first", "second"), order);
+        assertEquals(0, board.getPendingSpawnCount());
+    }
+
+    @Test
+    public void testCancelledSpawnRequestIsNotServed() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        List<Enemy> occupants = new ArrayList<>();
+
+        Enemy occupant;
+        while ((occupant = board.spawnEnemy(UUID.randomUUID())) != null) {
+            occupants.add(occupant);
+        }
+
+        List<String> order = new ArrayList<>();
+        Runnable cancel = board.requestPlayerSpawn(UUID.randomUUID(), player -> order.add("cancelled"));
+        board.requestPlayerSpawn(UUID.randomUUID(), player -> order.add("kept"));
+
+        cancel.run();
+        assertEquals(1, board.getPendingSpawnCount());
+
+        board.removeActiveEntity(occupants.get(0).getKey());
+        board.removeActiveEntity(occupants.get(1).getKey());
+        board.update();
+
+        assertEquals(Collections.singletonList("kept"), order);
+        assertEquals(0, board.getPendingSpawnCount());
+    }
+
+    @Test
+    public void testBulletsDoNotBlockSpawnPoints() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+
+        for (SpawnPoint spawnPoint : board.getSpawnPointsUnmodifiable()) {
+            Bullet bullet = new Bullet(UUID.randomUUID(), board);
+            bullet.setPos(spawnPoint.getPos());
+            board.registerEntity(bullet);
+        }
+
+        assertTrue(board.hasFreeSpawnPoint());
+        assertNotNull(board.spawnEnemy(UUID.randomUUID()));
+    }
+
+    @Test
+    public void testWoodWallDestroyedByBullets() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        BoardCell wall = board.getCell(7, 13);
+        assertTrue(wall.getOverlay().isDestructible());
+
+        // tank sits below wall and shoots north
+        Tank shooter = new Tank(UUID.randomUUID(), board);
+        shooter.setPos(board.getCell(8, 13).getCenter());
+        board.registerEntity(shooter);
+
+        for (int shot = 0; shot < 3; shot++) {
+            assertFalse(wall.getObstacleBounds() == null);
+
+            short bulletKey = shooter.getCannon().shoot();
+            for (int i = 0; i < 1000 && board.getEntity(bulletKey) != null; i++) board.update();
+
+            for (int i = 0; i < 1000; i++) board.update();  // cannon reload
+        }
+
+        assertEquals("0", wall.getOverlay().ID);
+        assertNull(wall.getObstacleBounds());
+        assertFalse(shooter.cellHasObstacle(wall));
+        assertEquals(Collections.singletonList(wall), board.getTerrainChangesSince(0));
+
+        // map lines sent to joining clients have wall removed too
+        Board joined = Board.fromList(board.getRowsUnmodifiable());
+        assertEquals("0", joined.getCell(7, 13).getOverlay().ID);
+        assertEquals("=", joined.getCell(7, 12).getOverlay().ID);
+    }
+
+    @Test
+    public void testConcreteWallIsNotDamaged() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        BoardCell wall = board.getCell(0, 11);
+
+        board.cellDamaged(wall, 1000);
+
+        assertEquals("+", wall.getOverlay().ID);
+        assertEquals(0, board.getTerrainVersion());
+    }
+}
@@ -22,4 +22,17 @@ public class BoundsTest {
 
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIntersectsSegment() throws Exception {
+        Bounds box = Bounds.fromCornerPoints(10, 10, 20, 20);
+
+        assertTrue(box.intersectsSegment(0, 15, 30, 15));   // passes through
+        assertTrue(box.intersectsSegment(15, 15, 30, 30));  // starts inside
+        assertTrue(box.intersectsSegment(0, 0, 30, 30));    // diagonal
+
+        assertFalse(box.intersectsSegment(0, 15, 5, 15));   // stops short
+        assertFalse(box.intersectsSegment(0, 25, 30, 25));  // parallel, outside
+        assertFalse(box.intersectsSegment(0, 20, 20, 40));  // passes by corner
+    }
+}
@@ -0,0 +1,115 @@
+package game.world;
+
+import game.world.entities.Bullet;
+import game.world.entities.Enemy;
+import game.world.entities.Tank;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class GameEventBusTest {
+
+    private static void publish(GameEventBus bus, long sequence) {
+        bus.publish(GameEventType.DAMAGE_TAKEN, sequence, (byte) 1, (short) sequence, (short) -sequence,
+                (int) sequence, sequence, -sequence);
+    }
+
+    @Test
+    public void testCursorsReadAtOwnPace() throws Exception {
+        GameEventBus bus = new GameEventBus(16);
+        GameEventBus.Cursor fast = bus.newCursor();
+        GameEventBus.Cursor slow = bus.newCursor();
+
+        for (int i = 0; i < 10; i++) publish(bus, i);
+
+        List<Long> fastRead = new ArrayList<>();
+        assertEquals(10, fast.poll(e -> fastRead.add(e.time), 100));
+        assertEquals(0, fast.poll(e -> fastRead.add(e.time), 100));
+
+        List<Long> slowRead = new ArrayList<>();
+        assertEquals(4, slow.poll(e -> slowRead.add(e.time), 4));
+        assertEquals(6, slow.getLag());
+        assertEquals(6, slow.poll(e -> slowRead.add(e.time), 100));
+
+        assertEquals(fastRead, slowRead);
+        assertEquals(Long.valueOf(9), slowRead.get(9));
+    }
+
+    @Test
+    public void testSlowCursorLosesOldestEvents() throws Exception {
+        GameEventBus bus = new GameEventBus(16);
+        GameEventBus.Cursor cursor = bus.newCursor();
+
+        for (int i = 0; i < 100; i++) publish(bus, i);
+
+        List<Long> read = new ArrayList<>();
+        cursor.poll(e -> read.add(e.sequence), 1000);
+
+        assertEquals(100, read.size() + cursor.getMissedCount());
+        assertEquals(Long.valueOf(99), read.get(read.size() - 1));
+
+        for (int i = 1; i < read.size(); i++) {
+            assertEquals(read.get(i - 1) + 1, (long) read.get(i));
+        }
+    }
+
+    @Test
+    public void testConcurrentConsumerSeesWholeEvents() throws Exception {
+        GameEventBus bus = new GameEventBus(64);
+        GameEventBus.Cursor cursor = bus.newCursor();
+        final int COUNT = 1000000;
+
+        AtomicReference<String> error = new AtomicReference<>();
+        long[] read = new long[1];
+
+        Thread consumer = new Thread(() -> {
+            while (read[0] + cursor.getMissedCount() < COUNT) {
+                cursor.poll(e -> {
+                    // all fields of event come from same publish call
+                    if (e.time != e.sequence || e.amount != (int) e.sequence || e.entityKey != (short) e.sequence ||
+                            e.x != (int) e.sequence) {
+                        error.compareAndSet(null, e.toString());
+                    }
+                    read[0]++;
+                }, 100);
+            }
+        });
+
+        consumer.start();
+
+        for (int i = 0; i < COUNT; i++) publish(bus, i);     // never waits for consumer
+
+        consumer.join(30000);
+
+        assertNull(error.get());
+        assertEquals(COUNT, read[0] + cursor.getMissedCount());
+    }
+
+    @Test
+    public void testBoardPublishesSpawnHitAndKill() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        GameEventBus.Cursor cursor = board.getEventBus().newCursor();
+
+        Enemy target = board.spawnEnemy(UUID.randomUUID());
+        Tank shooter = (Tank) board.spawnPlayer(UUID.randomUUID());
+
+        Bullet bullet = new Bullet(shooter.getOwnerUniqueID(), board);
+        bullet.setParentKey(shooter.getKey());
+
+        while (!target.isDead()) target.collideWith(bullet);
+
+        List<String> events = new ArrayList<>();
+        cursor.poll(e -> {
+            if (e.entityKey == target.getKey()) events.add(e.type + " " + (e.sourceKey == shooter.getKey()));
+        }, 100);
+
+        assertEquals(events.toString(), "SPAWNED false", events.get(0));
+        assertEquals("DAMAGE_TAKEN true", events.get(1));
+        assertEquals("ENTITY_DESTROYED true", events.get(events.size() - 1));
+    }
+}
@@ -0,0 +1,69 @@
+package game.world;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PotentiallyVisibleSetTest {
+
+    private static final int SIZE = PotentiallyVisibleSet.SECTOR_SIZE;
+
+    private static BoardCell sectorCell(Board board, int sector) {
+        int sectorCols = (board.getColCount() + SIZE - 1) / SIZE;
+        return board.getCell((sector / sectorCols) * SIZE, (sector % sectorCols) * SIZE);
+    }
+
+    private static void assertSameSets(Board board, PotentiallyVisibleSet expected, PotentiallyVisibleSet actual) {
+        for (int a = 0; a < expected.getSectorCount(); a++) {
+            for (int b = 0; b < expected.getSectorCount(); b++) {
+                BoardCell from = sectorCell(board, a);
+                BoardCell to = sectorCell(board, b);
+
+                assertEquals(a + " sees " + b, expected.isVisible(from, to), actual.isVisible(from, to));
+            }
+        }
+    }
+
+    @Test
+    public void testWallsHideSectors() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        long t0 = System.nanoTime();
+        PotentiallyVisibleSet set = board.getPotentiallyVisibleSet();
+        long elapsed = System.nanoTime() - t0;
+
+        int total = 0;
+
+        for (int sector = 0; sector < set.getSectorCount(); sector++) {
+            BoardCell cell = sectorCell(board, sector);
+            assertTrue(set.isVisible(cell, cell));
+
+            total += set.getVisibleCount(sector);
+        }
+
+        System.out.printf("%d sectors, %.1f visible on average, computed in %d ms%n", set.getSectorCount(),
+                (double) total / set.getSectorCount(), elapsed / 1000000);
+
+        assertTrue(total < set.getSectorCount() * set.getSectorCount());
+    }
+
+    @Test
+    public void testIncrementalUpdateMatchesRebuild() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        PotentiallyVisibleSet set = board.getPotentiallyVisibleSet();
+
+        // remove all walls, updating set cell by cell
+        for (int row = 0; row < board.getRowCount(); row++) {
+            for (int col = 0; col < board.getColCount(); col++) {
+                BoardCell cell = board.getCell(row, col);
+                if (cell.getOverlay().isShootObstacle()) board.setCellOverlay(cell, "0");
+            }
+        }
+
+        assertSameSets(board, new PotentiallyVisibleSet(board), set);
+
+        // with nothing blocking, every sector sees every other
+        for (int sector = 0; sector < set.getSectorCount(); sector++) {
+            assertEquals(set.getSectorCount(), set.getVisibleCount(sector));
+        }
+    }
+}
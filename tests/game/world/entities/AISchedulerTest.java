@@ -0,0 +1,60 @@
+package game.world.entities;
+
+import game.util.Timeout;
+import game.world.Board;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class AISchedulerTest {
+
+    @Test
+    public void testDecisionsOverBudgetAreDeferred() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        AIScheduler scheduler = board.getAIScheduler();
+        scheduler.setTickBudget(0);
+
+        Enemy bot = new Enemy(UUID.randomUUID(), board);
+        Timeout timeout = new Timeout(1000);
+
+        scheduler.beginTick();
+
+        // first decision of tick is always granted, rest is deferred
+        assertTrue(scheduler.beginDecision());
+        scheduler.endDecision(bot, timeout);
+
+        assertFalse(scheduler.beginDecision());
+        assertFalse(scheduler.beginDecision());
+        assertEquals(2, scheduler.getDeferredCount());
+
+        // next tick gets it's budget back
+        scheduler.beginTick();
+        assertTrue(scheduler.beginDecision());
+        scheduler.endDecision(bot, timeout);
+
+        assertEquals(2, scheduler.getDecisionCount());
+        assertEquals(2, scheduler.getDeferredCount());
+    }
+
+    @Test
+    public void testLatencyIsRecordedPerBot() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        AIScheduler scheduler = board.getAIScheduler();
+
+        Enemy bot1 = new Enemy(UUID.randomUUID(), board);
+        Enemy bot2 = new Enemy(UUID.randomUUID(), board);
+
+        Timeout overdue = new Timeout(100);
+        overdue.reset(350);                                 // due 250 ms ago
+        assertTrue(overdue.occurred());
+
+        scheduler.beginTick();
+        assertTrue(scheduler.beginDecision());
+        scheduler.endDecision(bot1, overdue);
+
+        assertTrue(scheduler.getDecisionLatency(bot1.getKey()) >= 250);
+        assertEquals(-1, scheduler.getDecisionLatency(bot2.getKey()));
+    }
+}
@@ -0,0 +1,108 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class DStarLitePathFinderTest {
+
+    private static Board makeRandomBoard(Random r, int rows, int cols, double waterRatio) {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("size: %d : %d", rows, cols));
+        lines.add("spawn: 0,0");
+        lines.add("map:");
+
+        for (int row = 0; row < rows; row++) {
+            StringBuilder line = new StringBuilder(String.format("%02d", row));
+            for (int col = 0; col < cols; col++) {
+                line.append(r.nextDouble() < waterRatio && (row + col) > 0 ? " 0W" : " 00");
+            }
+            lines.add(line.toString());
+        }
+
+        return Board.fromList(lines);
+    }
+
+    private static BoardCell randomFreeCell(Board board, Tank tank, Random r) {
+        while (true) {
+            BoardCell cell = board.getCell(r.nextInt(board.getRowCount()), r.nextInt(board.getColCount()));
+            if (!tank.cellHasObstacle(cell)) return cell;
+        }
+    }
+
+    private static BoardCell randomStep(Board board, Tank tank, BoardCell cell, Random r) {
+        int row = cell.row + r.nextInt(3) - 1;
+        int col = cell.col + r.nextInt(3) - 1;
+
+        if (row < 0 || col < 0 || row >= board.getRowCount() || col >= board.getColCount()) return cell;
+
+        BoardCell next = board.getCell(row, col);
+        return tank.cellHasObstacle(next) ? cell : next;
+    }
+
+    /**
+     * Simulates pursuit: hunter walks along found path while target wanders, and checks each replanned path
+     * against breadth-first distance.
+     */
+    private static void assertPursuitPathsAreShortest(Board board, Random r, int steps) {
+        Tank hunter = new Tank(UUID.randomUUID(), board);
+        Tank prey = new Tank(UUID.randomUUID(), board);
+        DStarLitePathFinder finder = new DStarLitePathFinder(board, hunter);
+        PathFinder restarting = new PathFinder(board);
+
+        hunter.setPos(randomFreeCell(board, hunter, r).getCenter());
+        BoardCell target = randomFreeCell(board, prey, r);
+
+        int incrementalExpanded = 0;
+        int restartingExpanded = 0;
+
+        for (int i = 0; i < steps; i++) {
+            PathList<BoardCell> path = finder.find(hunter, target);
+            incrementalExpanded += finder.getExpandedNodeCount();
+
+            restarting.find(hunter, target);
+            restartingExpanded += restarting.getExpandedNodeCount();
+
+            int expected = new FlowField(board, hunter, target).getDistance(hunter.getCell());
+            assertEquals(expected <= 0 ? 0 : expected, path.size());
+
+            BoardCell prev = hunter.getCell();
+            for (int n = 0; n < path.size(); n++) {
+                assertEquals(1, Math.abs(path.get(n).row - prev.row) + Math.abs(path.get(n).col - prev.col));
+                prev = path.get(n);
+            }
+
+            // hunter follows path for a while, sometimes teleports
+            if (r.nextInt(50) == 0) {
+                hunter.setPos(randomFreeCell(board, hunter, r).getCenter());
+            } else if (!path.isEmpty()) {
+                hunter.setPos(path.get(Math.min(r.nextInt(3), path.size() - 1)).getCenter());
+            }
+
+            target = (r.nextInt(20) == 0) ? randomFreeCell(board, prey, r) : randomStep(board, prey, target, r);
+        }
+
+        assertTrue(incrementalExpanded < restartingExpanded);
+    }
+
+    @Test
+    public void testPursuitOnMap() throws Exception {
+        assertPursuitPathsAreShortest(Board.fromResource("/map.txt"), new Random(1), 2000);
+    }
+
+    @Test
+    public void testPursuitOnRandomMaps() throws Exception {
+        Random r = new Random(2);
+
+        for (int i = 0; i < 20; i++) {
+            assertPursuitPathsAreShortest(makeRandomBoard(r, 10 + r.nextInt(20), 10 + r.nextInt(20), r.nextDouble() * 0.3), r, 200);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class FlowFieldTest {
+
+    @Test
+    public void testPathLengthMatchesPathFinder() throws Exception {
+        Random r = new Random(1);
+        Board board = Board.fromResource("/map.txt");
+        PathFinder pathFinder = new PathFinder(board);
+
+        Tank tank = new Tank(UUID.randomUUID(), board);
+
+        for (int i = 0; i < 200; i++) {
+            BoardCell start = board.getCell(r.nextInt(board.getRowCount()), r.nextInt(board.getColCount()));
+            BoardCell destination = board.getCell(r.nextInt(board.getRowCount()), r.nextInt(board.getColCount()));
+            if (tank.cellHasObstacle(start) || start == destination) continue;
+
+            tank.setPos(start.getCenterX(), start.getCenterY());
+
+            FlowField field = new FlowField(board, tank, destination);
+            PathList<BoardCell> expected = pathFinder.find(tank, destination);
+            PathList<BoardCell> actual = field.getPath(start);
+
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected.isEmpty() ? -1 : expected.size(), field.getDistance(start));
+        }
+    }
+
+    @Test
+    public void testSharedAndRebuiltOnlyWhenTargetChangesCell() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        FlowFieldManager manager = board.getFlowFields();
+
+        Tank target = new Tank(UUID.randomUUID(), board);
+        target.setPos(board.getCell(1, 1).getCenter());
+        board.registerEntity(target);
+
+        Enemy bot1 = new Enemy(UUID.randomUUID(), board);
+        Enemy bot2 = new Enemy(UUID.randomUUID(), board);
+
+        FlowField field1 = manager.getFlowField(bot1, target);
+        FlowField field2 = manager.getFlowField(bot2, target);
+
+        assertSame(field1, field2);
+        assertEquals(1, manager.getBuildCount());
+
+        // moving inside same cell keeps field
+        target.setPos(target.getX() + 5, target.getY() + 5);
+        assertSame(field1, manager.getFlowField(bot1, target));
+
+        // moving to another cell rebuilds it once for all bots
+        target.setPos(board.getCell(1, 2).getCenter());
+        FlowField field3 = manager.getFlowField(bot1, target);
+        assertNotSame(field1, field3);
+        assertSame(field3, manager.getFlowField(bot2, target));
+        assertEquals(2, manager.getBuildCount());
+    }
+
+    @Test
+    public void testRepairedInPlaceWhenWallsAreDestroyed() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        FlowFieldManager manager = board.getFlowFields();
+
+        Tank target = new Tank(UUID.randomUUID(), board);
+        target.setPos(board.getCell(6, 13).getCenter());     // inside of wooden house
+        board.registerEntity(target);
+
+        Enemy bot = new Enemy(UUID.randomUUID(), board);
+        FlowField field = manager.getFlowField(bot, target);
+
+        for (int col = 11; col <= 15; col++) {
+            board.setCellOverlay(board.getCell(7, col), "0");
+            assertSame(field, manager.getFlowField(bot, target));
+
+            FlowField rebuilt = new FlowField(board, bot, target.getCell());
+
+            for (int row = 0; row < board.getRowCount(); row++) {
+                for (int c = 0; c < board.getColCount(); c++) {
+                    BoardCell cell = board.getCell(row, c);
+                    assertEquals(cell.toString(), rebuilt.getDistance(cell), field.getDistance(cell));
+                    assertEquals(rebuilt.getPath(cell).size(), field.getPath(cell).size());
+                }
+            }
+        }
+
+        // closing cell on paths drops field, so it's rebuilt on next request
+        board.setCellOverlay(board.getCell(7, 13), "=");
+        assertNotSame(field, manager.getFlowField(bot, target));
+        assertEquals(2, manager.getBuildCount());
+    }
+}
@@ -0,0 +1,78 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class InfluenceMapTest {
+
+    @Test
+    public void testCountsFollowEntities() throws Exception {
+        Random r = new Random(1);
+        Board board = Board.fromResource("/map.txt");
+
+        List<Positionable> entities = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Positionable entity = (i % 3 == 0) ? new Enemy(UUID.randomUUID(), board)
+                    : (i % 3 == 1) ? new Tank(UUID.randomUUID(), board) : new Bullet(UUID.randomUUID(), board);
+            entity.setPos(board.getCell(r.nextInt(board.getRowCount()), r.nextInt(board.getColCount())).getCenter());
+            board.registerEntity(entity);
+            entities.add(entity);
+        }
+
+        // created after entities are placed, so initial count is checked too
+        InfluenceMap influence = board.getInfluenceMap();
+
+        for (int step = 0; step < 500; step++) {
+            Positionable entity = entities.get(r.nextInt(entities.size()));
+            entity.setPos(board.getCell(r.nextInt(board.getRowCount()), r.nextInt(board.getColCount())).getCenter());
+        }
+
+        board.removeActiveEntity(entities.get(0).getKey());
+        board.removeActiveEntity(entities.get(1).getKey());
+
+        int[] friendly = new int[influence.getSectorCount()];
+        int[] hostile = new int[influence.getSectorCount()];
+        int[] bullets = new int[influence.getSectorCount()];
+
+        for (Entity entity : board.getActiveEntitiesUnmodifiable()) {
+            int sector = influence.getSector(((Positionable) entity).getCell());
+
+            if (entity instanceof Enemy) friendly[sector]++;
+            else if (entity instanceof Tank) hostile[sector]++;
+            else bullets[sector]++;
+        }
+
+        for (int sector = 0; sector < influence.getSectorCount(); sector++) {
+            assertEquals(friendly[sector], influence.getFriendlyTanks(sector));
+            assertEquals(hostile[sector], influence.getHostileTanks(sector));
+            assertEquals(bullets[sector], influence.getBullets(sector));
+        }
+    }
+
+    @Test
+    public void testDamageIsRecordedInSector() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+        InfluenceMap influence = board.getInfluenceMap();
+
+        Tank tank = new Tank(UUID.randomUUID(), board);
+        BoardCell cell = board.getCell(5, 5);
+        tank.setPos(cell.getCenter());
+        board.registerEntity(tank);
+
+        int sector = influence.getSector(cell);
+        assertEquals(0, influence.getThreat(sector) - 4, 1E-9);
+
+        tank.takeDamage((byte) 3);
+
+        double recent = influence.getRecentDamage(sector);
+        assertTrue(recent > 2.9 && recent <= 3);
+    }
+}
@@ -0,0 +1,117 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class JumpPointPathFinderTest {
+
+    private static Board makeRandomBoard(Random r, int rows, int cols, double waterRatio) {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("size: %d : %d", rows, cols));
+        lines.add("spawn: 0,0");
+        lines.add("map:");
+
+        for (int row = 0; row < rows; row++) {
+            StringBuilder line = new StringBuilder(String.format("%02d", row));
+            for (int col = 0; col < cols; col++) {
+                line.append(r.nextDouble() < waterRatio && (row + col) > 0 ? " 0W" : " 00");
+            }
+            lines.add(line.toString());
+        }
+
+        return Board.fromList(lines);
+    }
+
+    private static void assertSameLengths(Board board, Random r, int iterations) {
+        PathFinder aStar = new PathFinder(board);
+        JumpPointPathFinder jumpPoint = new JumpPointPathFinder(board);
+        Tank tank = new Tank(UUID.randomUUID(), board);
+
+        int aStarExpanded = 0;
+        int jumpPointExpanded = 0;
+
+        for (int i = 0; i < iterations; i++) {
+            BoardCell start = board.getCell(r.nextInt(board.getRowCount()), r.nextInt(board.getColCount()));
+            BoardCell destination = board.getCell(r.nextInt(board.getRowCount()), r.nextInt(board.getColCount()));
+            if (tank.cellHasObstacle(start)) continue;
+
+            tank.setPos(start.getCenterX(), start.getCenterY());
+
+            PathList<BoardCell> expected = aStar.find(tank, destination);
+            PathList<BoardCell> actual = jumpPoint.find(tank, destination);
+
+            aStarExpanded += aStar.getExpandedNodeCount();
+            jumpPointExpanded += jumpPoint.getExpandedNodeCount();
+
+            assertEquals(String.format("path length from %s to %s", start, destination), expected.size(), actual.size());
+
+            // path must consist of adjacent passable cells ending at destination
+            BoardCell prev = start;
+            for (int n = 0; n < actual.size(); n++) {
+                BoardCell cell = actual.get(n);
+                assertEquals(1, Math.abs(cell.row - prev.row) + Math.abs(cell.col - prev.col));
+                assertFalse(tank.cellHasObstacle(cell));
+                prev = cell;
+            }
+
+            if (!actual.isEmpty()) assertSame(destination, prev);
+        }
+
+        System.out.println(String.format("Expanded nodes: A-star %d, jump point %d", aStarExpanded, jumpPointExpanded));
+        assertTrue(jumpPointExpanded < aStarExpanded);
+    }
+
+    @Test
+    public void testSameLengthAsAStarOnMap() throws Exception {
+        assertSameLengths(Board.fromResource("/map.txt"), new Random(1), 2000);
+    }
+
+    @Test
+    public void testSameLengthAsAStarOnRandomMaps() throws Exception {
+        Random r = new Random(2);
+
+        for (int i = 0; i < 20; i++) {
+            assertSameLengths(makeRandomBoard(r, 10 + r.nextInt(20), 10 + r.nextInt(20), r.nextDouble() * 0.4), r, 200);
+        }
+    }
+
+    @Test
+    public void testSelectedPerBoard() throws Exception {
+        Board board = Board.fromResource("/map-for-path-test.txt");
+        assertTrue(board.getPathFinder() instanceof PathFinder);
+
+        board.setPathFinderType(PathFinderType.JUMP_POINT);
+        assertTrue(board.getPathFinder() instanceof JumpPointPathFinder);
+    }
+
+    @Test
+    public void testTablesRepairedWhenWallsChange() throws Exception {
+        Random r = new Random(3);
+        Board board = makeRandomBoard(r, 20, 25, 0);
+        board.setPathFinderType(PathFinderType.JUMP_POINT);
+
+        PathSearch jumpPoint = board.getPathFinder();
+        PathFinder aStar = new PathFinder(board);
+        Tank tank = new Tank(UUID.randomUUID(), board);
+        tank.setPos(board.getCell(0, 0).getCenter());
+        jumpPoint.find(tank, board.getCell(1, 1));          // tables are built before any change
+
+        for (int change = 0; change < 300; change++) {
+            BoardCell cell = board.getCell(r.nextInt(board.getRowCount()), r.nextInt(board.getColCount()));
+            if (cell.row + cell.col == 0) continue;
+
+            board.setCellOverlay(cell, r.nextDouble() < 0.4 ? "!" : "0");
+
+            BoardCell destination = board.getCell(r.nextInt(board.getRowCount()), r.nextInt(board.getColCount()));
+            assertEquals(aStar.find(tank, destination).size(), jumpPoint.find(tank, destination).size());
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class LagCompensationManagerTest {
+    private static final int SIZE = 10;
+    private static final double SPEED = 0.08;               // pixels per tick, maximum speed of tank
+
+    private static Board emptyBoard() {
+        List<String> lines = new ArrayList<>();
+        lines.add("size: " + SIZE + " : " + SIZE);
+        lines.add("spawn: 0,0");
+        lines.add("map:");
+
+        for (int row = 0; row < SIZE; row++) {
+            StringBuilder line = new StringBuilder(String.format("%02d", row));
+            for (int col = 0; col < SIZE; col++) line.append(" 00");
+            lines.add(line.toString());
+        }
+
+        return Board.fromList(lines);
+    }
+
+    /**
+     * Target moves right at full speed, starting at the center of cell 5, 2.
+     */
+    private static Tank movingTarget(Board board, int ticks) {
+        Tank target = new Tank(UUID.randomUUID(), board);
+        Point start = board.getCell(5, 2).getCenter();
+        target.setPos(start);
+        board.registerEntity(target);
+
+        for (int i = 1; i <= ticks; i++) {
+            target.setPos(start.x + i * SPEED, start.y);
+            board.update();
+        }
+
+        return target;
+    }
+
+    private static Bullet bulletAt(Board board, Point pos, int rewind) {
+        Bullet bullet = new Bullet(UUID.randomUUID(), board);
+        bullet.setPos(pos);
+        bullet.setHeading(180);
+        bullet.setOrderedHeading(180);
+        bullet.setRewind(rewind);
+        board.registerEntity(bullet);
+        return bullet;
+    }
+
+    @Test
+    public void testBulletHitsTargetWhereShooterSawIt() throws Exception {
+        Board board = emptyBoard();
+        LagCompensationManager lagCompensation = board.getLagCompensation();
+        Tank target = movingTarget(board, 300);
+
+        // target has moved by more than half of it's size since 300 ms ago
+        Point seen = board.getCell(5, 2).getCenter();
+        assertTrue(target.getDistanceTo(seen) > BoardCell.CELL_SIZE / 2);
+
+        Bullet current = bulletAt(board, seen, 0);
+        current.update();
+        assertFalse(current.isDead());
+
+        Bullet rewound = bulletAt(board, seen, 300);
+        rewound.update();
+        assertTrue(rewound.isDead());
+
+        // bounds target had 300 ms ago, up to one sample interval of error
+        double rewoundX = lagCompensation.getBoundsAt(target, 300).getX();
+        assertEquals(target.getBounds().getX() - 300 * SPEED, rewoundX, SPEED * LagCompensationManager.SAMPLE_INTERVAL);
+    }
+
+    @Test
+    public void testRewindIsLimitedByDepth() throws Exception {
+        Board board = emptyBoard();
+        LagCompensationManager lagCompensation = board.getLagCompensation();
+        lagCompensation.setMaxRewind(100);
+
+        Tank target = movingTarget(board, 1000);
+
+        assertEquals(100, lagCompensation.clampRewind(5000));
+        assertEquals(1, lagCompensation.getHistoryCount());
+
+        // deepest rewind gives oldest position kept, not position from a second ago
+        double rewoundX = lagCompensation.getBoundsAt(target, 5000).getX();
+        double currentX = target.getBounds().getX();
+        assertEquals(currentX - 100 * SPEED, rewoundX, SPEED * LagCompensationManager.SAMPLE_INTERVAL);
+    }
+}
@@ -0,0 +1,109 @@
+package game.world.entities;
+
+import game.world.Board;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class ProjectileSystemTest {
+    private static final int SIZE = 20;
+
+    private static Board emptyBoard() {
+        List<String> lines = new ArrayList<>();
+        lines.add("size: " + SIZE + " : " + SIZE);
+        lines.add("spawn: 0,0");
+        lines.add("map:");
+
+        for (int row = 0; row < SIZE; row++) {
+            StringBuilder line = new StringBuilder(String.format("%02d", row));
+            for (int col = 0; col < SIZE; col++) line.append(" 00");
+            lines.add(line.toString());
+        }
+
+        return Board.fromList(lines);
+    }
+
+    private static Tank tankAt(Board board, int row, int col, int heading) {
+        Tank tank = new Tank(UUID.randomUUID(), board);
+        tank.setPos(board.getCell(row, col).getCenter());
+        tank.setHeading(heading);
+        tank.setOrderedHeading(heading);
+        board.registerEntity(tank);
+        return tank;
+    }
+
+    @Test
+    public void testBulletHitsTargetButNotShooter() throws Exception {
+        Board board = emptyBoard();
+        Tank shooter = tankAt(board, 5, 2, 90);
+        Tank target = tankAt(board, 5, 6, 0);
+        int hitPoints = target.getHitPoints();
+
+        short bulletKey = shooter.getCannon().shoot();
+        assertEquals(1, board.getProjectiles().getCount());
+
+        for (int i = 0; i < 1000 && board.getEntity(bulletKey) != null; i++) {
+            board.update();
+        }
+
+        assertNull(board.getEntity(bulletKey));
+        assertTrue(target.getHitPoints() < hitPoints);
+        assertEquals(hitPoints, shooter.getHitPoints());
+
+        board.update();
+        assertEquals(0, board.getProjectiles().getCount());
+    }
+
+    @Test
+    public void testBulletSelfDestructsAtMaximumRange() throws Exception {
+        Board board = emptyBoard();
+        Tank shooter = tankAt(board, 10, 0, 90);
+        Bullet bullet = (Bullet) board.getEntity(shooter.getCannon().shoot());
+        Point muzzle = bullet.getPos();
+
+        while (!bullet.isDead()) {
+            board.update();
+        }
+
+        assertEquals(bullet.getTypeInfo().maxRange, bullet.getDistanceTo(muzzle), bullet.getMoveSpeed() * 2);
+    }
+
+    @Test
+    public void testManyProjectiles() throws Exception {
+        Board board = emptyBoard();
+        Random random = new Random(1);
+        int fired = 0;
+
+        for (int i = 0; i < 5000; i++) {
+            Tank tank = new Tank(UUID.randomUUID(), board);
+            tank.setPos(random.nextDouble() * board.getWidthInPixels(), random.nextDouble() * board.getHeightInPixels());
+            tank.setHeading(random.nextInt(4) * 90);
+            board.registerEntity(tank);
+
+            tank.getCannon().shoot();
+            board.removeActiveEntity(tank.getKey());        // only bullets are left
+            fired++;
+        }
+
+        assertEquals(fired, board.getProjectiles().getCount());
+
+        long t0 = System.nanoTime();
+        int ticks = 0;
+
+        while (board.getProjectiles().getCount() > 0 && ticks < 2000) {
+            board.update();
+            board.flushInactiveEntityList();
+            ticks++;
+        }
+
+        System.out.printf("%d projectiles, %d ticks, %.3f ms per tick%n", fired, ticks,
+                (System.nanoTime() - t0) / 1E6 / ticks);
+
+        assertEquals(0, board.getProjectiles().getCount());
+    }
+}
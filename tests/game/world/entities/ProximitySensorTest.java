@@ -0,0 +1,140 @@
+package game.world.entities;
+
+import game.world.Board;
+import game.world.BoardCell;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class ProximitySensorTest {
+
+    private static class Recorder implements ProximityListener {
+        final List<Positionable> entered = new ArrayList<>();
+        final List<Positionable> exited = new ArrayList<>();
+
+        @Override
+        public void entityEntered(ProximitySensor sensor, Positionable entity) {
+            entered.add(entity);
+        }
+
+        @Override
+        public void entityExited(ProximitySensor sensor, Positionable entity) {
+            exited.add(entity);
+        }
+    }
+
+    @Test
+    public void testEnterAndExitEvents() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+
+        Tank owner = new Tank(UUID.randomUUID(), board);
+        owner.setPos(board.getCell(10, 10).getCenter());
+        board.registerEntity(owner);
+
+        Tank other = new Tank(UUID.randomUUID(), board);
+        other.setPos(board.getCell(10, 20).getCenter());
+        board.registerEntity(other);
+
+        Recorder recorder = new Recorder();
+        ProximitySensor sensor = new ProximitySensor(owner, 2, Tank.class, recorder);
+        board.getProximitySensors().addSensor(sensor);
+        assertTrue(recorder.entered.isEmpty());
+
+        // moving inside of cell or outside of area produces no events
+        other.setPos(board.getCell(10, 13).getCenter());
+        other.setPos(other.getX() + 3, other.getY());
+        assertTrue(recorder.entered.isEmpty());
+
+        other.setPos(board.getCell(10, 12).getCenter());
+        assertEquals(1, recorder.entered.size());
+        assertTrue(sensor.getEntitiesInsideUnmodifiable().contains(other));
+
+        // owner moving away leaves other behind
+        owner.setPos(board.getCell(10, 9).getCenter());
+        assertEquals(1, recorder.exited.size());
+
+        // owner moving back brings it in again
+        owner.setPos(board.getCell(10, 10).getCenter());
+        assertEquals(2, recorder.entered.size());
+
+        // removal from board counts as exit
+        board.removeActiveEntity(other.getKey());
+        assertEquals(2, recorder.exited.size());
+        assertTrue(sensor.getEntitiesInsideUnmodifiable().isEmpty());
+    }
+
+    @Test
+    public void testTypeFilterAndOwnerRemoval() throws Exception {
+        Board board = Board.fromResource("/map.txt");
+
+        Tank owner = new Tank(UUID.randomUUID(), board);
+        owner.setPos(board.getCell(5, 5).getCenter());
+        board.registerEntity(owner);
+
+        Recorder recorder = new Recorder();
+        board.getProximitySensors().addSensor(new ProximitySensor(owner, 3, Tank.class, recorder));
+
+        Bullet bullet = new Bullet(UUID.randomUUID(), board);
+        bullet.setPos(board.getCell(5, 6).getCenter());
+        assertTrue(recorder.entered.isEmpty());
+
+        board.removeActiveEntity(owner.getKey());
+        assertEquals(0, board.getProximitySensors().getSensorCount());
+    }
+
+    @Test
+    public void testSensorsKeptInSectorBucketsSeeSameAsFullScan() throws Exception {
+        Random r = new Random(1);
+        Board board = Board.fromResource("/map.txt");
+
+        List<Tank> tanks = new ArrayList<>();
+        List<ProximitySensor> sensors = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            Tank tank = new Tank(UUID.randomUUID(), board);
+            tank.setPos(board.getCell(r.nextInt(board.getRowCount()), r.nextInt(board.getColCount())).getCenter());
+            board.registerEntity(tank);
+            tanks.add(tank);
+
+            if (i % 2 == 0) {
+                ProximitySensor sensor = new ProximitySensor(tank, 1 + i % 5, Tank.class, new Recorder());
+                board.getProximitySensors().addSensor(sensor);
+                sensors.add(sensor);
+            }
+        }
+
+        for (int step = 0; step < 2000; step++) {
+            // single cell steps, as tanks move, and jumps across board
+            Tank tank = tanks.get(r.nextInt(tanks.size()));
+            BoardCell cell = tank.getCell();
+            int row = (step % 10 == 0) ? r.nextInt(board.getRowCount()) : cell.row + r.nextInt(3) - 1;
+            int col = (step % 10 == 0) ? r.nextInt(board.getColCount()) : cell.col + r.nextInt(3) - 1;
+
+            row = Math.max(0, Math.min(board.getRowCount() - 1, row));
+            col = Math.max(0, Math.min(board.getColCount() - 1, col));
+            tank.setPos(board.getCell(row, col).getCenter());
+        }
+
+        for (ProximitySensor sensor : sensors) {
+            BoardCell center = sensor.getOwner().getCell();
+            Set<Positionable> expected = new HashSet<>();
+
+            for (Tank tank : tanks) {
+                if (tank == sensor.getOwner()) continue;
+
+                BoardCell cell = tank.getCell();
+                if (Math.abs(cell.row - center.row) <= sensor.getCellsAway()
+                        && Math.abs(cell.col - center.col) <= sensor.getCellsAway()) expected.add(tank);
+            }
+
+            assertEquals(expected, new HashSet<>(sensor.getEntitiesInsideUnmodifiable()));
+        }
+    }
+}